@@ -0,0 +1,49 @@
+package com.GitTimeTraveler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.GitTimeTraveler.service.GitService;
+import com.GitTimeTraveler.service.impl.GitServiceImpl;
+
+/**
+ * Commit command export for a full year at every intensity level
+ *
+ * Export never reads a repository, so the numbers cover shade solving and
+ * command formatting only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommitCommandsBenchmark {
+    
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    private static final int YEAR = 2023;
+    
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int intensity;
+    
+    private GitService gitService;
+    private int[][] pattern;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        gitService = new GitServiceImpl();
+        pattern = new int[GRID_ROWS][GRID_COLS];
+        for (int row = 0; row < GRID_ROWS; row++) {
+            for (int col = 0; col < GRID_COLS; col++) {
+                pattern[row][col] = intensity;
+            }
+        }
+    }
+    
+    @Benchmark
+    public String generateCommitCommands() {
+        return gitService.generateCommitCommands(pattern, YEAR, "BENCH");
+    }
+}
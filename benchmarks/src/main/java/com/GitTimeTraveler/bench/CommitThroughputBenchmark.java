@@ -0,0 +1,323 @@
+package com.GitTimeTraveler.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.ml.BitmapGlyphs;
+import com.GitTimeTraveler.service.GitService;
+import com.GitTimeTraveler.service.impl.FastImportWriter;
+import com.GitTimeTraveler.service.impl.GitServiceImpl;
+import com.GitTimeTraveler.service.impl.ShadeSolver;
+
+/**
+ * End-to-end commit throughput benchmark
+ *
+ * Creates a fresh temporary git repository for every run and lets a commit
+ * backend fill it with one of the standard patterns:
+ *   - sparse text: "HELLO" rendered with the bitmap glyphs into one year,
+ *   - dense year: every day of a year, intensities cycling through 1-6,
+ *   - multi-year: the dense pattern for three consecutive years in one repository.
+ * For each scenario it reports commits per second, p50/p99 latency per commit
+ * (the time between successive progress callbacks), the wall time of a run,
+ * the part of it spent finishing after the last commit, the bytes the run
+ * added to .git and the final size of .git. Everything runs offline against the
+ * local git; the repositories are deleted afterwards.
+ *
+ * The "process" backend is GitService.createRealCommits (one git add and one
+ * git commit process per commit); "fast-import" writes the same commits, planned,
+ * dated and filled in by GitServiceImpl's own helpers, through one
+ * FastImportWriter per year, whose close() (pack and checkout) counts as finishing. Further backends can be registered in
+ * BACKENDS and selected by name. Run with -Dgitt.metrics.interval=N to see
+ * where the time goes per git subcommand.
+ *
+ * Usage: java -cp target/classes:benchmarks/target/classes com.GitTimeTraveler.bench.CommitThroughputBenchmark [runs] [backend]
+ */
+public class CommitThroughputBenchmark {
+    
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    private static final int DEFAULT_RUNS = 3;
+    private static final int FIRST_YEAR = 2020;
+    
+    /**
+     * Creates the commits for one pattern and year in a repository, blocking until
+     * done and reporting each commit through the progress callback
+     */
+    interface Backend {
+        /**
+         * @return nanoseconds spent after the last commit was reported
+         */
+        long createCommits(Path repository, int[][] pattern, int year, GitService.ProgressCallback progress) throws Exception;
+    }
+    
+    private static final Map<String, Backend> BACKENDS = new LinkedHashMap<>();
+    
+    static {
+        BACKENDS.put("process", CommitThroughputBenchmark::createRealCommits);
+        BACKENDS.put("fast-import", CommitThroughputBenchmark::fastImport);
+    }
+    
+    /**
+     * A pattern applied to consecutive years of one repository
+     */
+    private static class Scenario {
+        final String name;
+        final int[][] pattern;
+        final int years;
+        
+        Scenario(String name, int[][] pattern, int years) {
+            this.name = name;
+            this.pattern = pattern;
+            this.years = years;
+        }
+    }
+    
+    /**
+     * Measurements of one run
+     */
+    private static class Result {
+        final List<Long> latencies = new ArrayList<>();
+        long elapsed;
+        long finish;
+        long bytesWritten;
+        long repoSize;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Metrics.configure();
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        String backendName = args.length > 1 ? args[1] : "process";
+        Backend backend = BACKENDS.get(backendName);
+        if (backend == null) {
+            System.err.println("Unknown backend: " + backendName + " (available: " + BACKENDS.keySet() + ")");
+            System.exit(2);
+        }
+        
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("sparse text", sparseText(), 1));
+        scenarios.add(new Scenario("dense year", denseYear(), 1));
+        scenarios.add(new Scenario("multi-year (3)", denseYear(), 3));
+        
+        System.out.println("Commit throughput benchmark: backend " + backendName + ", " + runs + " runs, "
+            + gitVersion() + ", java " + System.getProperty("java.version"));
+        for (Scenario scenario : scenarios) {
+            benchmark(backend, scenario, runs);
+        }
+    }
+    
+    private static void benchmark(Backend backend, Scenario scenario, int runs) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        long elapsed = 0;
+        long finish = 0;
+        long bytesWritten = 0;
+        long repoSize = 0;
+        for (int i = 0; i < runs; i++) {
+            Result result = run(backend, scenario);
+            latencies.addAll(result.latencies);
+            elapsed += result.elapsed;
+            finish += result.finish;
+            bytesWritten += result.bytesWritten;
+            repoSize += result.repoSize;
+        }
+        
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            System.out.printf("%-16s no commits created%n", scenario.name);
+            return;
+        }
+        long commits = sorted.length / runs;
+        System.out.printf("%-16s %6d commits   %7.1f commits/s   p50 %6.2f ms   p99 %6.2f ms   wall %8.1f ms   finish %8.1f ms   written %s   repo %s%n",
+            scenario.name, commits, sorted.length / (elapsed / 1e9),
+            millis(percentile(sorted, 0.5)), millis(percentile(sorted, 0.99)),
+            millis(elapsed / runs), millis(finish / runs),
+            formatBytes(bytesWritten / runs), formatBytes(repoSize / runs));
+    }
+    
+    /**
+     * One run of a scenario in a new temporary repository
+     */
+    private static Result run(Backend backend, Scenario scenario) throws Exception {
+        Path repository = Files.createTempDirectory("gitt-throughput");
+        try {
+            git(repository, "init", "--quiet");
+            git(repository, "config", "user.name", "Benchmark");
+            git(repository, "config", "user.email", "benchmark@example.com");
+            git(repository, "config", "commit.gpgsign", "false");
+            
+            Result result = new Result();
+            long sizeBefore = size(repository.resolve(".git").toFile());
+            long[] last = new long[1];
+            GitService.ProgressCallback progress = (current, total, message) -> {
+                // current counts commits from 1; 0 marks the setup phases
+                long now = System.nanoTime();
+                if (current > 0 && last[0] != 0) {
+                    result.latencies.add(now - last[0]);
+                }
+                last[0] = current > 0 ? now : 0;
+            };
+            
+            long start = System.nanoTime();
+            for (int year = FIRST_YEAR; year < FIRST_YEAR + scenario.years; year++) {
+                long finish = backend.createCommits(repository, scenario.pattern, year, progress);
+                if (last[0] != 0) {
+                    result.latencies.add(System.nanoTime() - last[0] - finish);
+                    last[0] = 0;
+                }
+                result.finish += finish;
+            }
+            result.elapsed = System.nanoTime() - start;
+            
+            result.repoSize = size(repository.resolve(".git").toFile());
+            result.bytesWritten = result.repoSize - sizeBefore;
+            return result;
+        } finally {
+            deleteRecursively(repository.toFile());
+        }
+    }
+    
+    /**
+     * The application's commit path: GitServiceImpl.createRealCommits, waited for
+     */
+    private static long createRealCommits(Path repository, int[][] pattern, int year,
+                                          GitService.ProgressCallback progress) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        new GitServiceImpl(repository).createRealCommits(pattern, year, "HELLO", progress, line -> { },
+            new GitService.CompletionCallback() {
+                @Override
+                public void onSuccess(String message) {
+                    done.countDown();
+                }
+                
+                @Override
+                public void onError(String message) {
+                    error.set(message);
+                    done.countDown();
+                }
+            });
+        done.await();
+        if (error.get() != null) {
+            throw new IOException(error.get());
+        }
+        return 0;
+    }
+    
+    /**
+     * The commits createRealCommits would plan for a fresh repository, streamed through git fast-import
+     */
+    private static long fastImport(Path repository, int[][] pattern, int year,
+                                   GitService.ProgressCallback progress) throws Exception {
+        GitServiceImpl service = new GitServiceImpl(repository);
+        LocalDate firstSunday = service.getGridStartDate(year);
+        ShadeSolver.Plan plan = service.planCommits(pattern, year, firstSunday, new int[GRID_ROWS][GRID_COLS]);
+        
+        int count = 0;
+        long finishStart;
+        try (FastImportWriter writer = FastImportWriter.open(repository, "Benchmark <benchmark@example.com>")) {
+            for (int week = 0; week < GRID_COLS; week++) {
+                for (int day = 0; day < GRID_ROWS; day++) {
+                    LocalDate date = firstSunday.plusWeeks(week).plusDays(day);
+                    int intensity = pattern[day][week];
+                    for (int i = 0; i < plan.commits[day][week]; i++) {
+                        count++;
+                        String content = GitServiceImpl.commitFileContent("HELLO", date, week, day, intensity, count);
+                        writer.commit(date, 12 * 60 * 60, GitServiceImpl.commitMessage("HELLO", intensity, date),
+                            content.getBytes(StandardCharsets.UTF_8));
+                        progress.onProgress(count, plan.totalCommits, "");
+                    }
+                }
+            }
+            finishStart = System.nanoTime();
+        }
+        return System.nanoTime() - finishStart;
+    }
+    
+    private static int[][] sparseText() {
+        int[][] pattern = new int[GRID_ROWS][GRID_COLS];
+        BitmapGlyphs.getInstance().render("HELLO", pattern, 1);
+        return pattern;
+    }
+    
+    private static int[][] denseYear() {
+        int[][] pattern = new int[GRID_ROWS][GRID_COLS];
+        for (int week = 0; week < GRID_COLS; week++) {
+            for (int day = 0; day < GRID_ROWS; day++) {
+                pattern[day][week] = (week + day) % 6 + 1;
+            }
+        }
+        return pattern;
+    }
+    
+    private static String gitVersion() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("git", "--version")
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        String version = new String(process.getInputStream().readAllBytes()).trim();
+        process.waitFor();
+        return version;
+    }
+    
+    private static void git(Path repository, String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+        Process process = new ProcessBuilder(command)
+            .directory(repository.toFile())
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        if (process.waitFor() != 0) {
+            throw new IOException(String.join(" ", command) + " failed");
+        }
+    }
+    
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return String.format("%6.1f KiB", bytes / 1024.0);
+        }
+        return String.format("%6.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+    
+    private static long size(File file) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            return file.length();
+        }
+        long total = 0;
+        for (File child : children) {
+            total += size(child);
+        }
+        return total;
+    }
+    
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+}
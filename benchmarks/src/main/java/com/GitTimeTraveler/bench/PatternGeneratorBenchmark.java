@@ -0,0 +1,32 @@
+package com.GitTimeTraveler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.GitTimeTraveler.ml.PatternGenerator;
+
+/**
+ * Pattern generation from text, with and without custom parameters
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternGeneratorBenchmark {
+    
+    @Param({"HI", "HELLO WORLD", "PASINDU SAMPATH"})
+    public String text;
+    
+    @Benchmark
+    public int[][] generatePattern() {
+        return PatternGenerator.generatePattern(text, 2024);
+    }
+    
+    @Benchmark
+    public int[][] generateCustomPattern() {
+        return PatternGenerator.generateCustomPattern(text, 2024, 0.7, 0.5, 0.6);
+    }
+}
@@ -0,0 +1,63 @@
+package com.GitTimeTraveler.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.GitTimeTraveler.service.FileService;
+import com.GitTimeTraveler.service.impl.PatternNameIndex;
+
+/**
+ * First page of a name search at different library sizes
+ *
+ * Names are two words from a small vocabulary plus a number, so prefixes and
+ * typos match many names at once, which is the hard case. update adds and
+ * removes one name, as a save followed by a delete does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternNameIndexBenchmark {
+    
+    private static final String[] WORDS = {"hello", "world", "pattern", "logo", "heart", "wave",
+                                            "spiral", "name", "star", "github", "contribution", "test"};
+    private static final int PAGE_SIZE = 200;
+    
+    @Param({"10000", "100000", "300000"})
+    public int names;
+    
+    // Everything, a prefix, a one-typo prefix, a two-typo prefix
+    @Param({"", "hel", "wrold", "contirbution"})
+    public String query;
+    
+    private PatternNameIndex index;
+    
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        Random random = new Random(42);
+        List<String> all = new ArrayList<>(names);
+        for (int i = 0; i < names; i++) {
+            all.add(WORDS[random.nextInt(WORDS.length)] + "-" + WORDS[random.nextInt(WORDS.length)] + "-" + i);
+        }
+        index = new PatternNameIndex();
+        index.addAll(all);
+    }
+    
+    @Benchmark
+    public FileService.NamePage search() {
+        return index.search(query, 0, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public int update() {
+        index.add("bench-new-name");
+        index.remove("bench-new-name");
+        return index.size();
+    }
+}
@@ -0,0 +1,105 @@
+package com.GitTimeTraveler.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.GitTimeTraveler.ml.BitmapGlyphs;
+import com.GitTimeTraveler.service.FileService;
+import com.GitTimeTraveler.service.impl.PatternSimilarityIndex;
+
+/**
+ * Top-10 similarity queries against libraries of different sizes
+ *
+ * The library holds text patterns of random words with some noise, like a
+ * library of generated and hand-edited designs. Queries are library patterns
+ * with one cell changed, so there is always a close match to find. scan is
+ * the plain loop over int[][] grids the index replaces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternSimilarityBenchmark {
+    
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    private static final int QUERIES = 64;
+    private static final int LIMIT = 10;
+    
+    @Param({"1000", "10000", "100000"})
+    public int patterns;
+    
+    @Param({"L1", "HAMMING"})
+    public FileService.Distance distance;
+    
+    private PatternSimilarityIndex index;
+    private int[][][] library;
+    private int[][][] queries;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        Random random = new Random(42);
+        index = new PatternSimilarityIndex();
+        library = new int[patterns][][];
+        for (int i = 0; i < patterns; i++) {
+            library[i] = randomPattern(random);
+            index.put("pattern-" + i, library[i]);
+        }
+        
+        queries = new int[QUERIES][GRID_ROWS][];
+        for (int q = 0; q < QUERIES; q++) {
+            int[][] base = library[random.nextInt(patterns)];
+            for (int row = 0; row < GRID_ROWS; row++) {
+                queries[q][row] = base[row].clone();
+            }
+            queries[q][random.nextInt(GRID_ROWS)][random.nextInt(GRID_COLS)] = random.nextInt(7);
+        }
+    }
+    
+    @Benchmark
+    public List<FileService.PatternMatch> nearest() {
+        return index.nearest(nextQuery(), LIMIT, distance);
+    }
+    
+    @Benchmark
+    public int scan() {
+        // Best distance only; a full top-k would cost more on top
+        int[][] query = nextQuery();
+        int best = Integer.MAX_VALUE;
+        for (int[][] pattern : library) {
+            int sum = 0;
+            for (int row = 0; row < GRID_ROWS; row++) {
+                for (int col = 0; col < GRID_COLS; col++) {
+                    int a = query[row][col];
+                    int b = pattern[row][col];
+                    sum += distance == FileService.Distance.L1 ? Math.abs(a - b) : (a > 0) != (b > 0) ? 1 : 0;
+                }
+            }
+            best = Math.min(best, sum);
+        }
+        return best;
+    }
+    
+    private int[][] nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+    
+    private static int[][] randomPattern(Random random) {
+        int[][] pattern = new int[GRID_ROWS][GRID_COLS];
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + random.nextInt(5); i > 0; i--) {
+            word.append((char) ('A' + random.nextInt(26)));
+        }
+        BitmapGlyphs.getInstance().render(word.toString(), pattern, 1 + random.nextInt(6));
+        for (int i = random.nextInt(40); i > 0; i--) {
+            pattern[random.nextInt(GRID_ROWS)][random.nextInt(GRID_COLS)] = random.nextInt(7);
+        }
+        return pattern;
+    }
+}
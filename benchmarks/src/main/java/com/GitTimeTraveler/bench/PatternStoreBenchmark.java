@@ -0,0 +1,76 @@
+package com.GitTimeTraveler.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.GitTimeTraveler.service.FileService;
+import com.GitTimeTraveler.service.impl.FileServiceImpl;
+
+/**
+ * Loading and saving the pattern library at different library sizes
+ *
+ * Each trial writes a library of the given size to a temporary file, so the
+ * real saved_patterns.txt is never touched. savePattern overwrites the same
+ * entry every time, so the library size stays fixed during measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternStoreBenchmark {
+    
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int patterns;
+    
+    private Path file;
+    private FileService fileService;
+    private int[][] pattern;
+    
+    @Setup(Level.Trial)
+    public void createLibrary() throws IOException {
+        file = Files.createTempFile("gitt-bench-patterns", ".txt");
+        fileService = new FileServiceImpl(file);
+        pattern = new int[GRID_ROWS][GRID_COLS];
+        
+        // Written directly in the saved_patterns.txt format; saving one by one would take O(n^2)
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < patterns; i++) {
+                writer.write("PATTERN: pattern-" + i + "\n");
+                writer.write("TEXT " + i + "\n");
+                writer.write((2000 + i % 25) + "\n");
+                for (int row = 0; row < GRID_ROWS; row++) {
+                    for (int col = 0; col < GRID_COLS; col++) {
+                        writer.write('0' + (i + row * col) % 7);
+                    }
+                    writer.write("\n");
+                }
+            }
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void deleteLibrary() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    @Benchmark
+    public Map<String, FileService.SavedPattern> loadAllPatterns() throws Exception {
+        return fileService.loadAllPatterns();
+    }
+    
+    @Benchmark
+    public void savePattern() throws Exception {
+        fileService.savePattern("pattern-0", "BENCH", 2024, pattern);
+    }
+}
@@ -0,0 +1,205 @@
+package com.GitTimeTraveler.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.GitTimeTraveler.SimpleGitHubApp;
+
+/**
+ * Repeatable startup benchmark
+ *
+ * Launches fresh JVMs with the current classpath and measures, from process
+ * start, the time until
+ *   - the first CLI result line appears (list-patterns and generate), and
+ *   - the GUI window is shown and its event queue is idle (the app's
+ *     gitt.startup.probe hook prints a marker and exits).
+ * Each child runs in an empty temporary directory so saved patterns and model
+ * files from the working tree don't change the numbers. One extra CLI run
+ * with -verbose:class counts the java.awt/javax.swing classes it loads; that
+ * must stay 0 and the benchmark exits with status 1 otherwise. The GUI
+ * scenario is skipped when no display is available.
+ *
+ * Usage: java -cp target/classes:benchmarks/target/classes com.GitTimeTraveler.bench.StartupBenchmark [runs] [warmups]
+ */
+public class StartupBenchmark {
+    
+    private static final int DEFAULT_RUNS = 10;
+    private static final int DEFAULT_WARMUPS = 2;
+    private static final long TIMEOUT_SECONDS = 60;
+    
+    private static final String CLI_CLASS = "com.GitTimeTraveler.cli.GitTimeTravelerCli";
+    private static final String APP_CLASS = "com.GitTimeTraveler.SimpleGitHubApp";
+    
+    /**
+     * One child JVM launch: main class, arguments and the output line that ends the measurement
+     */
+    private static class Scenario {
+        final String name;
+        final List<String> jvmOptions;
+        final List<String> command;
+        final String readyPrefix;
+        
+        Scenario(String name, List<String> jvmOptions, List<String> command, String readyPrefix) {
+            this.name = name;
+            this.jvmOptions = jvmOptions;
+            this.command = command;
+            this.readyPrefix = readyPrefix;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        int warmups = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WARMUPS;
+        
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("cli list-patterns", Collections.emptyList(),
+            Arrays.asList(CLI_CLASS, "list-patterns"), "{"));
+        scenarios.add(new Scenario("cli generate", Collections.emptyList(),
+            Arrays.asList(CLI_CLASS, "generate", "--text", "HELLO", "--year", "2025"), "{"));
+        scenarios.add(new Scenario("gui first interaction",
+            Collections.singletonList("-D" + SimpleGitHubApp.STARTUP_PROBE_PROPERTY + "=true"),
+            Collections.singletonList(APP_CLASS), SimpleGitHubApp.STARTUP_PROBE_MARKER));
+        
+        System.out.println("Startup benchmark: " + runs + " runs, " + warmups + " warmups, java "
+            + System.getProperty("java.version"));
+        for (Scenario scenario : scenarios) {
+            benchmark(scenario, runs, warmups);
+        }
+        
+        int uiClasses = countUiClasses(scenarios.get(1));
+        System.out.println("AWT/Swing classes loaded by cli generate: " + uiClasses);
+        if (uiClasses > 0) {
+            System.exit(1);
+        }
+    }
+    
+    private static void benchmark(Scenario scenario, int runs, int warmups) throws Exception {
+        long[] samples = new long[runs];
+        for (int i = -warmups; i < runs; i++) {
+            long elapsed = launch(scenario, Collections.emptyList(), null);
+            if (elapsed < 0) {
+                System.out.printf("%-24s skipped (child did not report ready; no display?)%n", scenario.name);
+                return;
+            }
+            if (i >= 0) {
+                samples[i] = elapsed;
+            }
+        }
+        
+        Arrays.sort(samples);
+        System.out.printf("%-24s min %6.1f ms   p50 %6.1f ms   p90 %6.1f ms   max %6.1f ms%n",
+            scenario.name, millis(samples[0]), millis(percentile(samples, 0.5)),
+            millis(percentile(samples, 0.9)), millis(samples[samples.length - 1]));
+    }
+    
+    /**
+     * Start a child JVM and return nanoseconds until its ready line, or -1 if it never
+     * appeared or the child did not exit within TIMEOUT_SECONDS
+     */
+    private static long launch(Scenario scenario, List<String> extraOptions, List<String> output) throws Exception {
+        Path workDir = Files.createTempDirectory("gitt-startup");
+        try {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-cp");
+            command.add(absoluteClassPath());
+            command.addAll(scenario.jvmOptions);
+            command.addAll(extraOptions);
+            command.addAll(scenario.command);
+            
+            ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+            
+            long start = System.nanoTime();
+            Process process = builder.start();
+            
+            // Read output on its own thread so a child that hangs without closing
+            // stdout still runs into the timeout below
+            AtomicLong ready = new AtomicLong(-1);
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (ready.get() < 0 && line.startsWith(scenario.readyPrefix)) {
+                            ready.set(System.nanoTime() - start);
+                        }
+                        if (output != null) {
+                            output.add(line);
+                        }
+                    }
+                } catch (IOException e) {
+                    // Output ends with the child
+                }
+            }, "startup-output");
+            reader.setDaemon(true);
+            reader.start();
+            
+            boolean exited = process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (!exited) {
+                process.destroyForcibly().waitFor();
+            }
+            reader.join();
+            return exited ? ready.get() : -1;
+        } finally {
+            deleteRecursively(workDir.toFile());
+        }
+    }
+    
+    /**
+     * Run a scenario once with class-load logging and count UI toolkit classes
+     */
+    private static int countUiClasses(Scenario scenario) throws Exception {
+        List<String> output = new ArrayList<>();
+        launch(scenario, Collections.singletonList("-verbose:class"), output);
+        int count = 0;
+        for (String line : output) {
+            if (line.contains(" java.awt.") || line.contains(" javax.swing.")) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * This JVM's class path with every entry made absolute, since children run in a temporary directory
+     */
+    private static String absoluteClassPath() {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            entries.add(Path.of(entry).toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+    
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+}
@@ -0,0 +1,233 @@
+package com.GitTimeTraveler.bench;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.service.impl.FastImportWriter;
+
+/**
+ * Generates repositories with very large pattern histories for load tests
+ *
+ * Spreads a given number of commits (10^5 to 10^7 and beyond) over every day
+ * of a range of years. A distribution assigns each day an intensity 0-6 and
+ * the commits are split in proportion to it, so the busiest days get six
+ * times the commits of the quietest. Commits look like the ones
+ * GitServiceImpl creates (same file, same message format with intensity and
+ * date) and are streamed through a single git fast-import process, which
+ * writes them straight into a pack instead of spawning git twice per commit.
+ *
+ * Output is deterministic: the same arguments produce the same commit hashes,
+ * because the distribution is seeded and author, committer and timestamps are
+ * fixed. The file content changes once per day, so all commits of a day share
+ * one tree and the object count stays close to the commit count.
+ *
+ *   uniform   every day intensity 3
+ *   weekday   intensity 4 on weekdays, 1 on weekends
+ *   random    every day an independent intensity 0-6
+ *   bursty    mostly quiet days with occasional bursts of 3-14 busy days
+ *
+ * Usage: java -cp target/classes:benchmarks/target/classes com.GitTimeTraveler.bench.SyntheticRepositoryGenerator DIR
+ *            [--commits N] [--years FROM-TO] [--distribution NAME] [--seed N] [--text TEXT]
+ */
+public class SyntheticRepositoryGenerator {
+    
+    private static final int DEFAULT_COMMITS = 100_000;
+    private static final int DEFAULT_FIRST_YEAR = 2015;
+    private static final int DEFAULT_LAST_YEAR = 2024;
+    private static final String DEFAULT_DISTRIBUTION = "weekday";
+    private static final long DEFAULT_SEED = 42;
+    private static final String DEFAULT_TEXT = "LOAD";
+    private static final String IDENTITY = "GitTimeTraveler Fixtures <fixtures@gitt.invalid>";
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int PROGRESS_INTERVAL = 1 << 18;
+    
+    /**
+     * Fills in an intensity 0-6 for each consecutive day
+     */
+    interface Distribution {
+        void intensities(LocalDate first, int[] intensities, Random random);
+    }
+    
+    private static final Map<String, Distribution> DISTRIBUTIONS = new LinkedHashMap<>();
+    
+    static {
+        DISTRIBUTIONS.put("uniform", (first, intensities, random) -> Arrays.fill(intensities, 3));
+        DISTRIBUTIONS.put("weekday", (first, intensities, random) -> {
+            for (int i = 0; i < intensities.length; i++) {
+                DayOfWeek day = first.plusDays(i).getDayOfWeek();
+                intensities[i] = day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY ? 1 : 4;
+            }
+        });
+        DISTRIBUTIONS.put("random", (first, intensities, random) -> {
+            for (int i = 0; i < intensities.length; i++) {
+                intensities[i] = random.nextInt(7);
+            }
+        });
+        DISTRIBUTIONS.put("bursty", (first, intensities, random) -> {
+            int burst = 0;
+            for (int i = 0; i < intensities.length; i++) {
+                if (burst == 0 && random.nextInt(20) == 0) {
+                    burst = 3 + random.nextInt(12);
+                }
+                if (burst > 0) {
+                    intensities[i] = 5 + random.nextInt(2);
+                    burst--;
+                } else {
+                    intensities[i] = random.nextInt(4) == 0 ? 1 : 0;
+                }
+            }
+        });
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Metrics.configure();
+        if (args.length == 0 || args[0].startsWith("--")) {
+            usage("Missing target directory");
+        }
+        
+        Path repository = Paths.get(args[0]).toAbsolutePath().normalize();
+        long commits = DEFAULT_COMMITS;
+        int firstYear = DEFAULT_FIRST_YEAR;
+        int lastYear = DEFAULT_LAST_YEAR;
+        String distributionName = DEFAULT_DISTRIBUTION;
+        long seed = DEFAULT_SEED;
+        String text = DEFAULT_TEXT;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--commits":
+                    // Accepts 1000000, 1_000_000 and 1e6
+                    commits = (long) Double.parseDouble(value.replace("_", ""));
+                    break;
+                case "--years":
+                    String[] range = value.split("-");
+                    firstYear = Integer.parseInt(range[0]);
+                    lastYear = Integer.parseInt(range[range.length - 1]);
+                    break;
+                case "--distribution":
+                    distributionName = value;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--text":
+                    text = value;
+                    break;
+                default:
+                    usage("Unknown option: " + args[i]);
+            }
+        }
+        
+        Distribution distribution = DISTRIBUTIONS.get(distributionName);
+        if (distribution == null) {
+            usage("Unknown distribution: " + distributionName + " (available: " + DISTRIBUTIONS.keySet() + ")");
+        }
+        if (commits < 1 || commits > Integer.MAX_VALUE || lastYear < firstYear) {
+            usage("Need 1 to " + Integer.MAX_VALUE + " commits and FROM <= TO");
+        }
+        File[] existing = repository.toFile().listFiles();
+        if (existing != null && existing.length > 0) {
+            usage("Target directory is not empty: " + repository);
+        }
+        Files.createDirectories(repository);
+        
+        LocalDate first = LocalDate.of(firstYear, 1, 1);
+        int[] intensities = new int[(int) (LocalDate.of(lastYear + 1, 1, 1).toEpochDay() - first.toEpochDay())];
+        distribution.intensities(first, intensities, new Random(seed));
+        int[] counts = allocate(commits, intensities);
+        
+        System.out.printf("Generating %,d commits over %d-%d (%s, seed %d) in %s%n",
+            commits, firstYear, lastYear, distributionName, seed, repository);
+        long start = System.nanoTime();
+        generate(repository, first, intensities, counts, text, commits);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Created %,d commits in %.1f s (%,.0f commits/s), .git is %.1f MiB%n",
+            commits, seconds, commits / seconds, size(repository.resolve(".git").toFile()) / (1024.0 * 1024.0));
+    }
+    
+    /**
+     * Split the commits over the days in proportion to their intensity; the counts add up exactly
+     */
+    static int[] allocate(long commits, int[] intensities) {
+        long weight = 0;
+        for (int intensity : intensities) {
+            weight += intensity;
+        }
+        if (weight == 0) {
+            throw new IllegalArgumentException("Distribution left every day empty");
+        }
+        int[] counts = new int[intensities.length];
+        long cumulative = 0;
+        long allocated = 0;
+        for (int i = 0; i < intensities.length; i++) {
+            cumulative += intensities[i];
+            long upTo = Math.round((double) commits * cumulative / weight);
+            counts[i] = (int) (upTo - allocated);
+            allocated = upTo;
+        }
+        return counts;
+    }
+    
+    private static void generate(Path repository, LocalDate first, int[] intensities, int[] counts,
+                                 String text, long total) throws Exception {
+        long created = 0;
+        long start = System.nanoTime();
+        try (FastImportWriter writer = FastImportWriter.open(repository, IDENTITY)) {
+            for (int i = 0; i < counts.length; i++) {
+                int commits = counts[i];
+                if (commits == 0) {
+                    continue;
+                }
+                LocalDate date = first.plusDays(i);
+                String day = date.format(DateTimeFormatter.ISO_LOCAL_DATE);
+                String message = "Commit for " + text + " pattern (intensity " + intensities[i] + ") - " + day;
+                byte[] content = ("GitHub Contribution Pattern\n" +
+                                  "Text: " + text + "\n" +
+                                  "Date: " + day + "\n" +
+                                  "Intensity: " + intensities[i] + "\n" +
+                                  "Commits: " + commits + "\n").getBytes(StandardCharsets.UTF_8);
+                
+                for (int c = 0; c < commits; c++) {
+                    // Spread over the day in order, so commit dates increase along the history
+                    writer.commit(date, (int) ((long) c * SECONDS_PER_DAY / commits), message, content);
+                    created++;
+                    if (created % PROGRESS_INTERVAL == 0) {
+                        double seconds = (System.nanoTime() - start) / 1e9;
+                        System.out.printf("  %,d / %,d commits (%,.0f commits/s)%n", created, total, created / seconds);
+                    }
+                }
+            }
+            System.out.println("  checking out the new tip...");
+        }
+    }
+    
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: SyntheticRepositoryGenerator DIR [--commits N] [--years FROM-TO]"
+            + " [--distribution " + String.join("|", DISTRIBUTIONS.keySet()) + "] [--seed N] [--text TEXT]");
+        System.exit(2);
+    }
+    
+    private static long size(File file) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            return file.length();
+        }
+        long total = 0;
+        for (File child : children) {
+            total += size(child);
+        }
+        return total;
+    }
+}
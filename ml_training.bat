@@ -5,7 +5,7 @@ echo ========================================
 echo.
 
 echo Compiling ML classes...
-javac -d target/classes src/main/java/com/funnygithub/ml/*.java
+javac -encoding UTF-8 -sourcepath src/main/java -d target/classes src/main/java/com/GitTimeTraveler/ml/*.java
 
 if %ERRORLEVEL% NEQ 0 (
     echo ERROR: ML compilation failed!
@@ -15,7 +15,7 @@ if %ERRORLEVEL% NEQ 0 (
 )
 
 echo Compiling main application...
-javac -cp target/classes -d target/classes src/main/java/com/funnygithub/SimpleGitHubApp.java
+javac -encoding UTF-8 -cp target/classes -sourcepath src/main/java -d target/classes src/main/java/com/GitTimeTraveler/SimpleGitHubApp.java
 
 if %ERRORLEVEL% NEQ 0 (
     echo ERROR: Main app compilation failed!
@@ -28,7 +28,7 @@ echo Running ML training data generation...
 echo This will create training datasets for the ML model...
 echo.
 
-java -cp target/classes com.funnygithub.ml.TrainingDataGenerator
+java -cp target/classes com.GitTimeTraveler.ml.TrainingDataGenerator
 
 if %ERRORLEVEL% NEQ 0 (
     echo ERROR: Training data generation failed!
@@ -36,6 +36,19 @@ if %ERRORLEVEL% NEQ 0 (
     exit /b 1
 )
 
+echo.
+echo Training the pattern model...
+echo Optional arguments: [epochs] [batch size] [learning rate]
+echo.
+
+java -cp target/classes com.GitTimeTraveler.ml.ModelTrainer %*
+
+if %ERRORLEVEL% NEQ 0 (
+    echo ERROR: Model training failed!
+    pause
+    exit /b 1
+)
+
 echo.
 echo ========================================
 echo  TRAINING COMPLETE!
@@ -44,6 +57,7 @@ echo.
 echo Generated files:
 echo - training_data.txt (Text-to-pattern mappings)
 echo - character_patterns.txt (Character intensity distributions)
+echo - pattern_model.bin (Trained character model used by ML Generate)
 echo.
 echo ML Features now available:
 echo - ML Generate: AI-powered pattern creation
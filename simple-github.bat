@@ -7,7 +7,7 @@ if not exist "target\classes" mkdir target\classes
 
 REM Compile the ML classes first (they don't depend on anything)
 echo Compiling ML classes...
-javac -d target/classes src\main\java\com\GitTimeTraveler\ml\*.java
+javac -sourcepath src\main\java -d target/classes src\main\java\com\GitTimeTraveler\ml\*.java
 
 if %errorlevel% neq 0 (
     echo ML compilation failed!
@@ -17,7 +17,7 @@ if %errorlevel% neq 0 (
 
 REM Compile the service classes (they depend on ML classes)
 echo Compiling service classes...
-javac -cp target/classes -d target/classes src\main\java\com\GitTimeTraveler\service\*.java src\main\java\com\GitTimeTraveler\service\impl\*.java
+javac -cp target/classes -sourcepath src\main\java -d target/classes src\main\java\com\GitTimeTraveler\service\*.java src\main\java\com\GitTimeTraveler\service\impl\*.java
 
 if %errorlevel% neq 0 (
     echo Service compilation failed!
@@ -27,7 +27,7 @@ if %errorlevel% neq 0 (
 
 REM Compile the main app
 echo Compiling main application...
-javac -cp target/classes -d target/classes src\main\java\com\GitTimeTraveler\SimpleGitHubApp.java
+javac -cp target/classes -sourcepath src\main\java -d target/classes src\main\java\com\GitTimeTraveler\SimpleGitHubApp.java src\main\java\com\GitTimeTraveler\cli\*.java src\main\java\com\GitTimeTraveler\server\*.java
 
 if %errorlevel% neq 0 (
     echo Main app compilation failed!
@@ -0,0 +1,544 @@
+package com.GitTimeTraveler;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+
+import com.GitTimeTraveler.service.GitService;
+import com.GitTimeTraveler.service.UIService;
+
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Table of the commits of one year, paged in from git log on demand
+ *
+ * Opening the browser streams a single git log pass that records, per commit
+ * of the year, only its position in the log and its author date (8 bytes a
+ * commit) plus the hash of every PAGE_SIZE-th one; rows appear as soon as
+ * the first batch arrives. Date and cell columns come straight from that
+ * index. Hash and message are read a page at a time with git log starting at
+ * the page's anchor hash (or with --skip if the dates read back do not match
+ * the index), newest request first, and only
+ * MAX_CACHED_PAGES pages are kept, so memory does not grow with history
+ * beyond the small index. Filters by date or cell run over the index without
+ * touching git, and any selection of rows can be deleted.
+ */
+public class CommitBrowser extends JDialog {
+    
+    private static final int PAGE_SIZE = 256;
+    private static final int MAX_CACHED_PAGES = 32;
+    private static final int FIRST_BATCH = 256;
+    private static final int MAX_BATCH = 8192;
+    private static final int MAX_RESOLVE_SPAN = 10_000;
+    private static final String[] COLUMNS = {"Date", "Message", "Cell"};
+    private static final String[] DAY_NAMES = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+    private static final int GRID_COLS = 53;
+    
+    private final GitService gitService;
+    private final UIService uiService;
+    private final int year;
+    private final long gridStartDay;
+    
+    private final CommitTableModel model = new CommitTableModel();
+    private final JTable table = new JTable(model);
+    private final JLabel statusLabel;
+    private final JTextField dateFilter;
+    private final JTextField cellFilter;
+    
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor();
+    private final ExecutorService pageLoader = Executors.newSingleThreadExecutor();
+    private final Deque<Integer> pageRequests = new ConcurrentLinkedDeque<>();
+    private final Map<Integer, PageRequest> requestDetails = new ConcurrentHashMap<>();
+    
+    // Index of the year's commits, appended on the EDT in batches, plus the hash
+    // of the first commit of every page, from which that page is read
+    private int[] logPositions = new int[1024];
+    private int[] epochDays = new int[1024];
+    private final List<String> pageAnchors = new ArrayList<>();
+    private int indexSize;
+    private boolean indexComplete;
+    
+    // Rows shown: index entries that pass the filter, or every entry when null
+    private int[] view;
+    private int viewSize;
+    private LocalDate filterFrom, filterTo;
+    private int filterWeek = -1, filterDay = -1;
+    
+    // Loaded pages of hashes and messages by page number, least recently used first
+    private final Map<Integer, GitService.CommitInfo[]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, GitService.CommitInfo[]> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> requestedPages = new HashSet<>();
+    
+    // Bumped on reload so results of an earlier pass are ignored
+    private int generation;
+    private long openedAt;
+    
+    public CommitBrowser(Frame owner, GitService gitService, UIService uiService, int year) {
+        super(owner, "Commits for Year " + year, true);
+        this.gitService = gitService;
+        this.uiService = uiService;
+        this.year = year;
+        this.gridStartDay = gitService.getGridStartDate(year).toEpochDay();
+        
+        setSize(900, 600);
+        setLocationRelativeTo(owner);
+        
+        table.setFont(new Font("Consolas", Font.PLAIN, 11));
+        table.setRowHeight(18);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        table.getColumnModel().getColumn(0).setPreferredWidth(90);
+        table.getColumnModel().getColumn(1).setPreferredWidth(620);
+        table.getColumnModel().getColumn(2).setPreferredWidth(140);
+        
+        // Filters
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        dateFilter = uiService.createStyledTextField("", 16);
+        dateFilter.setToolTipText("yyyy-mm, yyyy-mm-dd or yyyy-mm-dd..yyyy-mm-dd");
+        cellFilter = uiService.createStyledTextField("", 8);
+        cellFilter.setToolTipText("week,day (0-52, 0-6); either may be left out, e.g. 12, or ,3");
+        dateFilter.addActionListener(e -> applyFilter());
+        cellFilter.addActionListener(e -> applyFilter());
+        JButton filterButton = uiService.createStyledButton("Filter", new Color(59, 130, 246), "Show only matching commits");
+        filterButton.addActionListener(e -> applyFilter());
+        filterPanel.add(uiService.createStyledLabel("Date:"));
+        filterPanel.add(dateFilter);
+        filterPanel.add(uiService.createStyledLabel("Cell:"));
+        filterPanel.add(cellFilter);
+        filterPanel.add(filterButton);
+        
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(209, 213, 219), 1));
+        
+        statusLabel = uiService.createStyledLabel("Loading commits...");
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton closeButton = uiService.createStyledButton("Close", new Color(156, 163, 175), "Close dialog");
+        closeButton.addActionListener(e -> dispose());
+        JButton deleteButton = uiService.createStyledButton("Delete Selected", new Color(185, 28, 28), "Delete the selected commits (Ctrl+A selects all shown)");
+        deleteButton.addActionListener(e -> deleteSelected());
+        buttonPanel.add(closeButton);
+        buttonPanel.add(deleteButton);
+        
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(statusLabel, BorderLayout.WEST);
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.add(filterPanel, BorderLayout.NORTH);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
+        add(mainPanel);
+        
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                indexer.shutdownNow();
+                pageLoader.shutdownNow();
+            }
+        });
+        
+        reload();
+    }
+    
+    /**
+     * A page to read: the commit it starts at and the log positions it covers
+     */
+    private static class PageRequest {
+        final String anchor;
+        final int[] positions;
+        final int[] days;
+        
+        PageRequest(String anchor, int[] positions, int[] days) {
+            this.anchor = anchor;
+            this.positions = positions;
+            this.days = days;
+        }
+    }
+    
+    /**
+     * Table model over the filtered index; messages come from the page cache
+     */
+    private class CommitTableModel extends AbstractTableModel {
+        @Override
+        public int getRowCount() {
+            return view != null ? viewSize : indexSize;
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            int entry = view != null ? view[row] : row;
+            switch (column) {
+                case 0:
+                    return LocalDate.ofEpochDay(epochDays[entry]).toString();
+                case 1:
+                    GitService.CommitInfo commit = cachedCommit(entry);
+                    return commit != null ? commit.message : "Loading...";
+                default:
+                    return cellLabel(epochDays[entry]);
+            }
+        }
+    }
+    
+    /**
+     * Drop everything and index the year again
+     */
+    private void reload() {
+        generation++;
+        indexSize = 0;
+        indexComplete = false;
+        view = null;
+        viewSize = 0;
+        pages.clear();
+        requestedPages.clear();
+        pageAnchors.clear();
+        pageRequests.clear();
+        requestDetails.clear();
+        model.fireTableDataChanged();
+        statusLabel.setText("Loading commits...");
+        openedAt = System.nanoTime();
+        
+        int pass = generation;
+        indexer.submit(() -> {
+            int[][] batch = {new int[FIRST_BATCH], new int[FIRST_BATCH]};
+            int[] counts = {0, 0};   // entries in this batch, entries overall
+            List<String> anchors = new ArrayList<>();
+            try {
+                gitService.indexCommitsByYear(year, (logPosition, hash, date) -> {
+                    if (counts[1]++ % PAGE_SIZE == 0) {
+                        anchors.add(hash);
+                    }
+                    batch[0][counts[0]] = logPosition;
+                    batch[1][counts[0]] = (int) date.toEpochDay();
+                    if (++counts[0] == batch[0].length) {
+                        publishBatch(pass, batch[0], batch[1], counts[0], new ArrayList<>(anchors), false);
+                        anchors.clear();
+                        // Small first batch so rows show at once, larger ones after
+                        int next = Math.min(MAX_BATCH, batch[0].length * 2);
+                        batch[0] = new int[next];
+                        batch[1] = new int[next];
+                        counts[0] = 0;
+                    }
+                });
+                publishBatch(pass, batch[0], batch[1], counts[0], anchors, true);
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> statusLabel.setText("Error loading commits: " + e.getMessage()));
+            }
+        });
+    }
+    
+    private void publishBatch(int pass, int[] positions, int[] days, int count, List<String> anchors, boolean last) {
+        SwingUtilities.invokeLater(() -> {
+            if (pass != generation) {
+                return;
+            }
+            int firstRow = model.getRowCount();
+            if (indexSize + count > logPositions.length) {
+                int capacity = Math.max(logPositions.length * 2, indexSize + count);
+                logPositions = Arrays.copyOf(logPositions, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+            }
+            System.arraycopy(positions, 0, logPositions, indexSize, count);
+            System.arraycopy(days, 0, epochDays, indexSize, count);
+            pageAnchors.addAll(anchors);
+            for (int entry = indexSize; entry < indexSize + count; entry++) {
+                if (view != null && matchesFilter(entry)) {
+                    appendToView(entry);
+                }
+            }
+            indexSize += count;
+            indexComplete = last;
+            
+            int lastRow = model.getRowCount() - 1;
+            if (lastRow >= firstRow) {
+                model.fireTableRowsInserted(firstRow, lastRow);
+            }
+            updateStatus();
+        });
+    }
+    
+    private void updateStatus() {
+        String shown = view != null ? viewSize + " of " : "";
+        if (indexComplete) {
+            statusLabel.setText(" " + shown + indexSize + " commits, loaded in "
+                + (System.nanoTime() - openedAt) / 1_000_000 + " ms");
+        } else {
+            statusLabel.setText(" " + shown + indexSize + " commits so far...");
+        }
+    }
+    
+    /**
+     * Hash and message of an index entry if its page is cached; otherwise request the page
+     */
+    private GitService.CommitInfo cachedCommit(int entry) {
+        int page = entry / PAGE_SIZE;
+        GitService.CommitInfo[] commits = pages.get(page);
+        if (commits != null) {
+            return commits[entry - page * PAGE_SIZE];
+        }
+        if (requestedPages.add(page)) {
+            int from = page * PAGE_SIZE;
+            int to = Math.min(indexSize, from + PAGE_SIZE);
+            requestDetails.put(page, new PageRequest(pageAnchors.get(page),
+                Arrays.copyOfRange(logPositions, from, to), Arrays.copyOfRange(epochDays, from, to)));
+            pageRequests.addFirst(page);
+            int pass = generation;
+            pageLoader.submit(() -> loadPage(pass));
+        }
+        return null;
+    }
+    
+    private void loadPage(int pass) {
+        // One task per request, but each serves the newest pending page so the
+        // rows on screen load first while scrolling fast
+        Integer page = pageRequests.pollFirst();
+        if (page == null) {
+            return;
+        }
+        PageRequest request = requestDetails.remove(page);
+        try {
+            GitService.CommitInfo[] commits = readEntries(request.anchor, request.positions[0], request.positions, request.days);
+            SwingUtilities.invokeLater(() -> {
+                if (pass != generation) {
+                    return;
+                }
+                pages.put(page, commits);
+                requestedPages.remove(page);
+                table.repaint();
+            });
+        } catch (Exception e) {
+            SwingUtilities.invokeLater(() -> {
+                if (pass != generation) {
+                    return;
+                }
+                // Let the next repaint ask for the page again
+                requestedPages.remove(page);
+                statusLabel.setText("Error reading commits: " + e.getMessage());
+            });
+        }
+    }
+    
+    /**
+     * Read the commits at the given ascending log positions with one git log call
+     * starting at an anchor commit at or before them. If a commit's date does not
+     * match the index (the history changed since indexing), the positions are read
+     * again with git log --skip.
+     */
+    private GitService.CommitInfo[] readEntries(String anchor, int anchorPosition, int[] positions, int[] days) throws Exception {
+        int count = positions[positions.length - 1] - anchorPosition + 1;
+        GitService.CommitInfo[] commits = pickEntries(gitService.readCommits(anchor, count), anchorPosition, positions, days);
+        if (commits == null) {
+            commits = pickEntries(gitService.readCommits(anchorPosition, count), anchorPosition, positions, days);
+        }
+        if (commits == null) {
+            throw new IOException("the commit history changed since the list was loaded; reopen it");
+        }
+        return commits;
+    }
+    
+    /**
+     * The commits of a log span at the given positions, or null if any is missing or has another date
+     */
+    private static GitService.CommitInfo[] pickEntries(List<GitService.CommitInfo> span, int spanPosition,
+                                                       int[] positions, int[] days) {
+        GitService.CommitInfo[] commits = new GitService.CommitInfo[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            int offset = positions[i] - spanPosition;
+            if (offset >= span.size() || span.get(offset).date.toEpochDay() != days[i]) {
+                return null;
+            }
+            commits[i] = span.get(offset);
+        }
+        return commits;
+    }
+    
+    private String cellLabel(int epochDay) {
+        long offset = epochDay - gridStartDay;
+        if (offset < 0 || offset >= GRID_COLS * 7L) {
+            return "outside grid";
+        }
+        return "Week " + offset / 7 + ", " + DAY_NAMES[(int) (offset % 7)];
+    }
+    
+    private void applyFilter() {
+        try {
+            parseDateFilter(dateFilter.getText().trim());
+            parseCellFilter(cellFilter.getText().trim());
+        } catch (RuntimeException e) {
+            uiService.showMessageDialog(this, "Invalid filter: " + e.getMessage(), "Filter", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        if (filterFrom == null && filterWeek < 0 && filterDay < 0) {
+            view = null;
+        } else {
+            view = new int[Math.max(16, indexSize / 8)];
+            viewSize = 0;
+            for (int entry = 0; entry < indexSize; entry++) {
+                if (matchesFilter(entry)) {
+                    appendToView(entry);
+                }
+            }
+        }
+        model.fireTableDataChanged();
+        updateStatus();
+    }
+    
+    private void parseDateFilter(String text) {
+        filterFrom = null;
+        filterTo = null;
+        if (text.isEmpty()) {
+            return;
+        }
+        if (text.contains("..")) {
+            String[] range = text.split("\\.\\.", 2);
+            filterFrom = LocalDate.parse(range[0].trim());
+            filterTo = LocalDate.parse(range[1].trim());
+        } else if (text.length() == 7) {
+            filterFrom = LocalDate.parse(text + "-01");
+            filterTo = filterFrom.plusMonths(1).minusDays(1);
+        } else {
+            filterFrom = LocalDate.parse(text);
+            filterTo = filterFrom;
+        }
+    }
+    
+    private void parseCellFilter(String text) {
+        filterWeek = -1;
+        filterDay = -1;
+        if (text.isEmpty()) {
+            return;
+        }
+        String[] parts = text.split(",", -1);
+        if (!parts[0].trim().isEmpty()) {
+            filterWeek = Integer.parseInt(parts[0].trim());
+        }
+        if (parts.length > 1 && !parts[1].trim().isEmpty()) {
+            filterDay = Integer.parseInt(parts[1].trim());
+        }
+    }
+    
+    private boolean matchesFilter(int entry) {
+        int day = epochDays[entry];
+        if (filterFrom != null && (day < filterFrom.toEpochDay() || day > filterTo.toEpochDay())) {
+            return false;
+        }
+        if (filterWeek >= 0 || filterDay >= 0) {
+            long offset = day - gridStartDay;
+            if (offset < 0 || offset >= GRID_COLS * 7L) {
+                return false;
+            }
+            if (filterWeek >= 0 && offset / 7 != filterWeek) {
+                return false;
+            }
+            if (filterDay >= 0 && offset % 7 != filterDay) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void appendToView(int entry) {
+        if (viewSize == view.length) {
+            view = Arrays.copyOf(view, view.length * 2);
+        }
+        view[viewSize++] = entry;
+    }
+    
+    private void deleteSelected() {
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 0) {
+            uiService.showMessageDialog(this, "Select the commits to delete first.", "Nothing Selected", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        boolean confirmed = uiService.showConfirmationDialog(this, "Confirm Deletion",
+            "Are you sure you want to delete " + rows.length + " selected commits?\n\n" +
+            "A backup branch is created first, but history is rewritten!");
+        if (!confirmed) {
+            return;
+        }
+        
+        // Selected index entries in log order, with their log positions
+        int[] entries = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            entries[i] = view != null ? view[rows[i]] : rows[i];
+        }
+        Arrays.sort(entries);
+        int[] positions = new int[entries.length];
+        int[] days = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            positions[i] = logPositions[entries[i]];
+            days[i] = epochDays[entries[i]];
+        }
+        List<String> anchors = new ArrayList<>(pageAnchors);
+        int[] anchorPositions = new int[anchors.size()];
+        for (int page = 0; page < anchorPositions.length; page++) {
+            anchorPositions[page] = logPositions[page * PAGE_SIZE];
+        }
+        
+        JDialog progressDialog = uiService.createProgressDialog(this, "Deleting Commits", "Resolving selected commits...");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+            try {
+                SwingUtilities.invokeLater(() -> progressDialog.setVisible(true));
+                
+                // Resolve hashes in spans of nearby positions, one git log call each
+                // from the anchor of the page the span starts in
+                List<String> hashes = new ArrayList<>(positions.length);
+                int start = 0;
+                while (start < positions.length) {
+                    int page = entries[start] / PAGE_SIZE;
+                    int end = start;
+                    while (end + 1 < positions.length && positions[end + 1] - anchorPositions[page] < MAX_RESOLVE_SPAN) {
+                        end++;
+                    }
+                    int[] span = Arrays.copyOfRange(positions, start, end + 1);
+                    int[] spanDays = Arrays.copyOfRange(days, start, end + 1);
+                    for (GitService.CommitInfo commit : readEntries(anchors.get(page), anchorPositions[page], span, spanDays)) {
+                        hashes.add(commit.hash);
+                    }
+                    start = end + 1;
+                }
+                
+                int deleted = gitService.deleteCommits(hashes, (current, total, message) ->
+                    SwingUtilities.invokeLater(() -> uiService.updateProgressDialog(progressDialog, current, total, message)));
+                
+                SwingUtilities.invokeLater(() -> {
+                    progressDialog.dispose();
+                    uiService.showMessageDialog(this, "Successfully deleted " + deleted + " commits!",
+                        "Deletion Complete", JOptionPane.INFORMATION_MESSAGE);
+                    reload();
+                });
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    progressDialog.dispose();
+                    uiService.showMessageDialog(this, "Error deleting commits: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+            }
+            return null;
+        });
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,426 @@
+package com.GitTimeTraveler;
+
+import javax.swing.*;
+
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Contribution grid painted as a single component
+ *
+ * Reads intensities straight from the pattern array and paints them from a
+ * palette built once up front. The cell under the mouse is computed from the
+ * coordinates, and changes repaint only the affected cells: paintComponent
+ * draws just the cells inside the clip, so a one-cell repaint stays one cell.
+ *
+ * Brush, line, rectangle and flood-fill strokes are previewed in an overlay
+ * while dragging: touched cells are collected, their bounding box is repainted
+ * at most once per frame, and the finished stroke is handed to the
+ * StrokeListener in one piece when the mouse is released.
+ */
+public class ContributionGrid extends JComponent {
+    
+    private static final int MAX_INTENSITY = 6;
+    private static final Color BORDER_COLOR = new Color(229, 231, 235);
+    private static final int FRAME_MILLIS = 16;
+    private static final int NONE = -1;
+    
+    private final int rows;
+    private final int cols;
+    private final int cellSize;
+    private final int gap;
+    private final int pitch;
+    private final Color[] palette = new Color[MAX_INTENSITY + 1];
+    
+    private int[][] pattern;
+    private CellListener cellListener;
+    private StrokeListener strokeListener;
+    private Tool tool = Tool.CYCLE;
+    private int brushIntensity = 1;
+    
+    // Stroke in progress: overlay intensity per cell (NONE if untouched) and the touched cells
+    private final int[] overlay;
+    private int[] strokeCells;
+    private int strokeSize;
+    private int anchorCell = NONE;
+    private int lastCell = NONE;
+    
+    // Cells changed since the last frame, as a bounding box of rows and columns
+    private int dirtyFirstRow = Integer.MAX_VALUE, dirtyFirstCol = Integer.MAX_VALUE;
+    private int dirtyLastRow = NONE, dirtyLastCol = NONE;
+    private final Timer frameTimer;
+    
+    /**
+     * Editing tools
+     */
+    public enum Tool {
+        CYCLE("Cycle"),
+        BRUSH("Brush"),
+        LINE("Line"),
+        RECTANGLE("Rectangle"),
+        FILL("Fill");
+        
+        private final String label;
+        
+        Tool(String label) {
+            this.label = label;
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
+    /**
+     * Notified when the user activates a cell with the cycle tool
+     */
+    public interface CellListener {
+        void cellActivated(int row, int col);
+    }
+    
+    /**
+     * Notified once per finished stroke with every cell it covers (row * cols + col)
+     */
+    public interface StrokeListener {
+        void strokeFinished(int[] cells, int intensity);
+    }
+    
+    public ContributionGrid(int[][] pattern, int cellSize, int gap, IntFunction<Color> intensityColor) {
+        this.pattern = pattern;
+        this.rows = pattern.length;
+        this.cols = pattern[0].length;
+        this.cellSize = cellSize;
+        this.gap = gap;
+        this.pitch = cellSize + gap;
+        for (int intensity = 0; intensity <= MAX_INTENSITY; intensity++) {
+            palette[intensity] = intensityColor.apply(intensity);
+        }
+        
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        
+        this.overlay = new int[rows * cols];
+        this.strokeCells = new int[64];
+        Arrays.fill(overlay, NONE);
+        
+        frameTimer = new Timer(FRAME_MILLIS, e -> flushDirty());
+        frameTimer.setCoalesce(true);
+        
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    beginStroke(cellAt(e.getX(), e.getY()));
+                }
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    continueStroke(clampedCellAt(e.getX(), e.getY()));
+                }
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    finishStroke();
+                }
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+    }
+    
+    public void setCellListener(CellListener cellListener) {
+        this.cellListener = cellListener;
+    }
+    
+    public void setStrokeListener(StrokeListener strokeListener) {
+        this.strokeListener = strokeListener;
+    }
+    
+    public void setTool(Tool tool) {
+        this.tool = tool;
+    }
+    
+    public void setBrushIntensity(int brushIntensity) {
+        this.brushIntensity = Math.max(0, Math.min(MAX_INTENSITY, brushIntensity));
+    }
+    
+    /**
+     * Show a different pattern array of the same size
+     */
+    public void setPattern(int[][] pattern) {
+        this.pattern = pattern;
+        repaint();
+    }
+    
+    /**
+     * Cell index (row * cols + col) at a point, or -1 outside the grid
+     */
+    public int cellAt(int x, int y) {
+        if (x < gap || y < gap) {
+            return -1;
+        }
+        int col = (x - gap) / pitch;
+        int row = (y - gap) / pitch;
+        if (row >= rows || col >= cols) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+    
+    /**
+     * Cell at a point, clamped to the grid so drags past the edge keep working
+     */
+    private int clampedCellAt(int x, int y) {
+        int col = Math.max(0, Math.min(cols - 1, (x - gap) / pitch));
+        int row = Math.max(0, Math.min(rows - 1, (y - gap) / pitch));
+        return row * cols + col;
+    }
+    
+    private void beginStroke(int cell) {
+        cancelStroke();
+        if (cell == NONE) {
+            return;
+        }
+        if (tool == Tool.CYCLE) {
+            lastCell = cell;
+            if (cellListener != null) {
+                cellListener.cellActivated(cell / cols, cell % cols);
+            }
+            return;
+        }
+        
+        anchorCell = cell;
+        lastCell = cell;
+        if (tool == Tool.FILL) {
+            floodFill(cell);
+        } else {
+            addToStroke(cell);
+        }
+        frameTimer.start();
+    }
+    
+    private void continueStroke(int cell) {
+        if (cell == lastCell) {
+            return;
+        }
+        switch (tool) {
+            case CYCLE:
+                // Dragging with the cycle tool activates each newly entered cell once
+                if (lastCell != NONE && cellListener != null) {
+                    cellListener.cellActivated(cell / cols, cell % cols);
+                }
+                break;
+            case BRUSH:
+                if (anchorCell != NONE) {
+                    addLine(lastCell, cell);
+                }
+                break;
+            case LINE:
+                if (anchorCell != NONE) {
+                    clearStroke();
+                    addLine(anchorCell, cell);
+                }
+                break;
+            case RECTANGLE:
+                if (anchorCell != NONE) {
+                    clearStroke();
+                    addRectangle(anchorCell, cell);
+                }
+                break;
+            case FILL:
+                break;
+        }
+        if (lastCell != NONE) {
+            lastCell = cell;
+        }
+    }
+    
+    private void finishStroke() {
+        if (anchorCell != NONE && strokeSize > 0 && strokeListener != null) {
+            int[] cells = Arrays.copyOf(strokeCells, strokeSize);
+            // The listener updates the model before the overlay is dropped, so nothing flickers
+            strokeListener.strokeFinished(cells, brushIntensity);
+        }
+        cancelStroke();
+    }
+    
+    private void cancelStroke() {
+        clearStroke();
+        flushDirty();
+        frameTimer.stop();
+        anchorCell = NONE;
+        lastCell = NONE;
+    }
+    
+    private void clearStroke() {
+        for (int i = 0; i < strokeSize; i++) {
+            int cell = strokeCells[i];
+            overlay[cell] = NONE;
+            markDirty(cell);
+        }
+        strokeSize = 0;
+    }
+    
+    private void addToStroke(int cell) {
+        if (overlay[cell] != NONE) {
+            return;
+        }
+        overlay[cell] = brushIntensity;
+        if (strokeSize == strokeCells.length) {
+            strokeCells = Arrays.copyOf(strokeCells, strokeSize * 2);
+        }
+        strokeCells[strokeSize++] = cell;
+        markDirty(cell);
+    }
+    
+    /**
+     * Bresenham line between two cells, so fast drags leave no gaps
+     */
+    private void addLine(int from, int to) {
+        int col = from % cols, row = from / cols;
+        int toCol = to % cols, toRow = to / cols;
+        int dx = Math.abs(toCol - col), dy = -Math.abs(toRow - row);
+        int stepX = col < toCol ? 1 : -1, stepY = row < toRow ? 1 : -1;
+        int error = dx + dy;
+        while (true) {
+            addToStroke(row * cols + col);
+            if (col == toCol && row == toRow) {
+                break;
+            }
+            int doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                col += stepX;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                row += stepY;
+            }
+        }
+    }
+    
+    private void addRectangle(int from, int to) {
+        int firstRow = Math.min(from / cols, to / cols), lastRow = Math.max(from / cols, to / cols);
+        int firstCol = Math.min(from % cols, to % cols), lastCol = Math.max(from % cols, to % cols);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                addToStroke(row * cols + col);
+            }
+        }
+    }
+    
+    /**
+     * 4-connected fill of the region sharing the start cell's intensity
+     */
+    private void floodFill(int start) {
+        int target = pattern[start / cols][start % cols];
+        if (target == brushIntensity) {
+            return;
+        }
+        int[] queue = new int[rows * cols];
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        addToStroke(start);
+        while (head < tail) {
+            int cell = queue[head++];
+            int row = cell / cols, col = cell % cols;
+            int[] neighbours = {
+                row > 0 ? cell - cols : NONE,
+                row < rows - 1 ? cell + cols : NONE,
+                col > 0 ? cell - 1 : NONE,
+                col < cols - 1 ? cell + 1 : NONE
+            };
+            for (int neighbour : neighbours) {
+                if (neighbour != NONE && overlay[neighbour] == NONE
+                        && pattern[neighbour / cols][neighbour % cols] == target) {
+                    addToStroke(neighbour);
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+    
+    private void markDirty(int cell) {
+        int row = cell / cols, col = cell % cols;
+        dirtyFirstRow = Math.min(dirtyFirstRow, row);
+        dirtyLastRow = Math.max(dirtyLastRow, row);
+        dirtyFirstCol = Math.min(dirtyFirstCol, col);
+        dirtyLastCol = Math.max(dirtyLastCol, col);
+    }
+    
+    /**
+     * One coalesced repaint for everything the stroke touched since the last frame
+     */
+    private void flushDirty() {
+        if (dirtyLastRow == NONE) {
+            return;
+        }
+        cellsChanged(dirtyFirstRow, dirtyFirstCol, dirtyLastRow, dirtyLastCol);
+        dirtyFirstRow = dirtyFirstCol = Integer.MAX_VALUE;
+        dirtyLastRow = dirtyLastCol = NONE;
+    }
+    
+    /**
+     * Repaint one cell after its intensity changed
+     */
+    public void cellChanged(int row, int col) {
+        repaint(gap + col * pitch - 1, gap + row * pitch - 1, cellSize + 2, cellSize + 2);
+    }
+    
+    /**
+     * Repaint a rectangle of cells after their intensities changed
+     */
+    public void cellsChanged(int firstRow, int firstCol, int lastRow, int lastCol) {
+        repaint(gap + firstCol * pitch - 1, gap + firstRow * pitch - 1,
+            (lastCol - firstCol + 1) * pitch + 1, (lastRow - firstRow + 1) * pitch + 1);
+    }
+    
+    /**
+     * Repaint everything after a bulk change
+     */
+    public void patternChanged() {
+        repaint();
+    }
+    
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(gap + cols * pitch, gap + rows * pitch);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        
+        // Only the cells that intersect the clip
+        int firstCol = Math.max(0, (clip.x - gap) / pitch);
+        int lastCol = Math.min(cols - 1, (clip.x + clip.width - gap) / pitch);
+        int firstRow = Math.max(0, (clip.y - gap) / pitch);
+        int lastRow = Math.min(rows - 1, (clip.y + clip.height - gap) / pitch);
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            int y = gap + row * pitch;
+            for (int col = firstCol; col <= lastCol; col++) {
+                int x = gap + col * pitch;
+                int previewed = overlay[row * cols + col];
+                int intensity = previewed != NONE ? previewed : pattern[row][col];
+                g.setColor(palette[Math.max(0, Math.min(MAX_INTENSITY, intensity))]);
+                g.fillRect(x, y, cellSize, cellSize);
+                g.setColor(BORDER_COLOR);
+                g.drawRect(x, y, cellSize - 1, cellSize - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.GitTimeTraveler;
+
+import javax.swing.*;
+
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streaming output console
+ *
+ * Lines can be appended from any thread. They are queued and moved onto the
+ * event thread in batches, so a job producing thousands of lines costs one
+ * repaint per batch instead of a setText per line. Only the newest lines are
+ * kept in memory, in a fixed-size ring; older ones drop off the top. Painting
+ * is virtualized: only the rows inside the clip are drawn, so the cost of a
+ * repaint does not depend on how much is buffered.
+ *
+ * Every line is also spooled to a temporary file, so the complete output since
+ * the last clear() can still be saved with dumpTo() after it has left the ring.
+ *
+ * Rows are selected with the mouse (drag or shift-click, Ctrl+A for all) and
+ * copied with Ctrl+C; the context menu can also copy the complete output.
+ */
+public class LogConsole extends JComponent implements Scrollable {
+    
+    private static final int DEFAULT_CAPACITY = 5_000;
+    private static final int PADDING = 4;
+    private static final Color SELECTION = new Color(191, 219, 254);
+    
+    private final String[] ring;
+    private int head;   // index of the oldest line
+    private int size;
+    private long droppedLines;
+    private int widestLine;
+    
+    // Selected rows as line indices, -1 when nothing is selected; event thread only
+    private int anchor = -1;
+    private int lead = -1;
+    
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    
+    private final Object spoolLock = new Object();
+    private Path spoolFile;
+    private BufferedWriter spool;
+    
+    public LogConsole() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public LogConsole(int capacity) {
+        ring = new String[capacity];
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setForeground(new Color(31, 41, 55));
+        setFont(new Font("Consolas", Font.PLAIN, 11));
+        setFocusable(true);
+        
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                if (e.isPopupTrigger()) {
+                    showMenu(e);
+                } else if (SwingUtilities.isLeftMouseButton(e) && size > 0) {
+                    int row = rowAt(e.getY());
+                    if (!e.isShiftDown() || anchor < 0) {
+                        anchor = row;
+                    }
+                    lead = row;
+                    repaint();
+                }
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (e.isPopupTrigger()) {
+                    showMenu(e);
+                }
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e) && anchor >= 0) {
+                    lead = rowAt(e.getY());
+                    scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+                    repaint();
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK), "copy");
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_A, InputEvent.CTRL_DOWN_MASK), "selectAll");
+        getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                copySelection();
+            }
+        });
+        getActionMap().put("selectAll", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                selectAll();
+            }
+        });
+    }
+    
+    /**
+     * Append one line; safe to call from any thread
+     */
+    public void append(String line) {
+        spool(line);
+        pending.add(line);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flushPending);
+        }
+    }
+    
+    /**
+     * Append text that may contain several lines
+     */
+    public void appendText(String text) {
+        for (String line : text.split("\n", -1)) {
+            append(line);
+        }
+    }
+    
+    /**
+     * Remove all lines and start a new spool; call on the event thread
+     */
+    public void clear() {
+        pending.clear();
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+        anchor = -1;
+        lead = -1;
+        droppedLines = 0;
+        widestLine = 0;
+        synchronized (spoolLock) {
+            closeSpool();
+        }
+        revalidate();
+        repaint();
+    }
+    
+    /**
+     * Lines that no longer fit the ring and are only in the spool file
+     */
+    public long getDroppedLines() {
+        return droppedLines;
+    }
+    
+    /**
+     * Write the complete output since the last clear() to a file
+     */
+    public void dumpTo(Path target) throws IOException {
+        synchronized (spoolLock) {
+            if (spool != null) {
+                spool.flush();
+                Files.copy(spoolFile, target, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            }
+        }
+        
+        // Spooling failed or nothing was appended; save what is on screen
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(line(i));
+                writer.newLine();
+            }
+        }
+    }
+    
+    /**
+     * Select every line in the ring; call on the event thread
+     */
+    public void selectAll() {
+        if (size > 0) {
+            anchor = 0;
+            lead = size - 1;
+            repaint();
+        }
+    }
+    
+    /**
+     * Put the selected lines on the clipboard; call on the event thread
+     */
+    public void copySelection() {
+        if (anchor < 0) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = Math.min(anchor, lead); i <= Math.max(anchor, lead); i++) {
+            text.append(line(i)).append('\n');
+        }
+        setClipboard(text.toString());
+    }
+    
+    /**
+     * Put the complete output since the last clear() on the clipboard, including lines
+     * that have left the ring
+     */
+    public void copyAll() throws IOException {
+        Path temp = Files.createTempFile("gitt-output-copy", ".log");
+        try {
+            dumpTo(temp);
+            setClipboard(Files.readString(temp, StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private void setClipboard(String text) {
+        getToolkit().getSystemClipboard().setContents(new StringSelection(text), null);
+    }
+    
+    private void showMenu(MouseEvent e) {
+        JPopupMenu menu = new JPopupMenu();
+        JMenuItem copy = new JMenuItem("Copy");
+        copy.setEnabled(anchor >= 0);
+        copy.addActionListener(event -> copySelection());
+        JMenuItem copyAll = new JMenuItem("Copy All Output");
+        copyAll.addActionListener(event -> {
+            try {
+                copyAll();
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this, "Error copying output: " + ex.getMessage(), "Error",
+                    JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        JMenuItem selectAll = new JMenuItem("Select All");
+        selectAll.addActionListener(event -> selectAll());
+        menu.add(copy);
+        menu.add(copyAll);
+        menu.add(selectAll);
+        menu.show(this, e.getX(), e.getY());
+    }
+    
+    private int rowAt(int y) {
+        return Math.max(0, Math.min(size - 1, (y - PADDING) / lineHeight()));
+    }
+    
+    private void spool(String line) {
+        synchronized (spoolLock) {
+            try {
+                if (spool == null) {
+                    spoolFile = Files.createTempFile("gitt-output", ".log");
+                    spoolFile.toFile().deleteOnExit();
+                    spool = Files.newBufferedWriter(spoolFile, StandardCharsets.UTF_8);
+                }
+                spool.write(line);
+                spool.newLine();
+            } catch (IOException e) {
+                System.err.println("Error spooling console output: " + e.getMessage());
+                closeSpool();
+            }
+        }
+    }
+    
+    private void closeSpool() {
+        if (spool != null) {
+            try {
+                spool.close();
+                Files.deleteIfExists(spoolFile);
+            } catch (IOException e) {
+                System.err.println("Error closing console spool: " + e.getMessage());
+            }
+        }
+        spool = null;
+        spoolFile = null;
+    }
+    
+    private void flushPending() {
+        flushScheduled.set(false);
+        boolean following = isScrolledToEnd();
+        
+        int added = 0;
+        int dropped = 0;
+        String line;
+        while ((line = pending.poll()) != null) {
+            if (size == ring.length) {
+                ring[head] = line;
+                head = (head + 1) % ring.length;
+                droppedLines++;
+                dropped++;
+            } else {
+                ring[(head + size) % ring.length] = line;
+                size++;
+            }
+            widestLine = Math.max(widestLine, line.length());
+            added++;
+        }
+        if (added == 0) {
+            return;
+        }
+        if (dropped > 0 && anchor >= 0) {
+            // Keep the selection on the same lines; drop it once they have all left the ring
+            anchor -= dropped;
+            lead -= dropped;
+            if (Math.max(anchor, lead) < 0) {
+                anchor = -1;
+                lead = -1;
+            } else {
+                anchor = Math.max(anchor, 0);
+                lead = Math.max(lead, 0);
+            }
+        }
+        
+        revalidate();
+        repaint();
+        if (following) {
+            SwingUtilities.invokeLater(() -> {
+                int height = getPreferredSize().height;
+                scrollRectToVisible(new Rectangle(0, height - 1, 1, 1));
+            });
+        }
+    }
+    
+    private String line(int index) {
+        return ring[(head + index) % ring.length];
+    }
+    
+    private boolean isScrolledToEnd() {
+        Rectangle visible = getVisibleRect();
+        return visible.y + visible.height >= getHeight() - lineHeight();
+    }
+    
+    private int lineHeight() {
+        return getFontMetrics(getFont()).getHeight();
+    }
+    
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics metrics = getFontMetrics(getFont());
+        return new Dimension(widestLine * metrics.charWidth('m') + 2 * PADDING,
+            size * metrics.getHeight() + 2 * PADDING);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        
+        FontMetrics metrics = g.getFontMetrics(getFont());
+        int lineHeight = metrics.getHeight();
+        int first = Math.max(0, (clip.y - PADDING) / lineHeight);
+        int last = Math.min(size - 1, (clip.y + clip.height - PADDING) / lineHeight);
+        
+        if (anchor >= 0) {
+            int from = Math.max(first, Math.min(anchor, lead));
+            int to = Math.min(last, Math.max(anchor, lead));
+            if (from <= to) {
+                g.setColor(SELECTION);
+                g.fillRect(clip.x, PADDING + from * lineHeight, clip.width, (to - from + 1) * lineHeight);
+            }
+        }
+        
+        g.setFont(getFont());
+        g.setColor(getForeground());
+        for (int i = first; i <= last; i++) {
+            g.drawString(line(i), PADDING, PADDING + i * lineHeight + metrics.getAscent());
+        }
+    }
+    
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(800, 200);
+    }
+    
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? lineHeight() : getFontMetrics(getFont()).charWidth('m');
+    }
+    
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height - lineHeight() : visibleRect.width;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() instanceof JViewport && getParent().getWidth() > getPreferredSize().width;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
+}
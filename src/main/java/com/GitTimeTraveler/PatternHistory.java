@@ -0,0 +1,217 @@
+package com.GitTimeTraveler;
+
+import java.util.Arrays;
+
+/**
+ * Undo/redo history of the edited pattern
+ *
+ * Every step is an immutable snapshot plus the name of the command that
+ * produced it. Snapshots store each day as a byte row and share every row
+ * that did not change with the previous snapshot, so a one-cell edit costs a
+ * single 53-byte row and thousands of steps stay in the kilobyte range.
+ * Because snapshots never change, background jobs can hold one as a
+ * consistent view while editing continues.
+ *
+ * Steps are kept in a ring of MAX_STEPS entries, so once the history is full
+ * every new command overwrites the oldest step in constant time.
+ */
+public class PatternHistory {
+    
+    private static final int MAX_STEPS = 10_000;
+    
+    private final Step[] steps = new Step[MAX_STEPS];
+    private int first;      // ring index of the oldest step
+    private int count;
+    private int position;   // current step, counted from the oldest
+    
+    /**
+     * Immutable pattern; rows are shared between snapshots and never written
+     */
+    public static final class Snapshot {
+        private final byte[][] rows;
+        
+        private Snapshot(byte[][] rows) {
+            this.rows = rows;
+        }
+        
+        /**
+         * Snapshot of a pattern, reusing rows of a base snapshot that are unchanged
+         */
+        static Snapshot of(int[][] pattern, Snapshot base) {
+            byte[][] rows = new byte[pattern.length][];
+            for (int row = 0; row < pattern.length; row++) {
+                if (base != null && base.rowEquals(row, pattern[row])) {
+                    rows[row] = base.rows[row];
+                } else {
+                    byte[] copy = new byte[pattern[row].length];
+                    for (int col = 0; col < copy.length; col++) {
+                        copy[col] = (byte) pattern[row][col];
+                    }
+                    rows[row] = copy;
+                }
+            }
+            return new Snapshot(rows);
+        }
+        
+        private boolean rowEquals(int row, int[] values) {
+            if (row >= rows.length || rows[row].length != values.length) {
+                return false;
+            }
+            byte[] stored = rows[row];
+            for (int col = 0; col < stored.length; col++) {
+                if (stored[col] != values[col]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        public int get(int row, int col) {
+            return rows[row][col];
+        }
+        
+        /**
+         * Write this snapshot into a pattern array of the same size
+         */
+        public void copyInto(int[][] pattern) {
+            for (int row = 0; row < rows.length; row++) {
+                for (int col = 0; col < rows[row].length; col++) {
+                    pattern[row][col] = rows[row][col];
+                }
+            }
+        }
+        
+        /**
+         * Fresh mutable copy
+         */
+        public int[][] toArray() {
+            int[][] pattern = new int[rows.length][rows[0].length];
+            copyInto(pattern);
+            return pattern;
+        }
+        
+        /**
+         * Rows this snapshot shares with another
+         */
+        public int sharedRows(Snapshot other) {
+            int shared = 0;
+            for (int row = 0; row < Math.min(rows.length, other.rows.length); row++) {
+                if (rows[row] == other.rows[row]) {
+                    shared++;
+                }
+            }
+            return shared;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Snapshot && Arrays.deepEquals(rows, ((Snapshot) o).rows);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Arrays.deepHashCode(rows);
+        }
+    }
+    
+    /**
+     * One entry of the command log
+     */
+    private static final class Step {
+        final String command;
+        final Snapshot snapshot;
+        
+        Step(String command, Snapshot snapshot) {
+            this.command = command;
+            this.snapshot = snapshot;
+        }
+    }
+    
+    public PatternHistory(int[][] initial) {
+        steps[0] = new Step("Start", Snapshot.of(initial, null));
+        count = 1;
+    }
+    
+    private Step step(int index) {
+        return steps[(first + index) % MAX_STEPS];
+    }
+    
+    /**
+     * The snapshot at the current position
+     */
+    public synchronized Snapshot current() {
+        return step(position).snapshot;
+    }
+    
+    /**
+     * Record the pattern after a command; does nothing if the pattern did not change
+     *
+     * @return true if a step was added
+     */
+    public synchronized boolean record(String command, int[][] pattern) {
+        Snapshot previous = current();
+        Snapshot next = Snapshot.of(pattern, previous);
+        if (next.sharedRows(previous) == pattern.length) {
+            return false;
+        }
+        
+        // A new command discards anything that could have been redone
+        for (int i = position + 1; i < count; i++) {
+            steps[(first + i) % MAX_STEPS] = null;
+        }
+        count = position + 1;
+        if (count == MAX_STEPS) {
+            steps[first] = null;
+            first = (first + 1) % MAX_STEPS;
+            count--;
+        }
+        steps[(first + count) % MAX_STEPS] = new Step(command, next);
+        count++;
+        position = count - 1;
+        return true;
+    }
+    
+    public synchronized boolean canUndo() {
+        return position > 0;
+    }
+    
+    public synchronized boolean canRedo() {
+        return position < count - 1;
+    }
+    
+    /**
+     * Name of the command undo would revert, or null
+     */
+    public synchronized String undoCommand() {
+        return canUndo() ? step(position).command : null;
+    }
+    
+    /**
+     * Name of the command redo would reapply, or null
+     */
+    public synchronized String redoCommand() {
+        return canRedo() ? step(position + 1).command : null;
+    }
+    
+    /**
+     * Step back; returns the snapshot to show, or null if there is nothing to undo
+     */
+    public synchronized Snapshot undo() {
+        if (!canUndo()) {
+            return null;
+        }
+        position--;
+        return current();
+    }
+    
+    /**
+     * Step forward; returns the snapshot to show, or null if there is nothing to redo
+     */
+    public synchronized Snapshot redo() {
+        if (!canRedo()) {
+            return null;
+        }
+        position++;
+        return current();
+    }
+}
@@ -0,0 +1,230 @@
+package com.GitTimeTraveler;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import com.GitTimeTraveler.service.FileService;
+import com.GitTimeTraveler.service.UIService;
+
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Searchable, paged list of saved pattern names
+ *
+ * Typing searches by prefix, with a typo or two allowed, once the keys have
+ * been quiet for a moment; only one page of names is ever fetched and shown,
+ * so the dialog opens and scrolls at the same speed with a handful of names
+ * or hundreds of thousands. Lookups run on a background thread (the first one
+ * builds the name index) and results of superseded searches are dropped.
+ */
+public class PatternPicker extends JDialog {
+    
+    private static final int PAGE_SIZE = 200;
+    private static final int TYPING_PAUSE_MILLIS = 120;
+    
+    private final FileService fileService;
+    
+    private final DefaultListModel<String> listModel = new DefaultListModel<>();
+    private final JList<String> list = new JList<>(listModel);
+    private final JTextField searchField;
+    private final JLabel statusLabel;
+    private final JButton previousButton;
+    private final JButton nextButton;
+    private final JButton loadButton;
+    private final Timer typingTimer;
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gitt-pattern-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Event thread only
+    private String query = "";
+    private int offset;
+    private int total;
+    private int generation;
+    private String selectedName;
+    
+    public PatternPicker(Frame owner, FileService fileService, UIService uiService) {
+        super(owner, "Load Pattern", true);
+        this.fileService = fileService;
+        
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setSize(460, 520);
+        setLocationRelativeTo(owner);
+        
+        searchField = uiService.createStyledTextField("", 24);
+        searchField.setToolTipText("Start of the name; small typos are forgiven");
+        typingTimer = new Timer(TYPING_PAUSE_MILLIS, e -> search(searchField.getText(), 0));
+        typingTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                typingTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                typingTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                typingTimer.restart();
+            }
+        });
+        // Enter picks the first match, arrow keys move into the list
+        searchField.addActionListener(e -> {
+            if (!listModel.isEmpty()) {
+                choose(list.getSelectedIndex() >= 0 ? list.getSelectedValue() : listModel.get(0));
+            }
+        });
+        searchField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && !listModel.isEmpty()) {
+                    list.setSelectedIndex(Math.min(list.getSelectedIndex() + 1, listModel.size() - 1));
+                    list.ensureIndexIsVisible(list.getSelectedIndex());
+                } else if (e.getKeyCode() == KeyEvent.VK_UP && list.getSelectedIndex() > 0) {
+                    list.setSelectedIndex(list.getSelectedIndex() - 1);
+                    list.ensureIndexIsVisible(list.getSelectedIndex());
+                }
+            }
+        });
+        
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.add(uiService.createStyledLabel("Search:"));
+        searchPanel.add(searchField);
+        
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFont(new Font("Consolas", Font.PLAIN, 12));
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && list.getSelectedIndex() >= 0) {
+                    choose(list.getSelectedValue());
+                }
+            }
+        });
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(209, 213, 219), 1));
+        
+        statusLabel = uiService.createStyledLabel("Loading names...");
+        previousButton = uiService.createStyledButton("◀", new Color(107, 114, 128), "Previous page");
+        previousButton.addActionListener(e -> search(query, Math.max(offset - PAGE_SIZE, 0)));
+        nextButton = uiService.createStyledButton("▶", new Color(107, 114, 128), "Next page");
+        nextButton.addActionListener(e -> search(query, offset + PAGE_SIZE));
+        JPanel pagePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        pagePanel.add(previousButton);
+        pagePanel.add(nextButton);
+        pagePanel.add(statusLabel);
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton cancelButton = uiService.createStyledButton("Cancel", new Color(156, 163, 175), "Close without loading");
+        cancelButton.addActionListener(e -> dispose());
+        loadButton = uiService.createStyledButton("Load", new Color(245, 158, 11), "Load the selected pattern");
+        loadButton.addActionListener(e -> choose(list.getSelectedValue()));
+        loadButton.setEnabled(false);
+        list.addListSelectionListener(e -> loadButton.setEnabled(list.getSelectedIndex() >= 0));
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(loadButton);
+        
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(pagePanel, BorderLayout.WEST);
+        southPanel.add(buttonPanel, BorderLayout.EAST);
+        
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.add(searchPanel, BorderLayout.NORTH);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
+        add(mainPanel);
+        
+        getRootPane().registerKeyboardAction(e -> dispose(),
+            KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                typingTimer.stop();
+                searcher.shutdownNow();
+            }
+        });
+        
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        search("", 0);
+    }
+    
+    /**
+     * Show the dialog and return the chosen name, or null when it was cancelled
+     */
+    public String pick() {
+        setVisible(true);
+        return selectedName;
+    }
+    
+    private void choose(String name) {
+        if (name != null) {
+            selectedName = name;
+            dispose();
+        }
+    }
+    
+    /**
+     * Fetch one page of matches in the background; a newer search makes this one stale
+     */
+    private void search(String text, int pageOffset) {
+        typingTimer.stop();
+        int pass = ++generation;
+        String requested = text.trim();
+        searcher.submit(() -> {
+            try {
+                FileService.NamePage page = fileService.findPatternNames(requested, pageOffset, PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> showPage(pass, requested, pageOffset, page));
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (pass == generation) {
+                        statusLabel.setText("Error: " + e.getMessage());
+                    }
+                });
+            }
+        });
+    }
+    
+    private void showPage(int pass, String requested, int pageOffset, FileService.NamePage page) {
+        if (pass != generation || !isDisplayable()) {
+            return;   // stale: a newer search is on its way
+        }
+        query = requested;
+        offset = pageOffset;
+        total = page.total;
+        
+        listModel.clear();
+        for (String name : page.names) {
+            listModel.addElement(name);
+        }
+        if (!listModel.isEmpty()) {
+            list.setSelectedIndex(0);
+            list.ensureIndexIsVisible(0);
+        }
+        updatePager();
+    }
+    
+    private void updatePager() {
+        previousButton.setEnabled(offset > 0);
+        nextButton.setEnabled(offset + PAGE_SIZE < total);
+        if (total == 0) {
+            statusLabel.setText(query.isEmpty() ? "No saved patterns" : "No matches");
+        } else {
+            statusLabel.setText(String.format("%,d-%,d of %,d", offset + 1, offset + listModel.size(), total));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.GitTimeTraveler;
+
+import javax.swing.*;
+
+import com.GitTimeTraveler.metrics.Histogram;
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.service.PatternService;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Live preview of density, symmetry and continuity settings
+ *
+ * Parameter changes are throttled to the frame rate: the first change starts
+ * a frame timer and the parameters are read when it fires, so a slider drag
+ * asks for at most one pattern per frame, always with the latest values.
+ * Patterns are generated on one background thread that holds at most one
+ * waiting request. A new request cancels the previous one, interrupting it if
+ * it is already running, and makes its result stale, so only the newest
+ * parameters ever reach the screen and the event thread never waits.
+ *
+ * The text's base pattern is generated once, on the first request; every
+ * request after that only re-applies the parameters to a copy, which takes
+ * microseconds, and the preview stays stable instead of re-rolling the
+ * generator's random variation on every change.
+ *
+ * A request that fails is reported to the error callback on the event thread,
+ * unless a newer request has already replaced it.
+ */
+public class PatternPreview {
+    
+    private static final int FRAME_MILLIS = 16;
+    private static final Histogram LATENCY = Metrics.histogram("preview.latency", Histogram.Unit.NANOSECONDS);
+    
+    private final PatternService patternService;
+    private final String text;
+    private final int year;
+    private final Supplier<double[]> parameters;
+    private final Consumer<int[][]> display;
+    private final Consumer<Exception> failure;
+    private final Timer frameTimer;
+    private final ThreadPoolExecutor worker;
+    
+    // Written by the worker thread only
+    private int[][] basePattern;
+    
+    // Event thread only
+    private long requested;
+    private Future<?> inFlight;
+    private long shown;
+    private int[][] shownPattern;
+    private Consumer<int[][]> pendingApply;
+    private boolean disposed;
+    
+    /**
+     * @param parameters current density, symmetry and continuity (0-1), read on the event thread
+     * @param display shows a finished pattern, called on the event thread
+     * @param failure reports why the newest pattern could not be made, called on the event thread;
+     *                a callback waiting in whenCurrent is dropped
+     */
+    public PatternPreview(PatternService patternService, String text, int year,
+                          Supplier<double[]> parameters, Consumer<int[][]> display, Consumer<Exception> failure) {
+        this.patternService = patternService;
+        this.text = text;
+        this.year = year;
+        this.parameters = parameters;
+        this.display = display;
+        this.failure = failure;
+        
+        frameTimer = new Timer(FRAME_MILLIS, e -> request());
+        frameTimer.setRepeats(false);
+        
+        // Newer requests push out an older waiting one instead of queueing behind it
+        worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), runnable -> {
+            Thread thread = new Thread(runnable, "gitt-preview");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+    
+    /**
+     * Note a parameter change; the preview follows within a frame
+     */
+    public void parametersChanged() {
+        if (!disposed && !frameTimer.isRunning()) {
+            frameTimer.start();
+        }
+    }
+    
+    /**
+     * Hand the pattern for the current parameters to the callback, as soon as it is ready
+     */
+    public void whenCurrent(Consumer<int[][]> callback) {
+        if (disposed) {
+            return;
+        }
+        if (frameTimer.isRunning()) {
+            frameTimer.stop();
+            request();
+        }
+        if (shown == requested && shownPattern != null) {
+            callback.accept(shownPattern);
+        } else {
+            pendingApply = callback;
+        }
+    }
+    
+    /**
+     * Stop the timer and the worker; results still in flight are dropped
+     */
+    public void dispose() {
+        disposed = true;
+        frameTimer.stop();
+        pendingApply = null;
+        worker.shutdownNow();
+    }
+    
+    private void request() {
+        if (disposed) {
+            return;
+        }
+        long generation = ++requested;
+        double[] values = parameters.get();
+        long start = System.nanoTime();
+        if (inFlight != null) {
+            inFlight.cancel(true);
+        }
+        inFlight = worker.submit(() -> {
+            try {
+                if (basePattern == null) {
+                    basePattern = patternService.generateMLPattern(text, year);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                int[][] pattern = patternService.customizePattern(basePattern, values[0], values[1], values[2]);
+                SwingUtilities.invokeLater(() -> show(generation, pattern, start));
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> fail(generation, e));
+            }
+        });
+    }
+    
+    private void fail(long generation, Exception e) {
+        if (disposed || generation != requested) {
+            return;   // superseded; the newer request reports for itself
+        }
+        pendingApply = null;
+        failure.accept(e);
+    }
+    
+    private void show(long generation, int[][] pattern, long start) {
+        if (disposed || generation != requested) {
+            return;   // stale: a newer request is on its way
+        }
+        LATENCY.record(System.nanoTime() - start);
+        shown = generation;
+        shownPattern = pattern;
+        display.accept(pattern);
+        
+        if (pendingApply != null) {
+            Consumer<int[][]> callback = pendingApply;
+            pendingApply = null;
+            callback.accept(pattern);
+        }
+    }
+}
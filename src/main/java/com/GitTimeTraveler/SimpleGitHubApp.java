@@ -2,12 +2,18 @@ package com.GitTimeTraveler;
 
 import javax.swing.*;
 
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.ml.PatternOptimizer;
 import com.GitTimeTraveler.service.*;
 
 import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -20,14 +26,30 @@ public class SimpleGitHubApp extends JFrame {
     private static final int GRID_ROWS = 7;    // GitHub days (Sun-Sat)
     private static final int GRID_COLS = 53;   // GitHub weeks
     private static final int CELL_SIZE = 12;   // Pixel size for each cell
+    private static final int CELL_GAP = 2;     // Pixels between cells
+    private static final int PREVIEW_CELL_SIZE = 6;
+    private static final int PREVIEW_CELL_GAP = 1;
+    private static final long AUTO_OPTIMIZE_BUDGET_MS = 2000;
+    private static final int SIMILAR_RESULTS = 10;
     
-    private JLabel[][] gridCells;
+    /** When true, print STARTUP_PROBE_MARKER and exit as soon as the window is usable */
+    public static final String STARTUP_PROBE_PROPERTY = "gitt.startup.probe";
+    public static final String STARTUP_PROBE_MARKER = "gitt-startup: interactive";
+    
+    private ContributionGrid grid;
     private int[][] patternData; // Changed from boolean to int for intensity levels (0-6)
+    private ContributionGrid previewGrid;
+    private int[][] previewData;
+    private JPanel previewPanel;
     private JTextField yearInput;
     private JTextField textInput;
-    private JTextArea outputArea;
+    private LogConsole outputConsole;
     private JSlider intensitySlider;
     private JLabel intensityLabel;
+    private JComboBox<ContributionGrid.Tool> toolSelector;
+    private PatternHistory history;
+    private JButton undoButton;
+    private JButton redoButton;
     
     // Service instances
     private final GitService gitService;
@@ -56,46 +78,30 @@ public class SimpleGitHubApp extends JFrame {
     private void initializeComponents() {
         // Initialize pattern data
         patternData = new int[GRID_ROWS][GRID_COLS];
-        gridCells = new JLabel[GRID_ROWS][GRID_COLS];
+        history = new PatternHistory(patternData);
         
-        // Create grid cells
-        for (int row = 0; row < GRID_ROWS; row++) {
-            for (int col = 0; col < GRID_COLS; col++) {
-                JLabel cell = new JLabel("", SwingConstants.CENTER);
-                cell.setPreferredSize(new Dimension(CELL_SIZE, CELL_SIZE));
-                cell.setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
-                cell.setBackground(Color.WHITE);
-                cell.setOpaque(true);
-                cell.setFont(new Font("Monospaced", Font.PLAIN, 8));
-                
-                // Add mouse listener for drawing
-                cell.addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mousePressed(MouseEvent e) {
-                        toggleCell(cell);
-                    }
-                    
-                    @Override
-                    public void mouseEntered(MouseEvent e) {
-                        if (SwingUtilities.isLeftMouseButton(e)) {
-                            toggleCell(cell);
-                        }
-                    }
-                });
-                
-                gridCells[row][col] = cell;
-            }
-        }
+        // Single painted component; the palette comes from UIService once
+        grid = new ContributionGrid(patternData, CELL_SIZE, CELL_GAP, uiService::getIntensityColor);
+        grid.setCellListener(this::toggleCell);
+        grid.setStrokeListener(this::applyStroke);
+        
+        // Read-only preview of the optimization settings, shown beside the grid while the dialog is open
+        previewData = new int[GRID_ROWS][GRID_COLS];
+        previewGrid = new ContributionGrid(previewData, PREVIEW_CELL_SIZE, PREVIEW_CELL_GAP, uiService::getIntensityColor);
         
         // Input components with modern styling using UIService
         yearInput = uiService.createStyledTextField("2024", 8);
         textInput = uiService.createStyledTextField("PASINDU SAMPATH", 20);
-        outputArea = uiService.createStyledTextArea(20, 50);
+        outputConsole = new LogConsole();
         
         // Intensity slider with modern styling
         intensitySlider = uiService.createStyledSlider(0, 6, 1, "Intensity");
         intensityLabel = uiService.createStyledLabel("Intensity: 1");
         intensityLabel.setFont(new Font("Arial", Font.BOLD, 11));
+        
+        // Drawing tools; brush, line, rectangle and fill paint with the slider's intensity
+        toolSelector = new JComboBox<>(ContributionGrid.Tool.values());
+        toolSelector.setToolTipText("Drawing tool");
     }
     
     private void setupLayout() {
@@ -121,6 +127,8 @@ public class SimpleGitHubApp extends JFrame {
         inputPanel.add(uiService.createSpacer(20));
         inputPanel.add(intensityLabel);
         inputPanel.add(intensitySlider);
+        inputPanel.add(uiService.createStyledLabel("Tool:"));
+        inputPanel.add(toolSelector);
         
         topPanel.add(inputPanel, BorderLayout.NORTH);
         
@@ -156,6 +164,15 @@ public class SimpleGitHubApp extends JFrame {
         clearButton.addActionListener(e -> clearGrid());
         corePanel.add(clearButton);
         
+        undoButton = uiService.createStyledButton("Undo", new Color(107, 114, 128), "Undo last change (Ctrl+Z)");
+        undoButton.addActionListener(e -> undo());
+        corePanel.add(undoButton);
+        
+        redoButton = uiService.createStyledButton("Redo", new Color(107, 114, 128), "Redo change (Ctrl+Y)");
+        redoButton.addActionListener(e -> redo());
+        corePanel.add(redoButton);
+        updateHistoryButtons();
+        
         // Pattern Management section
         JPanel patternPanel = uiService.createStyledPanel("💾 Pattern Management", new Color(168, 85, 247));
         patternPanel.setLayout(new FlowLayout(FlowLayout.LEFT, 5, 5));
@@ -168,6 +185,14 @@ public class SimpleGitHubApp extends JFrame {
         loadButton.addActionListener(e -> loadPattern());
         patternPanel.add(loadButton);
         
+        JButton similarButton = uiService.createStyledButton("Find Similar", new Color(217, 119, 6), "Find saved designs like this one");
+        similarButton.addActionListener(e -> findSimilarPatterns());
+        patternPanel.add(similarButton);
+        
+        JButton importButton = uiService.createStyledButton("Import Image", new Color(14, 165, 233), "Convert an image or folder of images");
+        importButton.addActionListener(e -> importImage());
+        patternPanel.add(importButton);
+        
         // Commit Management section
         JPanel commitPanel = uiService.createStyledPanel("🗑️ Commit Management", new Color(220, 38, 127));
         commitPanel.setLayout(new FlowLayout(FlowLayout.LEFT, 5, 5));
@@ -200,21 +225,15 @@ public class SimpleGitHubApp extends JFrame {
         JPanel centerPanel = new JPanel(new BorderLayout());
         centerPanel.setBackground(new Color(255, 255, 255));
         
-        JLabel gridTitle = uiService.createStyledLabel("🎨 Design your pattern by clicking on the grid (cycle through intensity levels 0-6)");
+        JLabel gridTitle = uiService.createStyledLabel("🎨 Design your pattern by clicking on the grid (cycle through intensity levels 0-6) or drag with a drawing tool");
         gridTitle.setHorizontalAlignment(SwingConstants.CENTER);
         gridTitle.setBorder(BorderFactory.createEmptyBorder(10, 10, 5, 10));
         centerPanel.add(gridTitle, BorderLayout.NORTH);
         
-        JPanel gridPanel = new JPanel(new GridLayout(GRID_ROWS, GRID_COLS, 1, 1));
+        JPanel gridPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
         gridPanel.setBorder(BorderFactory.createLineBorder(new Color(209, 213, 219), 2));
         gridPanel.setBackground(new Color(255, 255, 255));
-        
-        for (int row = 0; row < GRID_ROWS; row++) {
-            for (int col = 0; col < GRID_COLS; col++) {
-                gridCells[row][col].setBorder(BorderFactory.createLineBorder(new Color(229, 231, 235), 1));
-                gridPanel.add(gridCells[row][col]);
-            }
-        }
+        gridPanel.add(grid);
         
         JScrollPane gridScrollPane = new JScrollPane(gridPanel);
         gridScrollPane.setPreferredSize(new Dimension(900, 220));
@@ -237,6 +256,20 @@ public class SimpleGitHubApp extends JFrame {
         }
         centerPanel.add(leftPanel, BorderLayout.WEST);
         
+        previewPanel = new JPanel(new BorderLayout());
+        previewPanel.setBackground(new Color(255, 255, 255));
+        previewPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 10));
+        JLabel previewTitle = uiService.createStyledLabel("Preview");
+        previewTitle.setHorizontalAlignment(SwingConstants.CENTER);
+        previewPanel.add(previewTitle, BorderLayout.NORTH);
+        JPanel previewGridPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
+        previewGridPanel.setBorder(BorderFactory.createLineBorder(new Color(209, 213, 219), 1));
+        previewGridPanel.setBackground(new Color(255, 255, 255));
+        previewGridPanel.add(previewGrid);
+        previewPanel.add(previewGridPanel, BorderLayout.CENTER);
+        previewPanel.setVisible(false);
+        centerPanel.add(previewPanel, BorderLayout.EAST);
+        
         add(centerPanel, BorderLayout.CENTER);
         
         // Bottom panel for output
@@ -244,15 +277,19 @@ public class SimpleGitHubApp extends JFrame {
         bottomPanel.setBackground(new Color(248, 249, 250));
         bottomPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
+        JPanel outputHeader = new JPanel(new BorderLayout());
+        outputHeader.setOpaque(false);
         JLabel outputTitle = uiService.createStyledLabel("📄 Generated Commits & Git Commands");
         outputTitle.setHorizontalAlignment(SwingConstants.CENTER);
-        bottomPanel.add(outputTitle, BorderLayout.NORTH);
+        outputHeader.add(outputTitle, BorderLayout.CENTER);
+        JButton saveOutputButton = uiService.createStyledButton("💾 Save Output", new Color(107, 114, 128), "Save the complete output to a file");
+        saveOutputButton.addActionListener(e -> saveOutput());
+        outputHeader.add(saveOutputButton, BorderLayout.EAST);
+        bottomPanel.add(outputHeader, BorderLayout.NORTH);
         
-        outputArea.setBorder(BorderFactory.createLineBorder(new Color(209, 213, 219), 1));
-        outputArea.setBackground(new Color(255, 255, 255));
-        outputArea.setFont(new Font("Consolas", Font.PLAIN, 11));
+        outputConsole.setBorder(BorderFactory.createLineBorder(new Color(209, 213, 219), 1));
         
-        JScrollPane outputScrollPane = new JScrollPane(outputArea);
+        JScrollPane outputScrollPane = new JScrollPane(outputConsole);
         outputScrollPane.setPreferredSize(new Dimension(800, 200));
         outputScrollPane.setBorder(BorderFactory.createEmptyBorder(5, 0, 0, 0));
         bottomPanel.add(outputScrollPane, BorderLayout.CENTER);
@@ -264,75 +301,141 @@ public class SimpleGitHubApp extends JFrame {
         intensitySlider.addChangeListener(e -> {
             int intensity = intensitySlider.getValue();
             intensityLabel.setText("Intensity: " + intensity);
+            grid.setBrushIntensity(intensity);
+        });
+        toolSelector.addActionListener(e -> grid.setTool((ContributionGrid.Tool) toolSelector.getSelectedItem()));
+        
+        // Undo/redo shortcuts work wherever focus is in the window
+        InputMap inputMap = getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        ActionMap actionMap = getRootPane().getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke("ctrl Z"), "undo");
+        inputMap.put(KeyStroke.getKeyStroke("ctrl Y"), "redo");
+        inputMap.put(KeyStroke.getKeyStroke("ctrl shift Z"), "redo");
+        actionMap.put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                undo();
+            }
+        });
+        actionMap.put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                redo();
+            }
         });
     }
     
     
     
-    private void toggleCell(JLabel cell) {
-        // Find the cell position
-        int row = -1, col = -1;
-        for (int r = 0; r < GRID_ROWS; r++) {
-            for (int c = 0; c < GRID_COLS; c++) {
-                if (gridCells[r][c] == cell) {
-                    row = r;
-                    col = c;
-                    break;
-                }
-            }
-        }
-        
-        if (row >= 0 && col >= 0) {
-            // Cycle through intensity levels (0-6)
-            int currentIntensity = patternService.getCellIntensity(patternData, row, col);
-            int newIntensity = (currentIntensity + 1) % 7; // 0,1,2,3,4,5,6,0...
-            patternService.updateCellIntensity(patternData, row, col, newIntensity);
-            
-            updateCellAppearance(row, col);
+    private void toggleCell(int row, int col) {
+        // Cycle through intensity levels (0-6)
+        int currentIntensity = patternService.getCellIntensity(patternData, row, col);
+        int newIntensity = (currentIntensity + 1) % 7; // 0,1,2,3,4,5,6,0...
+        patternService.updateCellIntensity(patternData, row, col, newIntensity);
+        
+        grid.cellChanged(row, col);
+        recordHistory("Cycle cell");
+    }
+    
+    /**
+     * Apply a finished brush, line, rectangle or fill stroke in one model update
+     */
+    private void applyStroke(int[] cells, int intensity) {
+        int firstRow = GRID_ROWS, firstCol = GRID_COLS, lastRow = -1, lastCol = -1;
+        for (int cell : cells) {
+            int row = cell / GRID_COLS;
+            int col = cell % GRID_COLS;
+            patternService.updateCellIntensity(patternData, row, col, intensity);
+            firstRow = Math.min(firstRow, row);
+            lastRow = Math.max(lastRow, row);
+            firstCol = Math.min(firstCol, col);
+            lastCol = Math.max(lastCol, col);
         }
+        grid.cellsChanged(firstRow, firstCol, lastRow, lastCol);
+        recordHistory(toolSelector.getSelectedItem() + " stroke");
     }
     
     private void clearGrid() {
         patternService.clearPattern(patternData);
-        for (int row = 0; row < GRID_ROWS; row++) {
-            for (int col = 0; col < GRID_COLS; col++) {
-                updateCellAppearance(row, col);
-            }
+        grid.patternChanged();
+        recordHistory("Clear");
+    }
+    
+    /**
+     * Snapshot the pattern after a command and refresh the undo/redo buttons
+     */
+    private void recordHistory(String command) {
+        history.record(command, patternData);
+        updateHistoryButtons();
+    }
+    
+    private void undo() {
+        PatternHistory.Snapshot snapshot = history.undo();
+        if (snapshot != null) {
+            snapshot.copyInto(patternData);
+            grid.patternChanged();
         }
+        updateHistoryButtons();
+    }
+    
+    private void redo() {
+        PatternHistory.Snapshot snapshot = history.redo();
+        if (snapshot != null) {
+            snapshot.copyInto(patternData);
+            grid.patternChanged();
+        }
+        updateHistoryButtons();
+    }
+    
+    private void updateHistoryButtons() {
+        undoButton.setEnabled(history.canUndo());
+        redoButton.setEnabled(history.canRedo());
+        undoButton.setToolTipText(history.canUndo() ? "Undo " + history.undoCommand() + " (Ctrl+Z)" : "Nothing to undo");
+        redoButton.setToolTipText(history.canRedo() ? "Redo " + history.redoCommand() + " (Ctrl+Y)" : "Nothing to redo");
     }
     
     private void generateCommits() {
+        int year;
         try {
-            int year = Integer.parseInt(yearInput.getText());
-            String text = textInput.getText().toUpperCase();
-            
-            // Use GitService to generate commit commands
-            String output = gitService.generateCommitCommands(patternData, year, text);
-            outputArea.setText(output);
-            
-            // Calculate first Sunday for file saving
-            LocalDate jan1 = LocalDate.of(year, 1, 1);
-            int dayOfWeek = jan1.getDayOfWeek().getValue();
-            int daysToFirstSunday = (7 - dayOfWeek) % 7;
-            LocalDate firstSunday = jan1.plusDays(daysToFirstSunday);
-            if (firstSunday.getYear() < year) {
-                firstSunday = firstSunday.plusWeeks(1);
-            }
-            
-            // Save to file using GitService
-            gitService.saveCommitCommandsToFile(output, firstSunday);
-            
-            int commitCount = patternService.getActiveCellsCount(patternData);
-            uiService.showMessageDialog(this, 
-                "Generated " + commitCount + " commits!\n" +
-                "Commands saved to git_commands.bat\n" +
-                "Run the .bat file to create the commits.", 
-                "Success", JOptionPane.INFORMATION_MESSAGE);
-                
+            year = Integer.parseInt(yearInput.getText());
         } catch (NumberFormatException e) {
             uiService.showMessageDialog(this, "Please enter a valid year (e.g., 2024)", "Invalid Year", JOptionPane.ERROR_MESSAGE);
-        } catch (Exception e) {
-            uiService.showMessageDialog(this, "Error saving file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String text = textInput.getText().toUpperCase();
+        int[][] snapshot = history.current().toArray();
+        
+        // Stream the listing into the console while git_commands.bat is written
+        outputConsole.clear();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+            try {
+                int commitCount = gitService.writeCommitCommands(snapshot, year, text, outputConsole::append);
+                SwingUtilities.invokeLater(() -> uiService.showMessageDialog(this, 
+                    "Generated " + commitCount + " commits!\n" +
+                    "Commands saved to git_commands.bat\n" +
+                    "Run the .bat file to create the commits.", 
+                    "Success", JOptionPane.INFORMATION_MESSAGE));
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> uiService.showMessageDialog(this, "Error saving file: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+            }
+        });
+        executor.shutdown();
+    }
+    
+    /**
+     * Save everything written to the output console since it was last cleared
+     */
+    private void saveOutput() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setSelectedFile(new File("gitt-output.log"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            outputConsole.dumpTo(chooser.getSelectedFile().toPath());
+        } catch (IOException e) {
+            uiService.showMessageDialog(this, "Error saving output: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -362,8 +465,12 @@ public class SimpleGitHubApp extends JFrame {
         // Create progress dialog using UIService
         JDialog progressDialog = uiService.createProgressDialog(this, "Creating Commits", "Initializing git repository...");
         
-        // Use GitService to create real commits
-        gitService.createRealCommits(patternData, year, text, 
+        // The job works from an immutable snapshot, so editing can continue meanwhile
+        int[][] snapshot = history.current().toArray();
+        outputConsole.clear();
+        
+        // Use GitService to create real commits, streaming its log into the console
+        gitService.createRealCommits(snapshot, year, text, 
             (current, total, message) -> {
                 SwingUtilities.invokeLater(() -> {
                     if (current == 0 && total == 100) {
@@ -374,11 +481,11 @@ public class SimpleGitHubApp extends JFrame {
                     }
                 });
             },
+            outputConsole::append,
             new GitService.CompletionCallback() {
                 @Override
                 public void onSuccess(String message) {
                     SwingUtilities.invokeLater(() -> {
-                        outputArea.setText(message);
                         progressDialog.dispose();
                         uiService.showMessageDialog(SimpleGitHubApp.this, 
                             "Real commits created successfully!\n" +
@@ -398,22 +505,15 @@ public class SimpleGitHubApp extends JFrame {
             });
     }
     
-    private void updateCellAppearance(int row, int col) {
-        JLabel cell = gridCells[row][col];
-        int intensity = patternService.getCellIntensity(patternData, row, col);
-        
-        if (intensity == 0) {
-            // Cell is inactive - make it white
-            cell.setBackground(Color.WHITE);
-            cell.setText("");
-            cell.setForeground(Color.BLACK);
-        } else {
-            // Cell is active with intensity level
-            Color intensityColor = patternService.getIntensityColor(intensity);
-            cell.setBackground(intensityColor);
-            cell.setText("██");
-            cell.setForeground(Color.WHITE);
+    /**
+     * Copy a pattern into the grid, repaint it once and record it as one undo step
+     */
+    private void applyPattern(int[][] source, String command) {
+        for (int row = 0; row < GRID_ROWS; row++) {
+            System.arraycopy(source[row], 0, patternData[row], 0, GRID_COLS);
         }
+        grid.patternChanged();
+        recordHistory(command);
     }
     
     private void savePattern() {
@@ -450,44 +550,157 @@ public class SimpleGitHubApp extends JFrame {
     
     private void loadPattern() {
         try {
-            // Use FileService to get available patterns
-            String[] patternNames = fileService.getAvailablePatternNames();
+            // Searchable, paged picker; only one page of names is fetched at a time
+            String selectedPattern = new PatternPicker(this, fileService, uiService).pick();
             
-            if (patternNames.length == 0) {
-                uiService.showMessageDialog(this, "No saved patterns found!", "No Patterns", JOptionPane.INFORMATION_MESSAGE);
-                return;
+            if (selectedPattern != null) {
+                loadSavedPattern(selectedPattern);
             }
             
-            // Create pattern selection dialog
-            String selectedPattern = (String) JOptionPane.showInputDialog(this, 
-                "Select a pattern to load:", "Load Pattern", 
-                JOptionPane.QUESTION_MESSAGE, null, patternNames, patternNames[0]);
-            
-            if (selectedPattern != null) {
-                // Use FileService to load pattern
-                FileService.SavedPattern pattern = fileService.loadPattern(selectedPattern);
-                
-                // Load pattern data
-                for (int i = 0; i < GRID_ROWS; i++) {
-                    for (int j = 0; j < GRID_COLS; j++) {
-                        patternData[i][j] = pattern.pattern[i][j];
-                        updateCellAppearance(i, j);
-                    }
+        } catch (Exception e) {
+            uiService.showMessageDialog(this, "Error loading patterns: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * Put a saved pattern with its year and text into the editor
+     */
+    private void loadSavedPattern(String name) throws Exception {
+        // Use FileService to load pattern
+        FileService.SavedPattern pattern = fileService.loadPattern(name);
+        if (pattern == null) {
+            uiService.showMessageDialog(this, "Pattern '" + name + "' no longer exists.", "Not Found", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        // Load pattern data
+        applyPattern(pattern.pattern, "Load Pattern");
+        
+        // Load year and text
+        yearInput.setText(String.valueOf(pattern.year));
+        textInput.setText(pattern.text);
+        
+        uiService.showMessageDialog(this, "Pattern '" + name + "' loaded successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    /**
+     * List the saved patterns closest to the grid and offer to load one
+     */
+    private void findSimilarPatterns() {
+        int[][] query = new int[GRID_ROWS][];
+        for (int row = 0; row < GRID_ROWS; row++) {
+            query[row] = patternData[row].clone();
+        }
+        
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+            try {
+                // The first search builds the index from the library, so keep it off the event thread
+                List<FileService.PatternMatch> matches = fileService.findSimilarPatterns(query, SIMILAR_RESULTS, FileService.Distance.L1);
+                SwingUtilities.invokeLater(() -> showSimilarPatterns(matches));
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> uiService.showMessageDialog(this, "Error searching patterns: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+            }
+            return null;
+        });
+        
+        executor.shutdown();
+    }
+    
+    private void showSimilarPatterns(List<FileService.PatternMatch> matches) {
+        if (matches.isEmpty()) {
+            uiService.showMessageDialog(this, "No saved patterns found!", "No Patterns", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        String[] choices = new String[matches.size()];
+        for (int i = 0; i < choices.length; i++) {
+            FileService.PatternMatch match = matches.get(i);
+            choices[i] = match.name + "   (" + (match.distance == 0 ? "identical" : "distance " + match.distance) + ")";
+        }
+        String selected = (String) JOptionPane.showInputDialog(this,
+            "Closest saved patterns (sum of intensity differences):", "Find Similar",
+            JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        if (selected == null) {
+            return;
+        }
+        
+        try {
+            for (int i = 0; i < choices.length; i++) {
+                if (choices[i].equals(selected)) {
+                    loadSavedPattern(matches.get(i).name);
+                    break;
                 }
-                
-                // Load year and text
-                yearInput.setText(String.valueOf(pattern.year));
-                textInput.setText(pattern.text);
-                
-                uiService.showMessageDialog(this, "Pattern '" + selectedPattern + "' loaded successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             }
-            
         } catch (Exception e) {
             uiService.showMessageDialog(this, "Error loading patterns: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
     
+    /**
+     * Import an image into the grid, or a folder of images into the pattern library
+     */
+    private void importImage() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Images (PNG, JPEG)", "png", "jpg", "jpeg"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        Path selected = chooser.getSelectedFile().toPath();
+        int year;
+        try {
+            year = Integer.parseInt(yearInput.getText().trim());
+        } catch (NumberFormatException e) {
+            uiService.showMessageDialog(this, "Please enter a valid year!", "Invalid Year", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        JDialog progressDialog = uiService.createProgressDialog(this, "Importing Image", "Converting " + selected.getFileName() + "...");
+        
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+            try {
+                SwingUtilities.invokeLater(() -> progressDialog.setVisible(true));
+                
+                if (selected.toFile().isDirectory()) {
+                    // Batch mode: every image becomes a saved pattern named after its file,
+                    // written to the library in one go
+                    Map<Path, int[][]> patterns = patternService.importImageFolder(selected, GRID_COLS);
+                    List<FileService.SavedPattern> saved = new ArrayList<>();
+                    for (Map.Entry<Path, int[][]> entry : patterns.entrySet()) {
+                        String name = entry.getKey().getFileName().toString().replaceFirst("\\.[^.]+$", "");
+                        saved.add(new FileService.SavedPattern(name, name, year, entry.getValue()));
+                    }
+                    fileService.savePatterns(saved);
+                    
+                    SwingUtilities.invokeLater(() -> {
+                        progressDialog.dispose();
+                        uiService.showMessageDialog(this, patterns.size() + " images imported as saved patterns.", "Import Complete", JOptionPane.INFORMATION_MESSAGE);
+                    });
+                } else {
+                    int[][] imported = patternService.importImage(selected, GRID_COLS);
+                    
+                    SwingUtilities.invokeLater(() -> {
+                        applyPattern(imported, "Import Image");
+                        progressDialog.dispose();
+                    });
+                }
+                
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    progressDialog.dispose();
+                    uiService.showMessageDialog(this, "Error importing image: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+            }
+            return null;
+        });
+        
+        executor.shutdown();
+    }
+    
     /**
      * Generate pattern using Machine Learning
      */
@@ -517,12 +730,7 @@ public class SimpleGitHubApp extends JFrame {
                 
                 SwingUtilities.invokeLater(() -> {
                     // Apply the generated pattern
-                    for (int row = 0; row < GRID_ROWS; row++) {
-                        for (int col = 0; col < GRID_COLS; col++) {
-                            patternData[row][col] = mlPattern[row][col];
-                            updateCellAppearance(row, col);
-                        }
-                    }
+                    applyPattern(mlPattern, "ML Generate");
                     
                     progressDialog.dispose();
                     
@@ -562,8 +770,11 @@ public class SimpleGitHubApp extends JFrame {
         
         // Show optimization dialog
         JDialog optimizationDialog = new JDialog(this, "Pattern Optimization", true);
-        optimizationDialog.setSize(400, 300);
-        optimizationDialog.setLocationRelativeTo(this);
+        optimizationDialog.setSize(480, 300);
+        optimizationDialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        // Below the grid, so the preview beside it stays in view
+        optimizationDialog.setLocation(getX() + (getWidth() - optimizationDialog.getWidth()) / 2,
+            getY() + getHeight() - optimizationDialog.getHeight() - 40);
         
         JPanel optimizationPanel = new JPanel(new BorderLayout());
         
@@ -582,30 +793,106 @@ public class SimpleGitHubApp extends JFrame {
         paramsPanel.add(continuitySlider);
         
         JButton optimizeButton = uiService.createStyledButton("Optimize Pattern", new Color(139, 69, 19), "Apply optimization");
+        
+        // Slider moves regenerate the preview in the background, at most once per frame
+        PatternPreview preview = new PatternPreview(patternService, finalText, year,
+            () -> new double[] {
+                densitySlider.getValue() / 100.0,
+                symmetrySlider.getValue() / 100.0,
+                continuitySlider.getValue() / 100.0
+            },
+            pattern -> {
+                for (int row = 0; row < GRID_ROWS; row++) {
+                    System.arraycopy(pattern[row], 0, previewData[row], 0, GRID_COLS);
+                }
+                previewGrid.patternChanged();
+            },
+            error -> {
+                optimizeButton.setEnabled(true);
+                uiService.showMessageDialog(optimizationDialog, "Error",
+                    "Error generating preview: " + error.getMessage(), JOptionPane.ERROR_MESSAGE);
+            });
+        densitySlider.addChangeListener(e -> preview.parametersChanged());
+        symmetrySlider.addChangeListener(e -> preview.parametersChanged());
+        continuitySlider.addChangeListener(e -> preview.parametersChanged());
+        
+        // Auto Optimize runs here; closing the dialog interrupts the search
+        ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+        optimizationDialog.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                searchExecutor.shutdownNow();
+                preview.dispose();
+                previewPanel.setVisible(false);
+            }
+        });
+        
         optimizeButton.addActionListener(e -> {
             double density = densitySlider.getValue() / 100.0;
             double symmetry = symmetrySlider.getValue() / 100.0;
             double continuity = continuitySlider.getValue() / 100.0;
             
-            // Generate optimized pattern using PatternService
-            int[][] optimizedPattern = patternService.generateCustomPattern(finalText, year, density, symmetry, continuity);
+            // Apply exactly what the preview shows for the current settings
+            optimizeButton.setEnabled(false);
+            preview.whenCurrent(optimizedPattern -> {
+                applyPattern(optimizedPattern, "Optimize");
+                
+                optimizationDialog.dispose();
+                
+                uiService.showMessageDialog(this, 
+                    "Pattern optimized successfully!\n" +
+                    "Density: " + String.format("%.1f", density) + "\n" +
+                    "Symmetry: " + String.format("%.1f", symmetry) + "\n" +
+                    "Continuity: " + String.format("%.1f", continuity), 
+                    "Optimization Complete", JOptionPane.INFORMATION_MESSAGE);
+            });
+        });
+        
+        JButton autoButton = uiService.createStyledButton("Auto Optimize", new Color(34, 139, 34), "Search for the best settings");
+        autoButton.addActionListener(e -> {
+            autoButton.setEnabled(false);
+            optimizeButton.setEnabled(false);
+            autoButton.setText("Searching...");
             
-            // Apply the optimized pattern
-            for (int row = 0; row < GRID_ROWS; row++) {
-                for (int col = 0; col < GRID_COLS; col++) {
-                    patternData[row][col] = optimizedPattern[row][col];
-                    updateCellAppearance(row, col);
+            // Search in background thread using PatternService
+            searchExecutor.submit(() -> {
+                try {
+                    java.util.List<PatternOptimizer.Candidate> candidates =
+                        patternService.optimizePattern(finalText, year, AUTO_OPTIMIZE_BUDGET_MS, 3);
+                    PatternOptimizer.Candidate best = candidates.get(0);
+                    
+                    SwingUtilities.invokeLater(() -> {
+                        if (!optimizationDialog.isDisplayable()) {
+                            return;   // closed while searching: the user moved on
+                        }
+                        // Apply the best pattern and show its settings on the sliders
+                        applyPattern(best.pattern, "Auto Optimize");
+                        densitySlider.setValue((int) Math.round(best.density * 100));
+                        symmetrySlider.setValue((int) Math.round(best.symmetry * 100));
+                        continuitySlider.setValue((int) Math.round(best.continuity * 100));
+                        
+                        optimizationDialog.dispose();
+                        
+                        uiService.showMessageDialog(this, 
+                            "Best pattern found!\n" +
+                            "Density: " + String.format("%.2f", best.density) + "\n" +
+                            "Symmetry: " + String.format("%.2f", best.symmetry) + "\n" +
+                            "Continuity: " + String.format("%.2f", best.continuity) + "\n" +
+                            "Score: " + String.format("%.3f", best.score), 
+                            "Optimization Complete", JOptionPane.INFORMATION_MESSAGE);
+                    });
+                    
+                } catch (Exception ex) {
+                    SwingUtilities.invokeLater(() -> {
+                        if (!optimizationDialog.isDisplayable()) {
+                            return;
+                        }
+                        optimizationDialog.dispose();
+                        uiService.showMessageDialog(this, "Error optimizing pattern: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    });
                 }
-            }
-            
-            optimizationDialog.dispose();
-            
-            uiService.showMessageDialog(this, 
-                "Pattern optimized successfully!\n" +
-                "Density: " + String.format("%.1f", density) + "\n" +
-                "Symmetry: " + String.format("%.1f", symmetry) + "\n" +
-                "Continuity: " + String.format("%.1f", continuity), 
-                "Optimization Complete", JOptionPane.INFORMATION_MESSAGE);
+                return null;
+            });
         });
         
         JButton cancelButton = uiService.createStyledButton("Cancel", new Color(156, 163, 175), "Cancel optimization");
@@ -613,6 +900,7 @@ public class SimpleGitHubApp extends JFrame {
         
         JPanel buttonPanel = new JPanel(new FlowLayout());
         buttonPanel.add(optimizeButton);
+        buttonPanel.add(autoButton);
         buttonPanel.add(cancelButton);
         
         optimizationPanel.add(uiService.createStyledLabel("Adjust optimization parameters:"), BorderLayout.NORTH);
@@ -620,6 +908,10 @@ public class SimpleGitHubApp extends JFrame {
         optimizationPanel.add(buttonPanel, BorderLayout.SOUTH);
         
         optimizationDialog.add(optimizationPanel);
+        
+        previewPanel.setVisible(true);
+        previewPanel.revalidate();
+        preview.parametersChanged();
         optimizationDialog.setVisible(true);
     }
     
@@ -642,33 +934,7 @@ public class SimpleGitHubApp extends JFrame {
             return;
         }
         
-        // Show progress dialog using UIService
-        JDialog progressDialog = uiService.createProgressDialog(this, "Loading Commits", "Loading commits for year " + year + "...");
-        
-        // Load commits in background thread using GitService
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        executor.submit(() -> {
-            try {
-                SwingUtilities.invokeLater(() -> progressDialog.setVisible(true));
-                
-                // Get commits for the year using GitService
-                String commits = gitService.getCommitsByYear(year);
-                
-                SwingUtilities.invokeLater(() -> {
-                    progressDialog.dispose();
-                    showCommitsDialog(year, commits);
-                });
-                
-            } catch (Exception e) {
-                SwingUtilities.invokeLater(() -> {
-                    progressDialog.dispose();
-                    uiService.showMessageDialog(this, "Error loading commits: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                });
-            }
-            return null;
-        });
-        
-        executor.shutdown();
+        showCommitsDialog(year);
     }
     
     /**
@@ -734,81 +1000,25 @@ public class SimpleGitHubApp extends JFrame {
     /**
      * Show commits in a dialog
      */
-    private void showCommitsDialog(int year, String commits) {
-        JDialog commitsDialog = new JDialog(this, "Commits for Year " + year, true);
-        commitsDialog.setSize(800, 600);
-        commitsDialog.setLocationRelativeTo(this);
-        
-        JPanel mainPanel = new JPanel(new BorderLayout());
-        
-        // Use UIService to create styled text area
-        JTextArea commitsArea = uiService.createStyledTextArea(20, 50);
-        commitsArea.setText(commits);
-        commitsArea.setFont(new Font("Consolas", Font.PLAIN, 11));
-        commitsArea.setBackground(new Color(248, 249, 250));
-        
-        JScrollPane scrollPane = new JScrollPane(commitsArea);
-        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(209, 213, 219), 1));
-        
-        JPanel buttonPanel = new JPanel(new FlowLayout());
-        JButton closeButton = uiService.createStyledButton("Close", new Color(156, 163, 175), "Close dialog");
-        closeButton.addActionListener(e -> commitsDialog.dispose());
-        buttonPanel.add(closeButton);
-        
-        JButton deleteButton = uiService.createStyledButton("Delete These Commits", new Color(185, 28, 28), "Delete all shown commits");
-        deleteButton.addActionListener(e -> {
-            commitsDialog.dispose();
-            // Show confirmation dialog using UIService
-            boolean confirmed = uiService.showConfirmationDialog(this, "Confirm Deletion", 
-                "Are you sure you want to delete ALL commits for year " + year + "?\n\n" +
-                "This action cannot be undone!");
-            
-            if (confirmed) {
-                // Show progress dialog using UIService
-                JDialog progressDialog = uiService.createProgressDialog(this, "Deleting Commits", "Deleting commits for year " + year + "...");
-                
-                // Delete commits in background thread using GitService
-                ExecutorService executor = Executors.newSingleThreadExecutor();
-                executor.submit(() -> {
-                    try {
-                        SwingUtilities.invokeLater(() -> progressDialog.setVisible(true));
-                        
-                        // Delete commits for the year using GitService
-                        int deletedCount = gitService.deleteCommitsByYear(year);
-                        
-                        SwingUtilities.invokeLater(() -> {
-                            progressDialog.dispose();
-                            uiService.showMessageDialog(this, 
-                                "Successfully deleted " + deletedCount + " commits for year " + year + "!", 
-                                "Deletion Complete", JOptionPane.INFORMATION_MESSAGE);
-                        });
-                        
-                    } catch (Exception ex) {
-                        SwingUtilities.invokeLater(() -> {
-                            progressDialog.dispose();
-                            uiService.showMessageDialog(this, "Error deleting commits: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                        });
-                    }
-                    return null;
-                });
-                
-                executor.shutdown();
-            }
-        });
-        buttonPanel.add(deleteButton);
-        
-        mainPanel.add(scrollPane, BorderLayout.CENTER);
-        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
-        
-        commitsDialog.add(mainPanel);
-        commitsDialog.setVisible(true);
+    private void showCommitsDialog(int year) {
+        new CommitBrowser(this, gitService, uiService, year).setVisible(true);
     }
     
     public static void main(String[] args) {
+        Metrics.configure();
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
                 new SimpleGitHubApp();
+                
+                // Startup benchmark probe: the next event runs once the frame is shown
+                // and the event queue is free, i.e. the first moment input is handled
+                if (Boolean.getBoolean(STARTUP_PROBE_PROPERTY)) {
+                    SwingUtilities.invokeLater(() -> {
+                        System.out.println(STARTUP_PROBE_MARKER);
+                        System.exit(0);
+                    });
+                }
             }
         });
     }
@@ -0,0 +1,430 @@
+package com.GitTimeTraveler.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.ml.PatternGenerator;
+import com.GitTimeTraveler.service.FileService;
+import com.GitTimeTraveler.service.GitService;
+import com.GitTimeTraveler.service.PatternService;
+import com.GitTimeTraveler.service.ServiceFactory;
+
+/**
+ * Headless command-line entry point
+ *
+ * Runs without loading any AWT or Swing classes: services come from
+ * ServiceFactory, which only builds the ones a command uses (never the Swing
+ * UIService), and text is drawn with the built-in bitmap font unless
+ * -Dgitt.glyphs=font is given. Every command prints one JSON object on stdout;
+ * errors print a JSON object on stderr and exit with status 1 (failure) or
+ * 2 (bad usage).
+ *
+ * Usage: java -cp target/classes com.GitTimeTraveler.cli.GitTimeTravelerCli <command> [options]
+ */
+public class GitTimeTravelerCli {
+    
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: GitTimeTravelerCli <command> [options]",
+        "",
+        "Commands:",
+        "  generate --text T --year Y [--density D --symmetry S --continuity C] [--save NAME]",
+        "  save NAME --text T --year Y --pattern FILE     (FILE: 7 lines of 53 digits, '-' for stdin)",
+        "  load NAME",
+        "  list-patterns [--query Q] [--offset N] [--limit N]   (prefix search, small typos allowed)",
+        "  delete-pattern NAME",
+        "  similar (--name NAME | --text T --year Y | --pattern FILE --text T --year Y) [--limit K] [--distance l1|hamming]",
+        "  export (--name NAME | --text T --year Y | --pattern FILE --text T --year Y)",
+        "  commit (--name NAME | --text T --year Y | --pattern FILE --text T --year Y)",
+        "  list-commits YEAR",
+        "  delete-commits YEAR --yes",
+        "  help");
+    
+    /**
+     * Bad command line; reported with exit status 2
+     */
+    static class UsageException extends Exception {
+        UsageException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Pattern plus the text and year it belongs to
+     */
+    private static class PatternSource {
+        final String text;
+        final int year;
+        final int[][] pattern;
+        
+        PatternSource(String text, int year, int[][] pattern) {
+            this.text = text;
+            this.year = year;
+            this.pattern = pattern;
+        }
+    }
+    
+    public static void main(String[] args) {
+        // Keep the headless path AWT-free unless a font was explicitly requested
+        if (System.getProperty(PatternGenerator.GLYPHS_PROPERTY) == null) {
+            System.setProperty(PatternGenerator.GLYPHS_PROPERTY, "bitmap");
+        }
+        Metrics.configure();
+        System.exit(new GitTimeTravelerCli().run(args));
+    }
+    
+    /**
+     * Run one command and return the process exit status
+     */
+    public int run(String[] args) {
+        List<String> positional = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                String key = args[i].substring(2);
+                boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+                options.put(key, hasValue ? args[++i] : "true");
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        
+        try {
+            if (positional.isEmpty()) {
+                throw new UsageException("No command given");
+            }
+            String command = positional.get(0);
+            List<String> arguments = positional.subList(1, positional.size());
+            System.out.println(execute(command, arguments, options));
+            return 0;
+        } catch (UsageException e) {
+            System.err.println(new Json().put("error", e.getMessage()).put("usage", USAGE));
+            return 2;
+        } catch (Exception e) {
+            System.err.println(new Json().put("error", String.valueOf(e.getMessage())));
+            return 1;
+        }
+    }
+    
+    private static GitService gitService() {
+        return ServiceFactory.getGitService();
+    }
+    
+    private static PatternService patternService() {
+        return ServiceFactory.getPatternService();
+    }
+    
+    private static FileService fileService() {
+        return ServiceFactory.getFileService();
+    }
+    
+    private Json execute(String command, List<String> arguments, Map<String, String> options) throws Exception {
+        switch (command) {
+            case "generate":
+                return generate(options);
+            case "save":
+                return save(requireArgument(arguments, "pattern name"), options);
+            case "load":
+                return load(requireArgument(arguments, "pattern name"));
+            case "list-patterns":
+                return listPatterns(options);
+            case "delete-pattern":
+                String name = requireArgument(arguments, "pattern name");
+                fileService().deletePattern(name);
+                return new Json().put("deleted", name);
+            case "similar":
+                return similar(options);
+            case "export":
+                return export(options);
+            case "commit":
+                return commit(options);
+            case "list-commits":
+                return listCommits(parseYear(requireArgument(arguments, "year")));
+            case "delete-commits":
+                return deleteCommits(parseYear(requireArgument(arguments, "year")), options);
+            case "help":
+                return new Json().put("usage", USAGE);
+            default:
+                throw new UsageException("Unknown command: " + command);
+        }
+    }
+    
+    private Json generate(Map<String, String> options) throws Exception {
+        String text = requireOption(options, "text");
+        int year = parseYear(requireOption(options, "year"));
+        
+        int[][] pattern;
+        if (options.containsKey("density") || options.containsKey("symmetry") || options.containsKey("continuity")) {
+            pattern = patternService().generateCustomPattern(text, year,
+                parseFraction(options.getOrDefault("density", "0.5"), "density"),
+                parseFraction(options.getOrDefault("symmetry", "0.5"), "symmetry"),
+                parseFraction(options.getOrDefault("continuity", "0.5"), "continuity"));
+        } else {
+            pattern = patternService().generateMLPattern(text, year);
+        }
+        
+        Json result = describe(new PatternSource(text, year, pattern));
+        if (options.containsKey("save")) {
+            fileService().savePattern(options.get("save"), text, year, pattern);
+            result.put("saved", options.get("save"));
+        }
+        return result;
+    }
+    
+    private Json save(String name, Map<String, String> options) throws Exception {
+        String text = requireOption(options, "text");
+        int year = parseYear(requireOption(options, "year"));
+        int[][] pattern = readPattern(requireOption(options, "pattern"));
+        fileService().savePattern(name, text, year, pattern);
+        return describe(new PatternSource(text, year, pattern)).put("saved", name);
+    }
+    
+    private Json load(String name) throws Exception {
+        FileService.SavedPattern saved = fileService().loadPattern(name);
+        if (saved == null) {
+            throw new IllegalArgumentException("Pattern not found: " + name);
+        }
+        return describe(new PatternSource(saved.text, saved.year, saved.pattern)).put("name", saved.name);
+    }
+    
+    private Json listPatterns(Map<String, String> options) throws Exception {
+        if (!options.containsKey("query") && !options.containsKey("offset") && !options.containsKey("limit")) {
+            return new Json().putStrings("patterns", Arrays.asList(fileService().getAvailablePatternNames()));
+        }
+        int offset = options.containsKey("offset") ? parseOffset(options.get("offset")) : 0;
+        int limit = parseLimit(options.getOrDefault("limit", "100"));
+        FileService.NamePage page = fileService().findPatternNames(options.getOrDefault("query", ""), offset, limit);
+        return new Json().put("total", page.total).put("offset", offset).putStrings("patterns", page.names);
+    }
+    
+    private Json similar(Map<String, String> options) throws Exception {
+        PatternSource source = resolvePattern(options);
+        int limit = parseLimit(options.getOrDefault("limit", "10"));
+        FileService.Distance distance;
+        try {
+            distance = FileService.Distance.valueOf(options.getOrDefault("distance", "l1").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Invalid --distance: " + options.get("distance"));
+        }
+        
+        List<Json> matches = new ArrayList<>();
+        for (FileService.PatternMatch match : fileService().findSimilarPatterns(source.pattern, limit, distance)) {
+            matches.add(new Json().put("name", match.name).put("distance", match.distance));
+        }
+        return new Json().put("distance", distance.name().toLowerCase()).putObjects("matches", matches);
+    }
+    
+    private Json export(Map<String, String> options) throws Exception {
+        PatternSource source = resolvePattern(options);
+        String commands = gitService().generateCommitCommands(source.pattern, source.year, source.text);
+        gitService().saveCommitCommandsToFile(commands, gitService().getGridStartDate(source.year));
+        
+        int commits = 0;
+        for (String line : commands.split("\n")) {
+            if (line.startsWith("git commit")) {
+                commits++;
+            }
+        }
+        return new Json()
+            .put("script", Paths.get("git_commands.bat").toAbsolutePath().toString())
+            .put("text", source.text)
+            .put("year", source.year)
+            .put("commits", commits);
+    }
+    
+    private Json commit(Map<String, String> options) throws Exception {
+        PatternSource source = resolvePattern(options);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> success = new AtomicReference<>();
+        AtomicReference<String> failure = new AtomicReference<>();
+        
+        gitService().createRealCommits(source.pattern, source.year, source.text,
+            (current, total, message) -> System.err.println(new Json()
+                .put("progress", current).put("total", total).put("message", message)),
+            new GitService.CompletionCallback() {
+                @Override
+                public void onSuccess(String message) {
+                    success.set(message);
+                    done.countDown();
+                }
+                
+                @Override
+                public void onError(String error) {
+                    failure.set(error);
+                    done.countDown();
+                }
+            });
+        done.await();
+        
+        if (failure.get() != null) {
+            throw new IllegalStateException(failure.get());
+        }
+        int created = 0;
+        for (String line : success.get().split("\n")) {
+            if (line.startsWith("Created commit for ")) {
+                created++;
+            }
+        }
+        return new Json().put("text", source.text).put("year", source.year).put("created", created);
+    }
+    
+    private Json listCommits(int year) throws Exception {
+        List<Json> commits = new ArrayList<>();
+        for (String line : gitService().getCommitsByYear(year).split("\n")) {
+            if (line.matches("^[0-9a-f]{7,} .*")) {
+                int space = line.indexOf(' ');
+                commits.add(new Json().put("hash", line.substring(0, space)).put("subject", line.substring(space + 1)));
+            }
+        }
+        return new Json().put("year", year).put("count", commits.size()).putObjects("commits", commits);
+    }
+    
+    private Json deleteCommits(int year, Map<String, String> options) throws Exception {
+        if (!options.containsKey("yes")) {
+            throw new UsageException("delete-commits rewrites history; pass --yes to confirm");
+        }
+        return new Json().put("year", year).put("deleted", gitService().deleteCommitsByYear(year));
+    }
+    
+    /**
+     * Pattern from --name, from --pattern FILE, or generated from --text and --year
+     */
+    private PatternSource resolvePattern(Map<String, String> options) throws Exception {
+        if (options.containsKey("name")) {
+            FileService.SavedPattern saved = fileService().loadPattern(options.get("name"));
+            if (saved == null) {
+                throw new IllegalArgumentException("Pattern not found: " + options.get("name"));
+            }
+            return new PatternSource(saved.text, saved.year, saved.pattern);
+        }
+        
+        String text = requireOption(options, "text");
+        int year = parseYear(requireOption(options, "year"));
+        if (options.containsKey("pattern")) {
+            return new PatternSource(text, year, readPattern(options.get("pattern")));
+        }
+        return new PatternSource(text, year, patternService().generateMLPattern(text, year));
+    }
+    
+    /**
+     * Read 7 lines of 53 intensity digits from a file, or from stdin for "-"
+     */
+    private static int[][] readPattern(String file) throws IOException, UsageException {
+        List<String> lines = new ArrayList<>();
+        if ("-".equals(file)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null && lines.size() < GRID_ROWS) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(line.trim());
+                }
+            }
+        } else {
+            for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(line.trim());
+                }
+            }
+        }
+        
+        if (lines.size() < GRID_ROWS) {
+            throw new UsageException("Pattern needs " + GRID_ROWS + " rows, found " + lines.size());
+        }
+        int[][] pattern = new int[GRID_ROWS][GRID_COLS];
+        for (int row = 0; row < GRID_ROWS; row++) {
+            String line = lines.get(row);
+            if (line.length() != GRID_COLS || !line.matches("[0-6]+")) {
+                throw new UsageException("Pattern row " + row + " must be " + GRID_COLS + " digits 0-6");
+            }
+            for (int col = 0; col < GRID_COLS; col++) {
+                pattern[row][col] = line.charAt(col) - '0';
+            }
+        }
+        return pattern;
+    }
+    
+    private Json describe(PatternSource source) {
+        List<String> rows = new ArrayList<>();
+        for (int[] row : source.pattern) {
+            StringBuilder digits = new StringBuilder(row.length);
+            for (int intensity : row) {
+                digits.append(intensity);
+            }
+            rows.add(digits.toString());
+        }
+        return new Json()
+            .put("text", source.text)
+            .put("year", source.year)
+            .put("activeCells", patternService().getActiveCellsCount(source.pattern))
+            .putStrings("pattern", rows);
+    }
+    
+    private static String requireArgument(List<String> arguments, String what) throws UsageException {
+        if (arguments.isEmpty()) {
+            throw new UsageException("Missing " + what);
+        }
+        return arguments.get(0);
+    }
+    
+    private static String requireOption(Map<String, String> options, String key) throws UsageException {
+        String value = options.get(key);
+        if (value == null || value.equals("true")) {
+            throw new UsageException("Missing --" + key);
+        }
+        return value;
+    }
+    
+    private static int parseYear(String value) throws UsageException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new UsageException("Invalid year: " + value);
+        }
+    }
+    
+    private static int parseLimit(String value) throws UsageException {
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit < 1) {
+                throw new UsageException("--limit must be at least 1");
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new UsageException("Invalid --limit: " + value);
+        }
+    }
+    
+    private static int parseOffset(String value) throws UsageException {
+        try {
+            int offset = Integer.parseInt(value);
+            if (offset < 0) {
+                throw new UsageException("--offset must not be negative");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new UsageException("Invalid --offset: " + value);
+        }
+    }
+    
+    private static double parseFraction(String value, String name) throws UsageException {
+        try {
+            double fraction = Double.parseDouble(value);
+            if (fraction < 0 || fraction > 1) {
+                throw new UsageException("--" + name + " must be between 0 and 1");
+            }
+            return fraction;
+        } catch (NumberFormatException e) {
+            throw new UsageException("Invalid --" + name + ": " + value);
+        }
+    }
+}
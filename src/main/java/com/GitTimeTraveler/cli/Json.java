@@ -0,0 +1,77 @@
+package com.GitTimeTraveler.cli;
+
+import java.util.List;
+
+/**
+ * Minimal ordered JSON object writer for command and API output
+ */
+public class Json {
+    
+    private final StringBuilder out = new StringBuilder("{");
+    
+    public Json put(String key, String value) {
+        key(key).append(quote(value));
+        return this;
+    }
+    
+    public Json put(String key, long value) {
+        key(key).append(value);
+        return this;
+    }
+    
+    public Json put(String key, double value) {
+        key(key).append(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+    
+    public Json putStrings(String key, List<String> values) {
+        key(key).append('[');
+        for (int i = 0; i < values.size(); i++) {
+            out.append(i > 0 ? "," : "").append(quote(values.get(i)));
+        }
+        out.append(']');
+        return this;
+    }
+    
+    public Json putObjects(String key, List<Json> values) {
+        key(key).append('[');
+        for (int i = 0; i < values.size(); i++) {
+            out.append(i > 0 ? "," : "").append(values.get(i));
+        }
+        out.append(']');
+        return this;
+    }
+    
+    private StringBuilder key(String key) {
+        if (out.length() > 1) {
+            out.append(',');
+        }
+        return out.append(quote(key)).append(':');
+    }
+    
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+    
+    @Override
+    public String toString() {
+        return out + "}";
+    }
+}
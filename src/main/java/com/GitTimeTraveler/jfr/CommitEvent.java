@@ -0,0 +1,46 @@
+package com.GitTimeTraveler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creation of one pattern commit: file write, git add and git commit
+ */
+@Name("com.GitTimeTraveler.Commit")
+@Label("Pattern Commit")
+@Category({"GitTimeTraveler", "Git"})
+@Description("One backdated commit created for a pattern cell")
+@StackTrace(false)
+public class CommitEvent extends Event {
+    
+    @Label("Repository")
+    String repository;
+    
+    @Label("Pattern Text")
+    String text;
+    
+    @Label("Year")
+    int year;
+    
+    @Label("Commit Date")
+    String date;
+    
+    @Label("Intensity")
+    int intensity;
+    
+    @Label("Commit Number")
+    int number;
+    
+    public CommitEvent(String repository, String text, int year, String date, int intensity, int number) {
+        this.repository = repository;
+        this.text = text;
+        this.year = year;
+        this.date = date;
+        this.intensity = intensity;
+        this.number = number;
+    }
+}
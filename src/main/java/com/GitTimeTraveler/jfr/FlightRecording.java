@@ -0,0 +1,22 @@
+package com.GitTimeTraveler.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Guard for creating the application's Flight Recorder events
+ *
+ * Loading the first event class starts Flight Recorder's machinery, which
+ * costs a few hundred milliseconds. Events are therefore only created once
+ * the JVM has initialized Flight Recorder itself (-XX:StartFlightRecording,
+ * jcmd JFR.start or the jdk.jfr API); until then the event classes are never
+ * loaded and callers pass null around instead.
+ */
+public final class FlightRecording {
+    
+    private FlightRecording() {
+    }
+    
+    public static boolean isActive() {
+        return FlightRecorder.isInitialized();
+    }
+}
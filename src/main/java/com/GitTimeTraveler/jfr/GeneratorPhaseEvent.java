@@ -0,0 +1,34 @@
+package com.GitTimeTraveler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of PatternGenerator.generatePattern
+ */
+@Name("com.GitTimeTraveler.GeneratorPhase")
+@Label("Generator Phase")
+@Category({"GitTimeTraveler", "Generator"})
+@Description("One phase of generating a pattern from text")
+@StackTrace(false)
+public class GeneratorPhaseEvent extends Event {
+    
+    @Label("Phase")
+    String phase;
+    
+    @Label("Pattern Text")
+    String text;
+    
+    @Label("Year")
+    int year;
+    
+    public GeneratorPhaseEvent(String phase, String text, int year) {
+        this.phase = phase;
+        this.text = text;
+        this.year = year;
+    }
+}
@@ -0,0 +1,43 @@
+package com.GitTimeTraveler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One git invocation, from start until its exit was seen
+ */
+@Name("com.GitTimeTraveler.GitProcess")
+@Label("Git Process")
+@Category({"GitTimeTraveler", "Git"})
+@Description("A git child process, from start until the application saw it exit")
+public class GitProcessEvent extends Event {
+    
+    @Label("Subcommand")
+    String subcommand;
+    
+    @Label("Command Line")
+    String commandLine;
+    
+    @Label("Repository")
+    String repository;
+    
+    @Label("Exit Code")
+    int exitCode;
+    
+    public GitProcessEvent(String subcommand, String commandLine, String repository) {
+        this.subcommand = subcommand;
+        this.commandLine = commandLine;
+        this.repository = repository;
+    }
+    
+    /**
+     * Record the exit code and commit the event
+     */
+    public void end(int exitCode) {
+        this.exitCode = exitCode;
+        commit();
+    }
+}
@@ -0,0 +1,45 @@
+package com.GitTimeTraveler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Loading or saving the pattern library file
+ */
+@Name("com.GitTimeTraveler.PatternStore")
+@Label("Pattern Store")
+@Category({"GitTimeTraveler", "Storage"})
+@Description("A full read or write of the saved patterns file")
+public class PatternStoreEvent extends Event {
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("File")
+    String file;
+    
+    @Label("Patterns")
+    int patterns;
+    
+    @Label("Size")
+    @DataAmount
+    long bytes;
+    
+    public PatternStoreEvent(String operation, String file) {
+        this.operation = operation;
+        this.file = file;
+    }
+    
+    /**
+     * Record how many patterns and bytes were transferred and commit the event
+     */
+    public void end(int patterns, long bytes) {
+        this.patterns = patterns;
+        this.bytes = bytes;
+        commit();
+    }
+}
@@ -0,0 +1,85 @@
+package com.GitTimeTraveler.jobs;
+
+import java.nio.file.Path;
+
+/**
+ * One request to commit a pattern into a repository, and its progress
+ */
+public class CommitJob {
+    
+    /**
+     * Lifecycle of a job; a RUNNING job interrupted by a shutdown is QUEUED again on restart
+     */
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+    
+    final long id;
+    final int priority;
+    final Path repository;
+    final String text;
+    final int year;
+    final int[][] pattern;
+    
+    volatile State state = State.QUEUED;
+    volatile int current;
+    volatile int total;
+    volatile String message = "";
+    
+    CommitJob(long id, int priority, Path repository, String text, int year, int[][] pattern) {
+        this.id = id;
+        this.priority = priority;
+        this.repository = repository;
+        this.text = text;
+        this.year = year;
+        this.pattern = pattern;
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    /**
+     * Higher runs first; jobs of equal priority run in submission order
+     */
+    public int getPriority() {
+        return priority;
+    }
+    
+    public Path getRepository() {
+        return repository;
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public int getYear() {
+        return year;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    /**
+     * Commits created so far
+     */
+    public int getCurrent() {
+        return current;
+    }
+    
+    /**
+     * Commits to create; 0 until the plan is known
+     */
+    public int getTotal() {
+        return total;
+    }
+    
+    /**
+     * Latest progress message, or the result once finished
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,498 @@
+package com.GitTimeTraveler.jobs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import com.GitTimeTraveler.service.GitService;
+
+/**
+ * Durable, prioritized queue of commit jobs
+ *
+ * Every submission, start and completion is appended to a log file and forced
+ * to disk before it takes effect, so queued jobs survive a crash or restart.
+ * On startup the log is replayed: every job without a completion record is
+ * queued again (commits are planned against the history already in the
+ * repository, so a job interrupted half way only creates the rest), and the
+ * log is compacted down to those jobs, after a record of the highest id ever
+ * issued so ids are never reused across restarts.
+ *
+ * Workers take the highest-priority job whose repository is free. Each
+ * repository maps onto one of a fixed set of striped locks that is held for
+ * the whole job, so two jobs on one repository never overlap (they would race
+ * on .git/index.lock and contribution_pattern.txt) while jobs on different
+ * repositories run in parallel. Repositories that share a stripe are
+ * serialized too, which is safe and rare with 64 stripes.
+ */
+public class CommitJobQueue {
+    
+    private static final int STRIPES = 64;
+    private static final int FINISHED_KEPT = 1000;
+    private static final int PATTERN_ROWS = 7;
+    private static final int PATTERN_COLS = 53;
+    
+    private static final Comparator<CommitJob> ORDER = Comparator
+        .comparingInt((CommitJob job) -> -job.priority)
+        .thenComparingLong(job -> job.id);
+    
+    /**
+     * Queue depth, running jobs and recent throughput
+     */
+    public static class Status {
+        public final int queued;
+        public final List<CommitJob> running;
+        public final long succeeded;
+        public final long failed;
+        public final double commitsPerSecond;   // over the last minute
+        public final double jobsPerMinute;      // over the last five minutes
+        
+        Status(int queued, List<CommitJob> running, long succeeded, long failed,
+               double commitsPerSecond, double jobsPerMinute) {
+            this.queued = queued;
+            this.running = running;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.commitsPerSecond = commitsPerSecond;
+            this.jobsPerMinute = jobsPerMinute;
+        }
+    }
+    
+    /**
+     * Event counts in one-second buckets over a sliding window
+     */
+    private static class RateWindow {
+        private final long[] counts;
+        private final long[] seconds;
+        private final long createdMillis = System.currentTimeMillis();
+        
+        RateWindow(int windowSeconds) {
+            counts = new long[windowSeconds];
+            seconds = new long[windowSeconds];
+        }
+        
+        synchronized void add(long count) {
+            long second = System.currentTimeMillis() / 1000;
+            int slot = (int) (second % counts.length);
+            if (seconds[slot] != second) {
+                seconds[slot] = second;
+                counts[slot] = 0;
+            }
+            counts[slot] += count;
+        }
+        
+        /**
+         * Events per second over the window, or over the lifetime if that is shorter
+         */
+        synchronized double perSecond() {
+            long now = System.currentTimeMillis();
+            long second = now / 1000;
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (second - seconds[i] < counts.length) {
+                    total += counts[i];
+                }
+            }
+            double span = Math.min(counts.length, Math.max(1, (now - createdMillis) / 1000.0));
+            return total / span;
+        }
+    }
+    
+    private final Function<Path, GitService> gitServices;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<Long, CommitJob> jobs = new ConcurrentHashMap<>();
+    private final Set<CommitJob> running = ConcurrentHashMap.newKeySet();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final RateWindow commitRate = new RateWindow(60);
+    private final RateWindow jobRate = new RateWindow(300);
+    private final List<Thread> workers = new ArrayList<>();
+    
+    // Guarded by this
+    private final TreeSet<CommitJob> pending = new TreeSet<>(ORDER);
+    private final ArrayDeque<Long> finished = new ArrayDeque<>();
+    private long nextId = 1;
+    private boolean stopped;
+    
+    private final Object logLock = new Object();
+    private final FileChannel log;
+    
+    /**
+     * Open or create the job log, queue the jobs it left unfinished and start the workers
+     *
+     * @param gitServices git service for a repository directory
+     */
+    public CommitJobQueue(Path logFile, int workerCount, Function<Path, GitService> gitServices) throws IOException {
+        this.gitServices = gitServices;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        
+        List<CommitJob> recovered = recover(logFile);
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        for (CommitJob job : recovered) {
+            jobs.put(job.id, job);
+            pending.add(job);
+        }
+        
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "gitt-commit-job-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+    
+    /**
+     * Queue a job; it is on disk when this returns
+     */
+    public CommitJob submit(Path repository, String text, int year, int[][] pattern, int priority) throws IOException {
+        Path directory = canonical(repository);
+        CommitJob job;
+        synchronized (this) {
+            if (stopped) {
+                throw new IllegalStateException("Job queue is shut down");
+            }
+            job = new CommitJob(nextId++, priority, directory, text, year, copy(pattern));
+        }
+        
+        append(submitRecord(job));
+        jobs.put(job.id, job);
+        synchronized (this) {
+            pending.add(job);
+            notifyAll();
+        }
+        return job;
+    }
+    
+    /**
+     * Job by id; finished jobs are forgotten after the next FINISHED_KEPT jobs finish
+     */
+    public CommitJob getJob(long id) {
+        return jobs.get(id);
+    }
+    
+    /**
+     * All known jobs in submission order
+     */
+    public List<CommitJob> getJobs() {
+        List<CommitJob> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparingLong(CommitJob::getId));
+        return all;
+    }
+    
+    public Status getStatus() {
+        int queued;
+        synchronized (this) {
+            queued = pending.size();
+        }
+        List<CommitJob> active = new ArrayList<>(running);
+        active.sort(Comparator.comparingLong(CommitJob::getId));
+        return new Status(queued, active, succeeded.get(), failed.get(),
+            commitRate.perSecond(), jobRate.perSecond() * 60);
+    }
+    
+    /**
+     * Stop the workers; running jobs are interrupted and resume from the log on the next start
+     */
+    public void shutdown() throws InterruptedException {
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(5000);
+        }
+        synchronized (logLock) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.err.println("Error closing job log: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void work() {
+        while (true) {
+            CommitJob job;
+            synchronized (this) {
+                while (true) {
+                    if (stopped) {
+                        return;
+                    }
+                    job = nextRunnable();
+                    if (job != null) {
+                        break;
+                    }
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            
+            ReentrantLock stripe = stripeOf(job.repository);
+            try {
+                run(job);
+            } finally {
+                stripe.unlock();
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Highest-priority pending job whose stripe this thread could lock; the lock stays held
+     */
+    private CommitJob nextRunnable() {
+        for (Iterator<CommitJob> it = pending.iterator(); it.hasNext(); ) {
+            CommitJob job = it.next();
+            if (stripeOf(job.repository).tryLock()) {
+                it.remove();
+                return job;
+            }
+        }
+        return null;
+    }
+    
+    private void run(CommitJob job) {
+        running.add(job);
+        job.state = CommitJob.State.RUNNING;
+        job.message = "Starting...";
+        appendQuietly(record("R", job.id));
+        
+        int[] lastCommit = new int[1];
+        try {
+            int created = gitServices.apply(job.repository).commitPattern(job.pattern, job.year, job.text,
+                (current, total, message) -> {
+                    if (current > lastCommit[0]) {
+                        commitRate.add(current - lastCommit[0]);
+                        lastCommit[0] = current;
+                    }
+                    job.current = current;
+                    job.total = total;
+                    job.message = message;
+                },
+                line -> { });
+            job.message = "Created " + created + " commits";
+            job.state = CommitJob.State.SUCCEEDED;
+            succeeded.incrementAndGet();
+            appendQuietly(record("D", job.id, job.message));
+        } catch (Exception e) {
+            if (isStopped()) {
+                // No completion record: the job runs again after a restart
+                job.state = CommitJob.State.QUEUED;
+                job.message = "Interrupted by shutdown";
+                return;
+            }
+            job.message = "Error creating commits: " + e.getMessage();
+            job.state = CommitJob.State.FAILED;
+            failed.incrementAndGet();
+            appendQuietly(record("F", job.id, job.message));
+        } finally {
+            running.remove(job);
+        }
+        
+        jobRate.add(1);
+        synchronized (this) {
+            finished.add(job.id);
+            while (finished.size() > FINISHED_KEPT) {
+                jobs.remove(finished.poll());
+            }
+        }
+    }
+    
+    private synchronized boolean isStopped() {
+        return stopped;
+    }
+    
+    private ReentrantLock stripeOf(Path repository) {
+        return stripes[Math.floorMod(repository.hashCode(), STRIPES)];
+    }
+    
+    /**
+     * One path per repository, so that every spelling of it maps to the same stripe
+     */
+    private static Path canonical(Path repository) {
+        try {
+            return repository.toRealPath();
+        } catch (IOException e) {
+            return repository.toAbsolutePath().normalize();
+        }
+    }
+    
+    // --- Log ---
+    //
+    // One tab-separated record per line:
+    //   S id priority year repository pattern text   submitted (pattern: 371 digits, row by row)
+    //   R id                                         started
+    //   D id message                                 succeeded
+    //   F id message                                 failed
+    
+    /**
+     * Replay the log, then rewrite it with only the unfinished jobs
+     */
+    private List<CommitJob> recover(Path logFile) throws IOException {
+        Map<Long, CommitJob> unfinished = new LinkedHashMap<>();
+        long maxId = 0;
+        if (Files.exists(logFile)) {
+            for (String line : Files.readAllLines(logFile, StandardCharsets.UTF_8)) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    String[] fields = split(line);
+                    long id = Long.parseLong(fields[1]);
+                    maxId = Math.max(maxId, id);
+                    switch (fields[0]) {
+                        case "S":
+                            unfinished.put(id, new CommitJob(id, Integer.parseInt(fields[2]), Paths.get(fields[4]),
+                                fields[6], Integer.parseInt(fields[3]), decodePattern(fields[5])));
+                            break;
+                        case "D":
+                        case "F":
+                            unfinished.remove(id);
+                            break;
+                        case "N":
+                            // Highest id issued before the last compaction
+                            break;
+                        default:
+                            // Started but never finished: still to do
+                    }
+                } catch (RuntimeException e) {
+                    // Typically a record torn by a crash while it was written
+                    System.err.println("Skipping damaged job log record: " + line);
+                }
+            }
+        }
+        nextId = maxId + 1;
+        
+        List<String> records = new ArrayList<>();
+        records.add(record("N", maxId));
+        for (CommitJob job : unfinished.values()) {
+            records.add(submitRecord(job));
+        }
+        Path compacted = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        Files.write(compacted, records, StandardCharsets.UTF_8);
+        Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new ArrayList<>(unfinished.values());
+    }
+    
+    private void append(String record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (logLock) {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        }
+    }
+    
+    private void appendQuietly(String record) {
+        if (isStopped()) {
+            return;
+        }
+        try {
+            append(record);
+        } catch (IOException e) {
+            System.err.println("Error writing job log: " + e.getMessage());
+        }
+    }
+    
+    private static String submitRecord(CommitJob job) {
+        return record("S", job.id, job.priority, job.year, job.repository.toString(), encodePattern(job.pattern), job.text);
+    }
+    
+    private static String record(Object... fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            String field = String.valueOf(fields[i]);
+            for (int j = 0; j < field.length(); j++) {
+                char c = field.charAt(j);
+                switch (c) {
+                    case '\\': line.append("\\\\"); break;
+                    case '\t': line.append("\\t"); break;
+                    case '\n': line.append("\\n"); break;
+                    case '\r': line.append("\\r"); break;
+                    default: line.append(c);
+                }
+            }
+        }
+        return line.toString();
+    }
+    
+    private static String[] split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                field.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+    
+    private static String encodePattern(int[][] pattern) {
+        StringBuilder digits = new StringBuilder(PATTERN_ROWS * PATTERN_COLS);
+        for (int[] row : pattern) {
+            for (int intensity : row) {
+                digits.append(intensity);
+            }
+        }
+        return digits.toString();
+    }
+    
+    private static int[][] decodePattern(String digits) {
+        if (digits.length() != PATTERN_ROWS * PATTERN_COLS) {
+            throw new IllegalArgumentException("Bad pattern length " + digits.length());
+        }
+        int[][] pattern = new int[PATTERN_ROWS][PATTERN_COLS];
+        for (int i = 0; i < digits.length(); i++) {
+            pattern[i / PATTERN_COLS][i % PATTERN_COLS] = digits.charAt(i) - '0';
+        }
+        return pattern;
+    }
+    
+    private static int[][] copy(int[][] pattern) {
+        int[][] copy = new int[PATTERN_ROWS][];
+        for (int row = 0; row < PATTERN_ROWS; row++) {
+            copy[row] = pattern[row].clone();
+        }
+        return copy;
+    }
+}
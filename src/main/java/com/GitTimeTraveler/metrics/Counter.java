@@ -0,0 +1,37 @@
+package com.GitTimeTraveler.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free monotonic counter
+ */
+public class Counter implements CounterMBean {
+    
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    
+    // Count and time at the previous text snapshot, for the rate it reports
+    long snapshotCount;
+    long snapshotNanos = System.nanoTime();
+    
+    Counter(String name) {
+        this.name = name;
+    }
+    
+    public void increment() {
+        count.increment();
+    }
+    
+    public void add(long amount) {
+        count.add(amount);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,9 @@
+package com.GitTimeTraveler.metrics;
+
+/**
+ * JMX view of a Counter
+ */
+public interface CounterMBean {
+    
+    long getCount();
+}
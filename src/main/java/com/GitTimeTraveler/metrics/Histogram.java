@@ -0,0 +1,144 @@
+package com.GitTimeTraveler.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with HDR-style buckets
+ *
+ * Values below 32 get a bucket each; above that every power of two is split
+ * into 32 linear sub-buckets, so any recorded value is reported within about
+ * 3% over the whole long range with a fixed 1920-slot array. Recording is a
+ * few atomic increments and never blocks or allocates.
+ */
+public class Histogram implements HistogramMBean {
+    
+    /**
+     * What the recorded values measure; only affects formatting
+     */
+    public enum Unit {
+        NANOSECONDS, BYTES
+    }
+    
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+    
+    private final String name;
+    private final Unit unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    
+    Histogram(String name, Unit unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+    
+    /**
+     * Record one value; negative values count as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public String getUnit() {
+        return unit.name();
+    }
+    
+    Unit unit() {
+        return unit;
+    }
+    
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+    
+    @Override
+    public long getTotal() {
+        return sum.sum();
+    }
+    
+    @Override
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+    
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+    
+    @Override
+    public long get50thPercentile() {
+        return percentile(0.5);
+    }
+    
+    @Override
+    public long get90thPercentile() {
+        return percentile(0.9);
+    }
+    
+    @Override
+    public long get99thPercentile() {
+        return percentile(0.99);
+    }
+    
+    /**
+     * Value at the given fraction (0-1) of the recorded values, to bucket precision
+     */
+    public long percentile(double fraction) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(midpoint(i), max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    private static int bucket(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_COUNT;
+        return (shift + 1) * SUB_COUNT + sub;
+    }
+    
+    private static long midpoint(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long lower = (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+}
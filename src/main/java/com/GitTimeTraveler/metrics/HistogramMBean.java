@@ -0,0 +1,23 @@
+package com.GitTimeTraveler.metrics;
+
+/**
+ * JMX view of a Histogram
+ */
+public interface HistogramMBean {
+    
+    String getUnit();
+    
+    long getCount();
+    
+    long getTotal();
+    
+    double getMean();
+    
+    long getMax();
+    
+    long get50thPercentile();
+    
+    long get90thPercentile();
+    
+    long get99thPercentile();
+}
@@ -0,0 +1,165 @@
+package com.GitTimeTraveler.metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide metrics registry
+ *
+ * Counters, histograms and timers are created on first use by name and live
+ * for the life of the JVM; hot paths should keep the returned instance in a
+ * static field. The registry can be read in two ways:
+ *   - -Dgitt.metrics.jmx=true registers every metric as an MBean under
+ *     com.GitTimeTraveler:type=Counter|Histogram,name=..., for JConsole or
+ *     Mission Control;
+ *   - -Dgitt.metrics.interval=N prints a text snapshot to stderr every N
+ *     seconds and once more at exit.
+ * Both are off by default, so recording costs only the atomic updates.
+ */
+public final class Metrics {
+    
+    public static final String JMX_PROPERTY = "gitt.metrics.jmx";
+    public static final String INTERVAL_PROPERTY = "gitt.metrics.interval";
+    
+    private static final String DOMAIN = "com.GitTimeTraveler";
+    
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    
+    private static volatile boolean jmxEnabled;
+    private static volatile boolean allocationTracking;
+    private static ScheduledExecutorService reporter;
+    
+    private Metrics() {
+    }
+    
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> register(new Counter(key), "Counter", key));
+    }
+    
+    public static Histogram histogram(String name, Histogram.Unit unit) {
+        return HISTOGRAMS.computeIfAbsent(name, key -> register(new Histogram(key, unit), "Histogram", key));
+    }
+    
+    /**
+     * Timer recording into the histograms name (nanoseconds) and name.alloc (bytes)
+     */
+    public static Timer timer(String name) {
+        return new Timer(histogram(name, Histogram.Unit.NANOSECONDS), histogram(name + ".alloc", Histogram.Unit.BYTES));
+    }
+    
+    /**
+     * Whether timers also record allocated bytes; on once metrics are exported
+     */
+    static boolean tracksAllocation() {
+        return allocationTracking;
+    }
+    
+    /**
+     * Apply the gitt.metrics.* system properties; call once from main
+     */
+    public static void configure() {
+        if (Boolean.getBoolean(JMX_PROPERTY)) {
+            enableJmx();
+        }
+        long interval = Long.getLong(INTERVAL_PROPERTY, 0);
+        if (interval > 0) {
+            startReporter(interval, System.err);
+        }
+    }
+    
+    /**
+     * Register all current and future metrics with the platform MBean server
+     */
+    public static synchronized void enableJmx() {
+        if (jmxEnabled) {
+            return;
+        }
+        jmxEnabled = true;
+        allocationTracking = true;
+        COUNTERS.forEach((name, counter) -> register(counter, "Counter", name));
+        HISTOGRAMS.forEach((name, histogram) -> register(histogram, "Histogram", name));
+    }
+    
+    /**
+     * Print a snapshot every period seconds and when the JVM exits
+     */
+    public static synchronized void startReporter(long period, PrintStream out) {
+        if (reporter != null) {
+            return;
+        }
+        allocationTracking = true;
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gitt-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> out.print(snapshot()), period, period, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> out.print(snapshot())));
+    }
+    
+    /**
+     * Text snapshot of every metric, sorted by name; counter rates are since the previous snapshot
+     */
+    public static synchronized String snapshot() {
+        StringBuilder out = new StringBuilder("--- gitt metrics ---\n");
+        long now = System.nanoTime();
+        for (Counter counter : new TreeMap<>(COUNTERS).values()) {
+            long count = counter.getCount();
+            double seconds = (now - counter.snapshotNanos) / 1e9;
+            double rate = seconds > 0 ? (count - counter.snapshotCount) / seconds : 0;
+            counter.snapshotCount = count;
+            counter.snapshotNanos = now;
+            out.append(String.format("%-32s %12d   %10.1f/s%n", counter.getName(), count, rate));
+        }
+        for (Histogram histogram : new TreeMap<>(HISTOGRAMS).values()) {
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            Histogram.Unit unit = histogram.unit();
+            out.append(String.format("%-32s %12d   mean %s   p50 %s   p99 %s   max %s%n",
+                histogram.getName(), histogram.getCount(),
+                format((long) histogram.getMean(), unit), format(histogram.get50thPercentile(), unit),
+                format(histogram.get99thPercentile(), unit), format(histogram.getMax(), unit)));
+        }
+        return out.toString();
+    }
+    
+    private static String format(long value, Histogram.Unit unit) {
+        if (unit == Histogram.Unit.NANOSECONDS) {
+            return String.format("%9.3f ms", value / 1e6);
+        }
+        if (value < 1024) {
+            return String.format("%8d B ", value);
+        }
+        if (value < 1024 * 1024) {
+            return String.format("%8.1f KiB", value / 1024.0);
+        }
+        return String.format("%8.1f MiB", value / (1024.0 * 1024.0));
+    }
+    
+    private static <T> T register(T metric, String type, String name) {
+        if (!jmxEnabled) {
+            return metric;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(metric, new ObjectName(DOMAIN + ":type=" + type + ",name=" + name));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered concurrently by enableJmx()
+        } catch (Exception e) {
+            System.err.println("Error registering metric " + name + ": " + e.getMessage());
+        }
+        return metric;
+    }
+}
@@ -0,0 +1,71 @@
+package com.GitTimeTraveler.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Times an operation and the bytes the calling thread allocates during it
+ *
+ * A timer named "x" records durations into the histogram "x" and allocated
+ * bytes into "x.alloc". Allocation is read from the JVM's per-thread counter,
+ * so work handed to other threads is not included. It is only measured once
+ * metrics are exported (JMX or the reporter), because reading it pulls in the
+ * JVM's management classes.
+ */
+public class Timer {
+    
+    private final Histogram time;
+    private final Histogram allocated;
+    
+    Timer(Histogram time, Histogram allocated) {
+        this.time = time;
+        this.allocated = allocated;
+    }
+    
+    /**
+     * Start timing on the current thread; finish with Sample.stop() on the same thread
+     */
+    public Sample start() {
+        return new Sample();
+    }
+    
+    /**
+     * One running measurement
+     */
+    public class Sample {
+        private final long startBytes = Metrics.tracksAllocation() ? Allocation.currentThreadBytes() : -1;
+        private final long startNanos = System.nanoTime();
+        
+        /**
+         * Record the elapsed time and allocation; returns the elapsed nanoseconds
+         */
+        public long stop() {
+            long elapsed = System.nanoTime() - startNanos;
+            time.record(elapsed);
+            if (startBytes >= 0) {
+                allocated.record(Allocation.currentThreadBytes() - startBytes);
+            }
+            return elapsed;
+        }
+    }
+    
+    /**
+     * Per-thread allocation counter of HotSpot-style JVMs; loaded on first use
+     */
+    private static class Allocation {
+        private static final com.sun.management.ThreadMXBean THREADS = threads();
+        
+        static long currentThreadBytes() {
+            return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+        }
+        
+        private static com.sun.management.ThreadMXBean threads() {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+            return null;
+        }
+    }
+}
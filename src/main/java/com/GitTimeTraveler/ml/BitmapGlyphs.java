@@ -0,0 +1,134 @@
+package com.GitTimeTraveler.ml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Built-in 5x7 bitmap font that needs no AWT
+ *
+ * Used instead of GlyphRasterizer when the gitt.glyphs system property is
+ * "bitmap" (the CLI default), so headless runs never load java.awt. Covers
+ * A-Z, 0-9 and common punctuation; lower case maps to upper case and
+ * anything else renders as '?'. Blank columns are trimmed, so glyphs are
+ * proportional like the rasterized ones.
+ */
+public class BitmapGlyphs implements GlyphSource {
+    
+    private static final int SPACE_WIDTH = 2;
+    private static final BitmapGlyphs INSTANCE = new BitmapGlyphs();
+    
+    private final Map<Character, Glyph> glyphs = new HashMap<>();
+    private final Glyph space = new Glyph(SPACE_WIDTH, new int[Glyph.ROWS][SPACE_WIDTH]);
+    
+    private BitmapGlyphs() {
+        define('A', ".###.", "#...#", "#...#", "#####", "#...#", "#...#", "#...#");
+        define('B', "####.", "#...#", "#...#", "####.", "#...#", "#...#", "####.");
+        define('C', ".###.", "#...#", "#....", "#....", "#....", "#...#", ".###.");
+        define('D', "####.", "#...#", "#...#", "#...#", "#...#", "#...#", "####.");
+        define('E', "#####", "#....", "#....", "####.", "#....", "#....", "#####");
+        define('F', "#####", "#....", "#....", "####.", "#....", "#....", "#....");
+        define('G', ".###.", "#...#", "#....", "#.###", "#...#", "#...#", ".####");
+        define('H', "#...#", "#...#", "#...#", "#####", "#...#", "#...#", "#...#");
+        define('I', "###", ".#.", ".#.", ".#.", ".#.", ".#.", "###");
+        define('J', "..###", "...#.", "...#.", "...#.", "...#.", "#..#.", ".##..");
+        define('K', "#...#", "#..#.", "#.#..", "##...", "#.#..", "#..#.", "#...#");
+        define('L', "#....", "#....", "#....", "#....", "#....", "#....", "#####");
+        define('M', "#...#", "##.##", "#.#.#", "#.#.#", "#...#", "#...#", "#...#");
+        define('N', "#...#", "#...#", "##..#", "#.#.#", "#..##", "#...#", "#...#");
+        define('O', ".###.", "#...#", "#...#", "#...#", "#...#", "#...#", ".###.");
+        define('P', "####.", "#...#", "#...#", "####.", "#....", "#....", "#....");
+        define('Q', ".###.", "#...#", "#...#", "#...#", "#.#.#", "#..#.", ".##.#");
+        define('R', "####.", "#...#", "#...#", "####.", "#.#..", "#..#.", "#...#");
+        define('S', ".####", "#....", "#....", ".###.", "....#", "....#", "####.");
+        define('T', "#####", "..#..", "..#..", "..#..", "..#..", "..#..", "..#..");
+        define('U', "#...#", "#...#", "#...#", "#...#", "#...#", "#...#", ".###.");
+        define('V', "#...#", "#...#", "#...#", "#...#", "#...#", ".#.#.", "..#..");
+        define('W', "#...#", "#...#", "#...#", "#.#.#", "#.#.#", "#.#.#", ".#.#.");
+        define('X', "#...#", "#...#", ".#.#.", "..#..", ".#.#.", "#...#", "#...#");
+        define('Y', "#...#", "#...#", ".#.#.", "..#..", "..#..", "..#..", "..#..");
+        define('Z', "#####", "....#", "...#.", "..#..", ".#...", "#....", "#####");
+        
+        define('0', ".###.", "#...#", "#..##", "#.#.#", "##..#", "#...#", ".###.");
+        define('1', ".#.", "##.", ".#.", ".#.", ".#.", ".#.", "###");
+        define('2', ".###.", "#...#", "....#", "...#.", "..#..", ".#...", "#####");
+        define('3', "#####", "...#.", "..#..", "...#.", "....#", "#...#", ".###.");
+        define('4', "...#.", "..##.", ".#.#.", "#..#.", "#####", "...#.", "...#.");
+        define('5', "#####", "#....", "####.", "....#", "....#", "#...#", ".###.");
+        define('6', "..##.", ".#...", "#....", "####.", "#...#", "#...#", ".###.");
+        define('7', "#####", "....#", "...#.", "..#..", ".#...", ".#...", ".#...");
+        define('8', ".###.", "#...#", "#...#", ".###.", "#...#", "#...#", ".###.");
+        define('9', ".###.", "#...#", "#...#", ".####", "....#", "...#.", ".##..");
+        
+        define('!', "#", "#", "#", "#", "#", ".", "#");
+        define('?', ".###.", "#...#", "....#", "...#.", "..#..", ".....", "..#..");
+        define('.', ".", ".", ".", ".", ".", ".", "#");
+        define(',', "..", "..", "..", "..", "..", ".#", "#.");
+        define(':', ".", "#", ".", ".", ".", "#", ".");
+        define(';', "..", ".#", "..", "..", "..", ".#", "#.");
+        define('\'', "#", "#", ".", ".", ".", ".", ".");
+        define('"', "#.#", "#.#", "...", "...", "...", "...", "...");
+        define('-', "...", "...", "...", "###", "...", "...", "...");
+        define('+', ".....", "..#..", "..#..", "#####", "..#..", "..#..", ".....");
+        define('=', "...", "...", "###", "...", "###", "...", "...");
+        define('_', ".....", ".....", ".....", ".....", ".....", ".....", "#####");
+        define('/', "....#", "....#", "...#.", "..#..", ".#...", "#....", "#....");
+        define('(', ".#", "#.", "#.", "#.", "#.", "#.", ".#");
+        define(')', "#.", ".#", ".#", ".#", ".#", ".#", "#.");
+        define('<', "...#", "..#.", ".#..", "#...", ".#..", "..#.", "...#");
+        define('>', "#...", ".#..", "..#.", "...#", "..#.", ".#..", "#...");
+        define('#', ".#.#.", ".#.#.", "#####", ".#.#.", "#####", ".#.#.", ".#.#.");
+        define('*', ".....", "#.#.#", ".###.", "#####", ".###.", "#.#.#", ".....");
+        define('&', ".##..", "#..#.", "#.#..", ".#...", "#.#.#", "#..#.", ".##.#");
+        define('@', ".###.", "#...#", "#.###", "#.#.#", "#.###", "#....", ".###.");
+        define('%', "##..#", "##..#", "...#.", "..#..", ".#...", "#..##", "#..##");
+        define('♥', ".....", ".#.#.", "#####", "#####", ".###.", "..#..", ".....");
+    }
+    
+    public static BitmapGlyphs getInstance() {
+        return INSTANCE;
+    }
+    
+    @Override
+    public Glyph glyph(int codePoint) {
+        if (Character.isWhitespace(codePoint)) {
+            return space;
+        }
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            Glyph glyph = glyphs.get(Character.toUpperCase((char) codePoint));
+            if (glyph != null) {
+                return glyph;
+            }
+        }
+        return glyphs.get('?');
+    }
+    
+    /**
+     * Define a character from 7 rows of '#' (full intensity) and '.' (empty),
+     * trimming blank columns on both sides
+     */
+    private void define(char c, String... rows) {
+        int width = rows[0].length();
+        int first = width, last = -1;
+        for (String row : rows) {
+            for (int col = 0; col < width; col++) {
+                if (row.charAt(col) == '#') {
+                    first = Math.min(first, col);
+                    last = Math.max(last, col);
+                }
+            }
+        }
+        if (last < 0) {
+            glyphs.put(c, space);
+            return;
+        }
+        
+        int trimmed = last - first + 1;
+        int[][] levels = new int[Glyph.ROWS][trimmed];
+        for (int row = 0; row < Glyph.ROWS; row++) {
+            for (int col = 0; col < trimmed; col++) {
+                levels[row][col] = rows[row].charAt(first + col) == '#' ? 6 : 0;
+            }
+        }
+        glyphs.put(c, new Glyph(trimmed, levels));
+    }
+}
@@ -0,0 +1,51 @@
+package com.GitTimeTraveler.ml;
+
+/**
+ * A character as a 7-row glyph: intensity per cell packed into three bitplanes
+ */
+public final class Glyph {
+    
+    public static final int ROWS = 7;
+    public static final int MAX_WIDTH = 9;          // 9 columns x 7 rows fit in one long per bitplane
+    
+    private final int width;
+    private final long plane0;
+    private final long plane1;
+    private final long plane2;
+    
+    Glyph(int width, int[][] levels) {
+        long p0 = 0, p1 = 0, p2 = 0;
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < ROWS; row++) {
+                int level = levels[row][col];
+                long bit = 1L << (col * ROWS + row);
+                if ((level & 1) != 0) p0 |= bit;
+                if ((level & 2) != 0) p1 |= bit;
+                if ((level & 4) != 0) p2 |= bit;
+            }
+        }
+        this.width = width;
+        this.plane0 = p0;
+        this.plane1 = p1;
+        this.plane2 = p2;
+    }
+    
+    /**
+     * Width in weeks
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * Intensity level (0-6) of a cell
+     */
+    public int level(int row, int col) {
+        int shift = col * ROWS + row;
+        return (int) (((plane0 >>> shift) & 1) | (((plane1 >>> shift) & 1) << 1) | (((plane2 >>> shift) & 1) << 2));
+    }
+    
+    public boolean isBlank() {
+        return (plane0 | plane1 | plane2) == 0;
+    }
+}
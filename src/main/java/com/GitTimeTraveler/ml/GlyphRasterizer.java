@@ -0,0 +1,189 @@
+package com.GitTimeTraveler.ml;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rasterizes characters from a TrueType font into 7-row contribution glyphs
+ *
+ * Each character is drawn through Java2D at 4x supersampling with anti-aliasing,
+ * area-averaged down to the 7-row grid and quantized to intensity levels 1-6.
+ * Glyphs keep their own proportional width and are cached as packed bitplanes,
+ * so after warm-up every character costs a single cache lookup.
+ *
+ * The font is taken from the gitt.font system property (a .ttf path or a font
+ * family name), then from a bundled /fonts/pattern.ttf resource, and finally
+ * falls back to the logical SansSerif font.
+ */
+public class GlyphRasterizer implements GlyphSource {
+    
+    private static final int ROWS = Glyph.ROWS;
+    private static final int MAX_WIDTH = Glyph.MAX_WIDTH;
+    private static final int SUPERSAMPLE = 4;
+    private static final int CAP_ROWS = 6;           // Row 6 is left for descenders
+    private static final int SPACE_WIDTH = 2;
+    private static final double MIN_COVERAGE = 0.12; // Below this a cell stays empty
+    
+    private static final String FONT_PROPERTY = "gitt.font";
+    private static final String BUNDLED_FONT = "/fonts/pattern.ttf";
+    
+    private static volatile GlyphRasterizer instance;
+    
+    private final Font font;
+    private final FontRenderContext renderContext;
+    private final int baseline;
+    
+    // ASCII goes through a plain array; everything else through the map
+    private final Glyph[] asciiCache = new Glyph[128];
+    private final ConcurrentHashMap<Integer, Glyph> glyphCache = new ConcurrentHashMap<>();
+    
+    private GlyphRasterizer(Font baseFont) {
+        this.renderContext = new FontRenderContext(null, true, true);
+        
+        // Size the font so that the cap height spans CAP_ROWS supersampled rows
+        Font probe = baseFont.deriveFont(Font.BOLD, 100f);
+        double capHeight = probe.createGlyphVector(renderContext, "H").getVisualBounds().getHeight();
+        float size = (float) (100.0 * CAP_ROWS * SUPERSAMPLE / Math.max(1.0, capHeight));
+        this.font = baseFont.deriveFont(Font.BOLD, size);
+        this.baseline = CAP_ROWS * SUPERSAMPLE;
+    }
+    
+    /**
+     * Shared rasterizer, created on first use
+     */
+    public static GlyphRasterizer getInstance() {
+        GlyphRasterizer current = instance;
+        if (current == null) {
+            synchronized (GlyphRasterizer.class) {
+                current = instance;
+                if (current == null) {
+                    current = new GlyphRasterizer(loadFont());
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Glyph for a code point, rasterizing it on the first request
+     */
+    @Override
+    public Glyph glyph(int codePoint) {
+        if (codePoint < asciiCache.length) {
+            Glyph glyph = asciiCache[codePoint];
+            if (glyph == null) {
+                glyph = rasterize(codePoint);
+                asciiCache[codePoint] = glyph; // Glyph is immutable, a racy duplicate is harmless
+            }
+            return glyph;
+        }
+        return glyphCache.computeIfAbsent(codePoint, this::rasterize);
+    }
+    
+    /**
+     * Draw one character and area-average it down to the grid
+     */
+    private Glyph rasterize(int codePoint) {
+        if (Character.isWhitespace(codePoint)) {
+            return new Glyph(SPACE_WIDTH, new int[ROWS][SPACE_WIDTH]);
+        }
+        if (!font.canDisplay(codePoint)) {
+            codePoint = '?';
+        }
+        
+        String text = new String(Character.toChars(codePoint));
+        GlyphVector vector = font.createGlyphVector(renderContext, text);
+        Rectangle2D bounds = vector.getVisualBounds();
+        if (bounds.isEmpty()) {
+            return new Glyph(SPACE_WIDTH, new int[ROWS][SPACE_WIDTH]);
+        }
+        
+        int width = Math.max(1, Math.min(MAX_WIDTH, (int) Math.ceil(bounds.getWidth() / SUPERSAMPLE)));
+        int pixelWidth = width * SUPERSAMPLE;
+        int pixelHeight = ROWS * SUPERSAMPLE;
+        
+        BufferedImage image = new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            
+            // Scale wide glyphs down horizontally so the ink fits MAX_WIDTH columns
+            double scaleX = Math.min(1.0, pixelWidth / bounds.getWidth());
+            graphics.scale(scaleX, 1.0);
+            graphics.setColor(java.awt.Color.WHITE);
+            graphics.drawGlyphVector(vector, (float) -bounds.getX(), baseline);
+        } finally {
+            graphics.dispose();
+        }
+        
+        Raster raster = image.getRaster();
+        int[] block = new int[SUPERSAMPLE * SUPERSAMPLE];
+        int[][] levels = new int[ROWS][width];
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < width; col++) {
+                raster.getSamples(col * SUPERSAMPLE, row * SUPERSAMPLE, SUPERSAMPLE, SUPERSAMPLE, 0, block);
+                int sum = 0;
+                for (int sample : block) {
+                    sum += sample;
+                }
+                double coverage = sum / (255.0 * block.length);
+                levels[row][col] = toLevel(coverage);
+            }
+        }
+        
+        return new Glyph(width, levels);
+    }
+    
+    /**
+     * Quantize coverage (0-1) to 0 or an intensity level 1-6
+     */
+    private static int toLevel(double coverage) {
+        if (coverage < MIN_COVERAGE) {
+            return 0;
+        }
+        double scaled = (coverage - MIN_COVERAGE) / (1.0 - MIN_COVERAGE);
+        return Math.min(6, 1 + (int) (scaled * 6));
+    }
+    
+    private static Font loadFont() {
+        String configured = System.getProperty(FONT_PROPERTY);
+        if (configured != null && !configured.isEmpty()) {
+            Path fontFile = Paths.get(configured);
+            if (Files.isRegularFile(fontFile)) {
+                try (InputStream in = Files.newInputStream(fontFile)) {
+                    return Font.createFont(Font.TRUETYPE_FONT, in);
+                } catch (IOException | FontFormatException e) {
+                    System.err.println("Error loading font " + configured + ": " + e.getMessage());
+                }
+            } else {
+                return new Font(configured, Font.BOLD, 12);
+            }
+        }
+        
+        try (InputStream in = GlyphRasterizer.class.getResourceAsStream(BUNDLED_FONT)) {
+            if (in != null) {
+                return Font.createFont(Font.TRUETYPE_FONT, in);
+            }
+        } catch (IOException | FontFormatException e) {
+            System.err.println("Error loading bundled font: " + e.getMessage());
+        }
+        
+        return new Font(Font.SANS_SERIF, Font.BOLD, 12);
+    }
+}
@@ -0,0 +1,39 @@
+package com.GitTimeTraveler.ml;
+
+/**
+ * Supplies 7-row glyphs for characters
+ */
+public interface GlyphSource {
+    
+    /**
+     * Glyph for a code point
+     */
+    Glyph glyph(int codePoint);
+    
+    /**
+     * Render text into a pattern starting at the given week, one glyph column per week
+     * and one blank week between characters
+     *
+     * @return the week after the last rendered column
+     */
+    default int render(String text, int[][] pattern, int startWeek) {
+        int week = startWeek;
+        int cols = pattern[0].length;
+        for (int i = 0; i < text.length() && week < cols; ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            
+            Glyph glyph = glyph(codePoint);
+            for (int col = 0; col < glyph.getWidth() && week + col < cols; col++) {
+                for (int row = 0; row < Glyph.ROWS; row++) {
+                    int level = glyph.level(row, col);
+                    if (level > 0) {
+                        pattern[row][week + col] = level;
+                    }
+                }
+            }
+            week += glyph.getWidth() + 1;
+        }
+        return week;
+    }
+}
@@ -0,0 +1,361 @@
+package com.GitTimeTraveler.ml;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Trains the character model from the training dataset
+ *
+ * Two heads share one flat parameter vector:
+ * - Glyph head: logistic regression giving the probability that cell (day, week)
+ *   of a character's 7x4 block is active
+ * - Context head: linear regression of active-cell intensity (relative to the base
+ *   intensity of 3) on the word-position and letter-class context of the character
+ *
+ * Training is data-parallel minibatch SGD: each batch is split across workers,
+ * every worker accumulates into its own gradient buffer, and the buffers are
+ * summed before a single parameter update.
+ */
+public class ModelTrainer {
+    
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    
+    // Default hyperparameters
+    public static final int DEFAULT_EPOCHS = 8;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final double DEFAULT_LEARNING_RATE = 0.5;
+    private static final double L2_PENALTY = 1e-4;
+    private static final double BASE_INTENSITY = 3.0;
+    
+    private static final int GLYPH_CELLS = PatternModel.GLYPH_ROWS * PatternModel.GLYPH_COLS;
+    private static final String[] CONTEXT_KEYS = {"word_start", "word_middle", "word_end", "vowel", "consonant"};
+    
+    private final TrainingDataReader.Dataset dataset;
+    private final char[] characters;
+    private final Map<Character, Integer> characterIndex = new HashMap<>();
+    private final Map<String, int[][]> encodedTexts = new HashMap<>();
+    
+    // Parameter layout: [glyph weights][glyph bias][context weights]
+    private final double[] params;
+    private final int glyphBiasOffset;
+    private final int contextOffset;
+    
+    private ModelTrainer(TrainingDataReader.Dataset dataset) {
+        this.dataset = dataset;
+        
+        SortedSet<Character> seen = new TreeSet<>();
+        for (int i = 0; i < dataset.size(); i++) {
+            String text = dataset.text(i);
+            if (!encodedTexts.containsKey(text)) {
+                encodedTexts.put(text, null);
+                // Glyphs are keyed by char, so only BMP code points are learned
+                text.codePoints()
+                    .filter(c -> c != ' ' && Character.isBmpCodePoint(c))
+                    .forEach(c -> seen.add((char) c));
+            }
+        }
+        
+        characters = new char[seen.size()];
+        int index = 0;
+        for (char c : seen) {
+            characterIndex.put(c, index);
+            characters[index++] = c;
+        }
+        for (String text : encodedTexts.keySet()) {
+            encodedTexts.put(text, encode(text));
+        }
+        
+        glyphBiasOffset = characters.length * GLYPH_CELLS;
+        contextOffset = glyphBiasOffset + 1;
+        params = new double[contextOffset + CONTEXT_KEYS.length * PatternModel.GLYPH_ROWS];
+        
+        // Context multipliers start neutral
+        Arrays.fill(params, contextOffset, params.length, 1.0);
+    }
+    
+    /**
+     * Train a model with the default hyperparameters
+     */
+    public static PatternModel train(TrainingDataReader.Dataset dataset) throws InterruptedException {
+        return train(dataset, DEFAULT_EPOCHS, DEFAULT_BATCH_SIZE, DEFAULT_LEARNING_RATE);
+    }
+    
+    /**
+     * Train a model with explicit hyperparameters
+     */
+    public static PatternModel train(TrainingDataReader.Dataset dataset, int epochs, int batchSize, double learningRate)
+            throws InterruptedException {
+        if (dataset.size() == 0) {
+            throw new IllegalArgumentException("Training dataset is empty");
+        }
+        
+        ModelTrainer trainer = new ModelTrainer(dataset);
+        ExecutorService executor = Executors.newFixedThreadPool(WORKER_COUNT);
+        try {
+            trainer.run(executor, epochs, batchSize, learningRate);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return trainer.toModel();
+    }
+    
+    /**
+     * Encode a text as {characterIndex, positionContext, letterContext, startWeek} per code point.
+     * Start weeks come from the generator's own layout so labels line up with the samples.
+     */
+    private int[][] encode(String text) {
+        int[] codePoints = text.codePoints().toArray();
+        Glyph[] glyphs = PatternGenerator.resolveGlyphs(PatternGenerator.getModel(), codePoints);
+        int[] startWeeks = PatternGenerator.layoutText(glyphs);
+        int[][] slots = new int[codePoints.length][];
+        for (int i = 0; i < codePoints.length; i++) {
+            int c = codePoints[i];
+            if (c == ' ' || startWeeks[i] < 0 || !Character.isBmpCodePoint(c)) {
+                continue;
+            }
+            slots[i] = new int[] {
+                characterIndex.get((char) c),
+                contextIndex(PatternGenerator.getPositionContext(codePoints, i)),
+                contextIndex(PatternGenerator.getLetterContext(c)),
+                startWeeks[i]
+            };
+        }
+        return slots;
+    }
+    
+    private static int contextIndex(String key) {
+        if (key == null) {
+            return -1;
+        }
+        for (int i = 0; i < CONTEXT_KEYS.length; i++) {
+            if (CONTEXT_KEYS[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private void run(ExecutorService executor, int epochs, int batchSize, double learningRate)
+            throws InterruptedException, ExecutionException {
+        int size = dataset.size();
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        
+        Random random = new Random(42);
+        int workers = Math.max(1, Math.min(WORKER_COUNT, batchSize));
+        Worker[] pool = new Worker[workers];
+        for (int w = 0; w < workers; w++) {
+            pool[w] = new Worker();
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(workers);
+        double[] gradient = new double[params.length];
+        
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            shuffle(order, random);
+            double rate = learningRate / (1 + epoch * 0.5);
+            double epochLoss = 0;
+            
+            for (int batchStart = 0; batchStart < size; batchStart += batchSize) {
+                int batchEnd = Math.min(size, batchStart + batchSize);
+                int share = (batchEnd - batchStart + workers - 1) / workers;
+                
+                tasks.clear();
+                for (int w = 0; w < workers; w++) {
+                    int from = batchStart + w * share;
+                    int to = Math.min(batchEnd, from + share);
+                    pool[w].assign(order, from, to);
+                    tasks.add(pool[w]);
+                }
+                for (Future<Void> result : executor.invokeAll(tasks)) {
+                    result.get();
+                }
+                
+                // Reduce worker gradients, then take one step
+                Arrays.fill(gradient, 0);
+                long glyphCount = 0;
+                long contextCount = 0;
+                for (Worker worker : pool) {
+                    for (int p = 0; p < gradient.length; p++) {
+                        gradient[p] += worker.gradient[p];
+                    }
+                    glyphCount += worker.glyphCount;
+                    contextCount += worker.contextCount;
+                    epochLoss += worker.loss;
+                }
+                
+                // Glyph weights see at most a few cells per sample, so they are averaged
+                // over the batch; the shared bias sees every cell and is averaged over cells
+                double glyphScale = rate / (batchEnd - batchStart);
+                double contextScale = contextCount > 0 ? rate / contextCount : 0;
+                for (int p = 0; p < glyphBiasOffset; p++) {
+                    params[p] -= glyphScale * gradient[p] + rate * L2_PENALTY * params[p];
+                }
+                if (glyphCount > 0) {
+                    params[glyphBiasOffset] -= rate * gradient[glyphBiasOffset] / glyphCount;
+                }
+                for (int p = contextOffset; p < params.length; p++) {
+                    params[p] -= contextScale * gradient[p];
+                }
+            }
+            
+            System.out.println(String.format("Epoch %d/%d - loss %.4f", epoch + 1, epochs, epochLoss / size));
+        }
+    }
+    
+    private static void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+    
+    /**
+     * Computes gradients for a slice of a minibatch into a private buffer
+     */
+    private class Worker implements Callable<Void> {
+        final double[] gradient = new double[params.length];
+        final byte[] cells = new byte[TrainingDataReader.GRID_CELLS];
+        long glyphCount;
+        long contextCount;
+        double loss;
+        
+        private int[] order;
+        private int from;
+        private int to;
+        
+        void assign(int[] order, int from, int to) {
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        public Void call() {
+            Arrays.fill(gradient, 0);
+            glyphCount = 0;
+            contextCount = 0;
+            loss = 0;
+            
+            double glyphBias = params[glyphBiasOffset];
+            for (int i = from; i < to; i++) {
+                int sample = order[i];
+                dataset.unpack(sample, cells);
+                int[][] slots = encodedTexts.get(dataset.text(sample));
+                
+                for (int[] encoded : slots) {
+                    if (encoded == null) {
+                        continue;
+                    }
+                    int glyphBase = encoded[0] * GLYPH_CELLS;
+                    int startWeek = encoded[3];
+                    
+                    for (int day = 0; day < PatternModel.GLYPH_ROWS; day++) {
+                        for (int col = 0; col < PatternModel.GLYPH_COLS && startWeek + col < TrainingDataReader.GRID_COLS; col++) {
+                            int intensity = cells[day * TrainingDataReader.GRID_COLS + startWeek + col];
+                            
+                            // Glyph head: logistic loss on cell activity
+                            int g = glyphBase + day * PatternModel.GLYPH_COLS + col;
+                            double p = sigmoid(params[g] + glyphBias);
+                            double label = intensity > 0 ? 1 : 0;
+                            double error = p - label;
+                            gradient[g] += error;
+                            gradient[glyphBiasOffset] += error;
+                            loss -= label * Math.log(p + 1e-12) + (1 - label) * Math.log(1 - p + 1e-12);
+                            glyphCount++;
+                            
+                            // Context head: squared loss on relative intensity of active cells
+                            if (intensity > 0) {
+                                int positionParam = encoded[1] >= 0 ? contextOffset + encoded[1] * PatternModel.GLYPH_ROWS + day : -1;
+                                int letterParam = encoded[2] >= 0 ? contextOffset + encoded[2] * PatternModel.GLYPH_ROWS + day : -1;
+                                double prediction = contextPrediction(positionParam, letterParam);
+                                double residual = prediction - intensity / BASE_INTENSITY;
+                                if (positionParam >= 0 && letterParam >= 0) {
+                                    gradient[positionParam] += residual * 0.5;
+                                    gradient[letterParam] += residual * 0.5;
+                                } else if (positionParam >= 0) {
+                                    gradient[positionParam] += residual;
+                                } else if (letterParam >= 0) {
+                                    gradient[letterParam] += residual;
+                                }
+                                contextCount++;
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+    }
+    
+    private double contextPrediction(int positionParam, int letterParam) {
+        if (positionParam >= 0 && letterParam >= 0) {
+            return (params[positionParam] + params[letterParam]) * 0.5;
+        }
+        if (positionParam >= 0) {
+            return params[positionParam];
+        }
+        return letterParam >= 0 ? params[letterParam] : 1.0;
+    }
+    
+    private static double sigmoid(double z) {
+        return 1.0 / (1.0 + Math.exp(-z));
+    }
+    
+    /**
+     * Convert trained parameters into glyph probabilities and context multipliers
+     */
+    private PatternModel toModel() {
+        Map<Character, double[][]> glyphs = new HashMap<>();
+        double glyphBias = params[glyphBiasOffset];
+        for (int c = 0; c < characters.length; c++) {
+            double[][] glyph = new double[PatternModel.GLYPH_ROWS][PatternModel.GLYPH_COLS];
+            for (int day = 0; day < PatternModel.GLYPH_ROWS; day++) {
+                for (int col = 0; col < PatternModel.GLYPH_COLS; col++) {
+                    glyph[day][col] = sigmoid(params[c * GLYPH_CELLS + day * PatternModel.GLYPH_COLS + col] + glyphBias);
+                }
+            }
+            glyphs.put(characters[c], glyph);
+        }
+        
+        Map<String, double[]> contexts = new HashMap<>();
+        for (int k = 0; k < CONTEXT_KEYS.length; k++) {
+            int offset = contextOffset + k * PatternModel.GLYPH_ROWS;
+            contexts.put(CONTEXT_KEYS[k], Arrays.copyOfRange(params, offset, offset + PatternModel.GLYPH_ROWS));
+        }
+        
+        // Characters missing from the training set keep their built-in glyphs
+        return PatternModel.builtIn().withOverrides(glyphs, contexts);
+    }
+    
+    /**
+     * Main method for training the model from training_data.txt
+     * Usage: ModelTrainer [epochs] [batchSize] [learningRate]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int epochs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EPOCHS;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH_SIZE;
+        double learningRate = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_LEARNING_RATE;
+        
+        System.out.println("Loading training data...");
+        TrainingDataReader.Dataset dataset = TrainingDataGenerator.loadTrainingDataset();
+        System.out.println("Training on " + dataset.size() + " samples with " + WORKER_COUNT + " workers...");
+        
+        PatternModel model = train(dataset, epochs, batchSize, learningRate);
+        model.save(Paths.get(PatternModel.MODEL_FILE));
+        PatternGenerator.useModel(model);
+        
+        System.out.println("Model saved: " + PatternModel.MODEL_FILE + " (" + model.getGlyphs().size() + " characters)");
+    }
+}
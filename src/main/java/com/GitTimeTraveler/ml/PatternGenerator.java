@@ -1,8 +1,17 @@
 package com.GitTimeTraveler.ml;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
 
+import com.GitTimeTraveler.jfr.FlightRecording;
+import com.GitTimeTraveler.jfr.GeneratorPhaseEvent;
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.metrics.Timer;
+
 /**
  * Machine Learning-based GitHub Contribution Pattern Generator
  * 
@@ -14,23 +23,28 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public class PatternGenerator {
     
-    // Neural network-like weights for character pattern generation
-    private static final Map<Character, double[][]> CHARACTER_WEIGHTS = new HashMap<>();
-    private static final Map<String, double[]> CONTEXT_WEIGHTS = new HashMap<>();
+    // Character, context, bias and position weights; loaded on first use and
+    // swapped when the model file changes (see getModel)
+    private static volatile PatternModel model;
+    private static long modelFileStamp;
+    private static volatile long nextModelCheck;
+    private static final long MODEL_CHECK_INTERVAL_MS = 2000;
+    private static final Object MODEL_LOCK = new Object();
     
-    // Intensity prediction parameters
-    private static final double[] INTENSITY_BIAS = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6};
-    private static final double[] POSITION_WEIGHTS = {0.8, 0.9, 1.0, 1.0, 0.9, 0.8, 0.7};
+    // Where glyphs for characters without a model glyph come from: "font" rasterizes
+    // through Java2D, "bitmap" uses the built-in AWT-free font
+    public static final String GLYPHS_PROPERTY = "gitt.glyphs";
     
     // Pattern optimization parameters
     private static final double SYMMETRY_WEIGHT = 0.3;
     private static final double DENSITY_WEIGHT = 0.4;
     private static final double CONTINUITY_WEIGHT = 0.3;
     
-    static {
-        initializeCharacterWeights();
-        initializeContextWeights();
-    }
+    // Time and allocation per generation phase, plus a Flight Recorder event each
+    private static final Phase BASE_PHASE = new Phase("base");
+    private static final Phase INTENSITY_PHASE = new Phase("intensity");
+    private static final Phase OPTIMIZE_PHASE = new Phase("optimize");
+    private static final Phase ACTIVITY_PHASE = new Phase("activity");
     
     /**
      * Generate a GitHub contribution pattern for given text with intensity levels
@@ -43,50 +57,110 @@ public class PatternGenerator {
         text = text.toUpperCase().trim();
         int[][] pattern = new int[7][53];
         
+        // One model for the whole call, even if a new one is swapped in meanwhile
+        PatternModel model = getModel();
+        
+        // Glyph coverage (1-6) per cell and the character (code point index) owning each week
+        int[][] coverage = new int[7][53];
+        int[] charAtWeek = new int[53];
+        int[] codePoints = text.codePoints().toArray();
+        
         // Phase 1: Generate base pattern using character mapping
-        generateBasePattern(text, pattern);
+        Span span = BASE_PHASE.start(text, year);
+        generateBasePattern(model, codePoints, pattern, coverage, charAtWeek);
+        span.end();
         
         // Phase 2: Apply intensity prediction
-        applyIntensityPrediction(text, pattern);
+        span = INTENSITY_PHASE.start(text, year);
+        applyIntensityPrediction(model, codePoints, pattern, coverage, charAtWeek);
+        span.end();
         
         // Phase 3: Optimize for visual appeal
+        span = OPTIMIZE_PHASE.start(text, year);
         optimizePattern(pattern);
+        span.end();
         
         // Phase 4: Apply realistic activity simulation
+        span = ACTIVITY_PHASE.start(text, year);
         applyRealisticActivity(pattern, year);
+        span.end();
         
         return pattern;
     }
     
     /**
-     * Generate base pattern using learned character mappings
+     * Generate base pattern using learned character mappings, rasterizing
+     * characters the model has no glyph for
      */
-    private static void generateBasePattern(String text, int[][] pattern) {
-        int startWeek = 5; // Start from week 5 to center the text
+    private static void generateBasePattern(PatternModel model, int[] codePoints, int[][] pattern,
+                                            int[][] coverage, int[] charAtWeek) {
+        Arrays.fill(charAtWeek, -1);
+        Glyph[] glyphs = resolveGlyphs(model, codePoints);
+        int[] startWeeks = layoutText(glyphs);
         
-        for (int i = 0; i < text.length() && startWeek + i * 4 < 53; i++) {
-            char c = text.charAt(i);
-            if (c == ' ') {
+        for (int i = 0; i < codePoints.length && startWeeks[i] >= 0; i++) {
+            if (codePoints[i] == ' ') {
                 continue; // Skip spaces
             }
             
-            double[][] charPattern = getCharacterPattern(c);
-            if (charPattern != null) {
-                int weekOffset = i * 4; // 4 weeks per character
-                applyCharacterPattern(charPattern, pattern, startWeek + weekOffset);
+            int startWeek = startWeeks[i];
+            int width = applyGlyph(glyphs[i], pattern, coverage, startWeek);
+            for (int week = startWeek; week < startWeek + width && week < 53; week++) {
+                charAtWeek[week] = i;
             }
         }
     }
     
+    /**
+     * Glyph of every code point: the model's learned glyph, else the glyph source's
+     */
+    static Glyph[] resolveGlyphs(PatternModel model, int[] codePoints) {
+        Glyph[] glyphs = new Glyph[codePoints.length];
+        for (int i = 0; i < codePoints.length; i++) {
+            Glyph shape = model.getShape(codePoints[i]);
+            glyphs[i] = shape != null ? shape : glyphSource().glyph(codePoints[i]);
+        }
+        return glyphs;
+    }
+    
+    /**
+     * Lay out glyphs with proportional widths and one blank week after each
+     * 
+     * @return the start week of every glyph, or -1 once the text runs off the grid
+     */
+    static int[] layoutText(Glyph[] glyphs) {
+        int[] startWeeks = new int[glyphs.length];
+        int week = 5; // Start from week 5 to center the text
+        
+        for (int i = 0; i < glyphs.length; i++) {
+            startWeeks[i] = week < 53 ? week : -1;
+            week += glyphs[i].getWidth() + 1;
+        }
+        return startWeeks;
+    }
+    
+    /**
+     * Glyph source selected by the gitt.glyphs property; the rasterizer is only
+     * loaded when it is actually used
+     */
+    static GlyphSource glyphSource() {
+        if ("bitmap".equals(System.getProperty(GLYPHS_PROPERTY))) {
+            return BitmapGlyphs.getInstance();
+        }
+        return GlyphRasterizer.getInstance();
+    }
+    
     /**
      * Apply intensity prediction based on character context and position
      */
-    private static void applyIntensityPrediction(String text, int[][] pattern) {
+    private static void applyIntensityPrediction(PatternModel model, int[] codePoints, int[][] pattern,
+                                                 int[][] coverage, int[] charAtWeek) {
         for (int week = 0; week < 53; week++) {
             for (int day = 0; day < 7; day++) {
                 if (pattern[day][week] > 0) {
-                    // Calculate intensity based on multiple factors
-                    double intensity = calculateIntensity(text, day, week, pattern);
+                    // Calculate intensity based on multiple factors, softened at anti-aliased glyph edges
+                    double intensity = calculateIntensity(model, codePoints, day, charAtWeek[week], pattern, week)
+                        * (0.4 + 0.1 * coverage[day][week]);
                     pattern[day][week] = (int) Math.max(1, Math.min(6, intensity));
                 }
             }
@@ -96,15 +170,16 @@ public class PatternGenerator {
     /**
      * Calculate intensity for a specific position
      */
-    private static double calculateIntensity(String text, int day, int week, int[][] pattern) {
+    private static double calculateIntensity(PatternModel model, int[] codePoints, int day, int charIndex,
+                                             int[][] pattern, int week) {
         // Base intensity from character weights
         double baseIntensity = 3.0;
         
         // Position-based intensity (center characters get higher intensity)
-        double positionFactor = POSITION_WEIGHTS[day];
+        double positionFactor = model.getPositionWeight(day);
         
         // Context-based intensity (characters in the middle of words get higher intensity)
-        double contextFactor = getContextIntensity(text, week);
+        double contextFactor = getContextIntensity(model, codePoints, day, charIndex);
         
         // Neighbor intensity influence
         double neighborFactor = getNeighborIntensity(pattern, day, week);
@@ -118,21 +193,41 @@ public class PatternGenerator {
     /**
      * Get context-based intensity for a character position
      */
-    private static double getContextIntensity(String text, int week) {
+    private static double getContextIntensity(PatternModel model, int[] codePoints, int day, int charIndex) {
         // Characters in the middle of words typically have higher activity
-        int charIndex = Math.max(0, Math.min(text.length() - 1, (week - 5) / 4));
-        if (charIndex < text.length()) {
-            char c = text.charAt(charIndex);
-            if (c >= 'A' && c <= 'Z') {
-                // Vowels and common letters get higher intensity
-                if ("AEIOU".indexOf(c) >= 0) return 1.2;
-                if ("LNRST".indexOf(c) >= 0) return 1.1;
-                return 1.0;
+        if (charIndex >= 0 && charIndex < codePoints.length) {
+            int c = codePoints[charIndex];
+            if (c != ' ') {
+                double[] positionWeights = model.getContext(getPositionContext(codePoints, charIndex));
+                String letterContext = getLetterContext(c);
+                if (letterContext == null) {
+                    return positionWeights[day];
+                }
+                return (positionWeights[day] + model.getContext(letterContext)[day]) / 2;
             }
         }
         return 0.8;
     }
     
+    /**
+     * Get the word-position context key for the code point at index
+     */
+    static String getPositionContext(int[] codePoints, int index) {
+        boolean wordStart = index == 0 || codePoints[index - 1] == ' ';
+        boolean wordEnd = index == codePoints.length - 1 || codePoints[index + 1] == ' ';
+        if (wordStart) return "word_start";
+        if (wordEnd) return "word_end";
+        return "word_middle";
+    }
+    
+    /**
+     * Get the letter-class context key, or null for non-letters
+     */
+    static String getLetterContext(int c) {
+        if (c < 'A' || c > 'Z') return null;
+        return "AEIOU".indexOf(c) >= 0 ? "vowel" : "consonant";
+    }
+    
     /**
      * Get neighbor intensity influence
      */
@@ -266,106 +361,103 @@ public class PatternGenerator {
     }
     
     /**
-     * Get character pattern from learned weights
+     * Apply a glyph to the main pattern
+     * 
+     * @return the glyph width in weeks
+     */
+    private static int applyGlyph(Glyph glyph, int[][] pattern, int[][] coverage, int startWeek) {
+        for (int week = 0; week < glyph.getWidth() && startWeek + week < 53; week++) {
+            for (int day = 0; day < 7; day++) {
+                int level = glyph.level(day, week);
+                if (level > 0) {
+                    pattern[day][startWeek + week] = 1; // Base pattern
+                    coverage[day][startWeek + week] = level;
+                }
+            }
+        }
+        return glyph.getWidth();
+    }
+    
+    /**
+     * Create empty pattern
      */
-    private static double[][] getCharacterPattern(char c) {
-        return CHARACTER_WEIGHTS.getOrDefault(c, getDefaultCharacterPattern(c));
+    private static int[][] createEmptyPattern() {
+        return new int[7][53];
     }
     
     /**
-     * Get default character pattern for unknown characters
+     * Get the current model, loading it on first use. The model file is checked
+     * for changes at most every MODEL_CHECK_INTERVAL_MS, so a newly trained model
+     * is picked up without restarting.
      */
-    private static double[][] getDefaultCharacterPattern(char c) {
-        double[][] pattern = new double[7][4];
+    public static PatternModel getModel() {
+        PatternModel current = model;
+        if (current != null && System.currentTimeMillis() < nextModelCheck) {
+            return current;
+        }
         
-        // Create a basic pattern based on character properties
-        if (c >= 'A' && c <= 'Z') {
-            // Generate a pattern based on character position in alphabet
-            int charValue = c - 'A';
-            for (int day = 0; day < 7; day++) {
-                for (int week = 0; week < 4; week++) {
-                    // Create a pattern based on character properties
-                    pattern[day][week] = Math.sin(charValue * 0.3 + day * 0.5 + week * 0.2) * 0.5 + 0.5;
-                }
+        synchronized (MODEL_LOCK) {
+            if (model != null && System.currentTimeMillis() < nextModelCheck) {
+                return model;
+            }
+            
+            long stamp = readModelFileStamp();
+            if (model == null || stamp != modelFileStamp) {
+                model = loadModel(model);
+                modelFileStamp = stamp;
             }
+            nextModelCheck = System.currentTimeMillis() + MODEL_CHECK_INTERVAL_MS;
+            return model;
         }
-        
-        return pattern;
     }
     
     /**
-     * Apply character pattern to the main pattern
+     * Swap in a model directly, e.g. right after training in the same process.
+     * A later change to the model file replaces it again.
      */
-    private static void applyCharacterPattern(double[][] charPattern, int[][] pattern, int startWeek) {
-        for (int day = 0; day < 7; day++) {
-            for (int week = 0; week < 4 && startWeek + week < 53; week++) {
-                if (charPattern[day][week] > 0.3) {
-                    pattern[day][startWeek + week] = 1; // Base pattern
-                }
-            }
+    public static void useModel(PatternModel newModel) {
+        synchronized (MODEL_LOCK) {
+            model = newModel;
+            modelFileStamp = readModelFileStamp();
+            nextModelCheck = System.currentTimeMillis() + MODEL_CHECK_INTERVAL_MS;
         }
     }
     
     /**
-     * Create empty pattern
+     * Force the model file to be re-read on the next generation request
      */
-    private static int[][] createEmptyPattern() {
-        return new int[7][53];
+    public static void reloadModel() {
+        synchronized (MODEL_LOCK) {
+            modelFileStamp = Long.MIN_VALUE;
+            nextModelCheck = 0;
+        }
     }
     
     /**
-     * Initialize character weights (learned patterns)
+     * Load the model file, falling back to the previous or built-in model
      */
-    private static void initializeCharacterWeights() {
-        // Initialize with some common character patterns
-        // These would typically be learned from a training dataset
-        
-        // Pattern for 'P'
-        CHARACTER_WEIGHTS.put('P', new double[][]{
-            {1, 1, 1, 0},
-            {1, 0, 1, 0},
-            {1, 1, 1, 0},
-            {1, 0, 0, 0},
-            {1, 0, 0, 0},
-            {1, 0, 0, 0},
-            {0, 0, 0, 0}
-        });
-        
-        // Pattern for 'A'
-        CHARACTER_WEIGHTS.put('A', new double[][]{
-            {0, 1, 1, 0},
-            {1, 0, 0, 1},
-            {1, 1, 1, 1},
-            {1, 0, 0, 1},
-            {1, 0, 0, 1},
-            {0, 0, 0, 0},
-            {0, 0, 0, 0}
-        });
-        
-        // Pattern for 'S'
-        CHARACTER_WEIGHTS.put('S', new double[][]{
-            {0, 1, 1, 1},
-            {1, 0, 0, 0},
-            {0, 1, 1, 0},
-            {0, 0, 0, 1},
-            {1, 1, 1, 0},
-            {0, 0, 0, 0},
-            {0, 0, 0, 0}
-        });
-        
-        // Add more character patterns as needed...
+    private static PatternModel loadModel(PatternModel previous) {
+        Path modelFile = Paths.get(PatternModel.MODEL_FILE);
+        if (Files.exists(modelFile)) {
+            try {
+                return PatternModel.load(modelFile);
+            } catch (IOException e) {
+                System.err.println("Error loading model, keeping current weights: " + e.getMessage());
+            }
+        }
+        return previous != null ? previous : PatternModel.builtIn();
     }
     
     /**
-     * Initialize context weights for intensity prediction
+     * Modification stamp of the model file, or -1 when it does not exist
      */
-    private static void initializeContextWeights() {
-        // Context-based weights for different scenarios
-        CONTEXT_WEIGHTS.put("word_start", new double[]{1.2, 1.1, 1.0, 1.0, 1.0, 1.0, 1.0});
-        CONTEXT_WEIGHTS.put("word_middle", new double[]{1.0, 1.1, 1.2, 1.2, 1.1, 1.0, 1.0});
-        CONTEXT_WEIGHTS.put("word_end", new double[]{1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.0});
-        CONTEXT_WEIGHTS.put("vowel", new double[]{1.1, 1.2, 1.3, 1.3, 1.2, 1.1, 1.0});
-        CONTEXT_WEIGHTS.put("consonant", new double[]{1.0, 1.1, 1.1, 1.1, 1.1, 1.0, 1.0});
+    private static long readModelFileStamp() {
+        try {
+            Path modelFile = Paths.get(PatternModel.MODEL_FILE);
+            return Files.getLastModifiedTime(modelFile).toMillis() * 31 + Files.size(modelFile);
+        } catch (IOException e) {
+            return -1;
+        }
     }
     
     /**
@@ -394,11 +486,31 @@ public class PatternGenerator {
         int[][] pattern = generatePattern(text, year);
         
         // Apply custom parameters
+        applyCustomParameters(pattern, density, symmetry, continuity);
+        
+        return pattern;
+    }
+    
+    /**
+     * Apply density, symmetry and continuity (each 0-1) to an already generated pattern
+     */
+    public static void applyCustomParameters(int[][] pattern, double density, double symmetry, double continuity) {
         applyDensityParameter(pattern, density);
         applySymmetryParameter(pattern, symmetry);
         applyContinuityParameter(pattern, continuity);
+    }
+    
+    /**
+     * Glyph coverage (0-6) of the text layout before any intensity is applied
+     */
+    public static int[][] generateTextMask(String text) {
+        int[][] coverage = createEmptyPattern();
+        if (text == null || text.trim().isEmpty()) {
+            return coverage;
+        }
         
-        return pattern;
+        generateBasePattern(getModel(), text.toUpperCase().trim().codePoints().toArray(), createEmptyPattern(), coverage, new int[53]);
+        return coverage;
     }
     
     private static void applyDensityParameter(int[][] pattern, double density) {
@@ -414,16 +526,78 @@ public class PatternGenerator {
     }
     
     private static void applySymmetryParameter(int[][] pattern, double symmetry) {
-        // Apply symmetry based on parameter
-        if (symmetry > 0.5) {
-            optimizeSymmetry(pattern);
+        // Blend towards the fully symmetric pattern in proportion to the parameter
+        if (symmetry > 0) {
+            int[][] symmetric = copyPattern(pattern);
+            optimizeSymmetry(symmetric);
+            blendPattern(pattern, symmetric, Math.min(1.0, symmetry));
         }
     }
     
     private static void applyContinuityParameter(int[][] pattern, double continuity) {
-        // Apply continuity based on parameter
-        if (continuity > 0.5) {
-            optimizeContinuity(pattern);
+        // Blend towards the fully smoothed pattern in proportion to the parameter
+        if (continuity > 0) {
+            int[][] smoothed = copyPattern(pattern);
+            optimizeContinuity(smoothed);
+            blendPattern(pattern, smoothed, Math.min(1.0, continuity));
+        }
+    }
+    
+    private static void blendPattern(int[][] pattern, int[][] target, double weight) {
+        for (int day = 0; day < 7; day++) {
+            for (int week = 0; week < 53; week++) {
+                pattern[day][week] = (int) Math.round(pattern[day][week] * (1 - weight) + target[day][week] * weight);
+            }
+        }
+    }
+    
+    private static int[][] copyPattern(int[][] pattern) {
+        int[][] copy = new int[7][];
+        for (int day = 0; day < 7; day++) {
+            copy[day] = pattern[day].clone();
+        }
+        return copy;
+    }
+    
+    /**
+     * A generation phase, reported to Metrics (generator.<name>) and Flight Recorder
+     */
+    private static class Phase {
+        private final String name;
+        private final Timer timer;
+        
+        Phase(String name) {
+            this.name = name;
+            this.timer = Metrics.timer("generator." + name);
+        }
+        
+        Span start(String text, int year) {
+            GeneratorPhaseEvent event = null;
+            if (FlightRecording.isActive()) {
+                event = new GeneratorPhaseEvent(name, text, year);
+                event.begin();
+            }
+            return new Span(timer.start(), event);
+        }
+    }
+    
+    /**
+     * One running phase
+     */
+    private static class Span {
+        private final Timer.Sample sample;
+        private final GeneratorPhaseEvent event;
+        
+        Span(Timer.Sample sample, GeneratorPhaseEvent event) {
+            this.sample = sample;
+            this.event = event;
+        }
+        
+        void end() {
+            sample.stop();
+            if (event != null) {
+                event.commit();
+            }
         }
     }
 }
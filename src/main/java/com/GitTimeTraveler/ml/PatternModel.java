@@ -0,0 +1,341 @@
+package com.GitTimeTraveler.ml;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Weights for the pattern generator
+ *
+ * Holds a 7x4 glyph (activation probability per cell) for every known
+ * character, a per-day intensity multiplier for every context key
+ * (word_start, word_middle, word_end, vowel, consonant), the intensity
+ * bias and the per-day position weights.
+ *
+ * Models are stored in a compact versioned binary file (floats, one record
+ * per glyph and context). Files of another version, with bad counts or missing
+ * weights the generator needs are rejected with an IOException, so the caller
+ * can keep the model it already has.
+ */
+public class PatternModel {
+    
+    public static final String MODEL_FILE = "pattern_model.bin";
+    public static final int FORMAT_VERSION = 2;
+    
+    private static final int MODEL_MAGIC = 0x4754504D; // "GTPM"
+    
+    public static final int GLYPH_ROWS = 7;
+    public static final int GLYPH_COLS = 4;
+    public static final int INTENSITY_LEVELS = 6;
+    
+    // Glyph cells above this activation are drawn
+    private static final double ACTIVE_CELL = 0.3;
+    
+    // Context keys the generator looks up for every character
+    private static final String[] REQUIRED_CONTEXTS = {"word_start", "word_middle", "word_end", "vowel", "consonant"};
+    
+    private final Map<Character, double[][]> glyphs;
+    private final Map<Character, Glyph> shapes;
+    private final Map<String, double[]> contexts;
+    private final double[] intensityBias;
+    private final double[] positionWeights;
+    
+    public PatternModel(Map<Character, double[][]> glyphs, Map<String, double[]> contexts,
+                        double[] intensityBias, double[] positionWeights) {
+        this.glyphs = Collections.unmodifiableMap(new TreeMap<>(glyphs));
+        this.shapes = new HashMap<>();
+        for (Map.Entry<Character, double[][]> entry : this.glyphs.entrySet()) {
+            shapes.put(entry.getKey(), toShape(entry.getValue()));
+        }
+        this.contexts = Collections.unmodifiableMap(new TreeMap<>(contexts));
+        this.intensityBias = intensityBias.clone();
+        this.positionWeights = positionWeights.clone();
+    }
+    
+    public Map<Character, double[][]> getGlyphs() {
+        return glyphs;
+    }
+    
+    public Map<String, double[]> getContexts() {
+        return contexts;
+    }
+    
+    public double[][] getGlyph(char c) {
+        return glyphs.get(c);
+    }
+    
+    /**
+     * Learned glyph for a code point; glyphs are only learned for the Basic Multilingual Plane
+     */
+    public double[][] getGlyph(int codePoint) {
+        return Character.isBmpCodePoint(codePoint) ? glyphs.get((char) codePoint) : null;
+    }
+    
+    /**
+     * Learned glyph for a code point as drawn, trimmed to its occupied columns, or null
+     */
+    public Glyph getShape(int codePoint) {
+        return Character.isBmpCodePoint(codePoint) ? shapes.get((char) codePoint) : null;
+    }
+    
+    /**
+     * Active cells of a learned glyph at full coverage, without blank columns at either side
+     */
+    private static Glyph toShape(double[][] glyph) {
+        int first = GLYPH_COLS;
+        int last = -1;
+        for (int col = 0; col < GLYPH_COLS; col++) {
+            for (int row = 0; row < GLYPH_ROWS; row++) {
+                if (glyph[row][col] > ACTIVE_CELL) {
+                    first = Math.min(first, col);
+                    last = col;
+                }
+            }
+        }
+        
+        int width = last < 0 ? 0 : last - first + 1;
+        int[][] levels = new int[GLYPH_ROWS][width];
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < GLYPH_ROWS; row++) {
+                levels[row][col] = glyph[row][first + col] > ACTIVE_CELL ? INTENSITY_LEVELS : 0;
+            }
+        }
+        return new Glyph(width, levels);
+    }
+    
+    public double[] getContext(String key) {
+        return contexts.get(key);
+    }
+    
+    public double[] getIntensityBias() {
+        return intensityBias.clone();
+    }
+    
+    public double getPositionWeight(int day) {
+        return positionWeights[day];
+    }
+    
+    public double[] getPositionWeights() {
+        return positionWeights.clone();
+    }
+    
+    /**
+     * Copy of this model with the given glyphs and contexts replacing existing entries
+     */
+    public PatternModel withOverrides(Map<Character, double[][]> glyphOverrides, Map<String, double[]> contextOverrides) {
+        Map<Character, double[][]> mergedGlyphs = new HashMap<>(glyphs);
+        mergedGlyphs.putAll(glyphOverrides);
+        Map<String, double[]> mergedContexts = new HashMap<>(contexts);
+        mergedContexts.putAll(contextOverrides);
+        return new PatternModel(mergedGlyphs, mergedContexts, intensityBias, positionWeights);
+    }
+    
+    /**
+     * Built-in weights used when no model file has been deployed
+     */
+    public static PatternModel builtIn() {
+        Map<Character, double[][]> glyphs = new HashMap<>();
+        
+        // Pattern for 'P'
+        glyphs.put('P', new double[][]{
+            {1, 1, 1, 0},
+            {1, 0, 1, 0},
+            {1, 1, 1, 0},
+            {1, 0, 0, 0},
+            {1, 0, 0, 0},
+            {1, 0, 0, 0},
+            {0, 0, 0, 0}
+        });
+        
+        // Pattern for 'A'
+        glyphs.put('A', new double[][]{
+            {0, 1, 1, 0},
+            {1, 0, 0, 1},
+            {1, 1, 1, 1},
+            {1, 0, 0, 1},
+            {1, 0, 0, 1},
+            {0, 0, 0, 0},
+            {0, 0, 0, 0}
+        });
+        
+        // Pattern for 'S'
+        glyphs.put('S', new double[][]{
+            {0, 1, 1, 1},
+            {1, 0, 0, 0},
+            {0, 1, 1, 0},
+            {0, 0, 0, 1},
+            {1, 1, 1, 0},
+            {0, 0, 0, 0},
+            {0, 0, 0, 0}
+        });
+        
+        // Context-based weights for different scenarios
+        Map<String, double[]> contexts = new HashMap<>();
+        contexts.put("word_start", new double[]{1.2, 1.1, 1.0, 1.0, 1.0, 1.0, 1.0});
+        contexts.put("word_middle", new double[]{1.0, 1.1, 1.2, 1.2, 1.1, 1.0, 1.0});
+        contexts.put("word_end", new double[]{1.0, 1.0, 1.0, 1.0, 1.1, 1.2, 1.0});
+        contexts.put("vowel", new double[]{1.1, 1.2, 1.3, 1.3, 1.2, 1.1, 1.0});
+        contexts.put("consonant", new double[]{1.0, 1.1, 1.1, 1.1, 1.1, 1.0, 1.0});
+        
+        double[] intensityBias = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6};
+        double[] positionWeights = {0.8, 0.9, 1.0, 1.0, 0.9, 0.8, 0.7};
+        
+        return new PatternModel(glyphs, contexts, intensityBias, positionWeights);
+    }
+    
+    /**
+     * Save the model in the current binary format
+     */
+    public void save(Path file) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MODEL_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            
+            writeFloats(out, intensityBias);
+            writeFloats(out, positionWeights);
+            
+            out.writeInt(glyphs.size());
+            for (Map.Entry<Character, double[][]> entry : glyphs.entrySet()) {
+                out.writeChar(entry.getKey());
+                for (double[] row : entry.getValue()) {
+                    for (double weight : row) {
+                        out.writeFloat((float) weight);
+                    }
+                }
+            }
+            
+            out.writeInt(contexts.size());
+            for (Map.Entry<String, double[]> entry : contexts.entrySet()) {
+                byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(key.length);
+                out.write(key);
+                writeFloats(out, entry.getValue());
+            }
+        }
+        
+        // Atomic replace so a running generator never reads a half-written file
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static void writeFloats(DataOutputStream out, double[] values) throws IOException {
+        out.writeByte(values.length);
+        for (double value : values) {
+            out.writeFloat((float) value);
+        }
+    }
+    
+    /**
+     * Load a model file
+     *
+     * @throws IOException if the file is not a model, is truncated, or lacks weights the generator needs
+     */
+    public static PatternModel load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MODEL_MAGIC) {
+                throw new IOException("Not a pattern model file: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported pattern model version " + version + " in " + file);
+            }
+            PatternModel model = read(buffer);
+            model.validate(file);
+            return model;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated pattern model file: " + file, e);
+        }
+    }
+    
+    /**
+     * Single-precision weights plus intensity bias and position weights
+     */
+    private static PatternModel read(ByteBuffer buffer) throws IOException {
+        double[] intensityBias = readFloats(buffer);
+        double[] positionWeights = readFloats(buffer);
+        
+        Map<Character, double[][]> glyphs = new HashMap<>();
+        int glyphCount = readCount(buffer, Character.BYTES + GLYPH_ROWS * GLYPH_COLS * Float.BYTES);
+        for (int i = 0; i < glyphCount; i++) {
+            char c = buffer.getChar();
+            double[][] glyph = new double[GLYPH_ROWS][GLYPH_COLS];
+            for (int day = 0; day < GLYPH_ROWS; day++) {
+                for (int week = 0; week < GLYPH_COLS; week++) {
+                    glyph[day][week] = buffer.getFloat();
+                }
+            }
+            glyphs.put(c, glyph);
+        }
+        
+        Map<String, double[]> contexts = new HashMap<>();
+        int contextCount = readCount(buffer, Short.BYTES + Byte.BYTES);
+        for (int i = 0; i < contextCount; i++) {
+            String key = readKey(buffer);
+            contexts.put(key, readFloats(buffer));
+        }
+        
+        return new PatternModel(glyphs, contexts, intensityBias, positionWeights);
+    }
+    
+    /**
+     * Read a record count, rejecting counts the rest of the file cannot hold
+     */
+    private static int readCount(ByteBuffer buffer, int recordBytes) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / recordBytes) {
+            throw new IOException("Invalid record count " + count + " at offset " + (buffer.position() - Integer.BYTES));
+        }
+        return count;
+    }
+    
+    /**
+     * Check the weights the generator indexes by day and intensity are all there
+     */
+    private void validate(Path file) throws IOException {
+        if (positionWeights.length != GLYPH_ROWS) {
+            throw new IOException("Pattern model " + file + " has " + positionWeights.length
+                + " position weights, expected " + GLYPH_ROWS);
+        }
+        if (intensityBias.length != INTENSITY_LEVELS) {
+            throw new IOException("Pattern model " + file + " has " + intensityBias.length
+                + " intensity bias values, expected " + INTENSITY_LEVELS);
+        }
+        for (String key : REQUIRED_CONTEXTS) {
+            double[] weights = contexts.get(key);
+            if (weights == null || weights.length != GLYPH_ROWS) {
+                throw new IOException("Pattern model " + file + " is missing the " + GLYPH_ROWS
+                    + "-day weights of context '" + key + "'");
+            }
+        }
+    }
+    
+    private static double[] readFloats(ByteBuffer buffer) {
+        double[] values = new double[buffer.get() & 0xFF];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getFloat();
+        }
+        return values;
+    }
+    
+    private static String readKey(ByteBuffer buffer) {
+        byte[] key = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Write the built-in weights to the model file
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : MODEL_FILE);
+        builtIn().save(file);
+        System.out.println("Built-in model written: " + file);
+    }
+}
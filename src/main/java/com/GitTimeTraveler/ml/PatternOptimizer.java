@@ -0,0 +1,254 @@
+package com.GitTimeTraveler.ml;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parallel search over the density/symmetry/continuity parameters
+ *
+ * Runs one simulated-annealing chain per core until the time budget is spent
+ * or the calling thread is interrupted.
+ * Each chain owns a generated base pattern and perturbs the three parameters,
+ * occasionally resampling its base pattern. Candidates are scored by a pluggable
+ * objective, and the best distinct candidates across all chains are returned.
+ */
+public class PatternOptimizer {
+    
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    
+    // Annealing schedule
+    private static final double START_TEMPERATURE = 0.2;
+    private static final double END_TEMPERATURE = 0.002;
+    private static final double STEP_SIZE = 0.15;
+    private static final double RESAMPLE_PROBABILITY = 0.05;
+    
+    /**
+     * Scores a candidate pattern; higher is better
+     */
+    public interface Objective {
+        double score(int[][] pattern);
+    }
+    
+    /**
+     * A scored pattern together with the parameters that produced it
+     */
+    public static class Candidate {
+        public final int[][] pattern;
+        public final double density;
+        public final double symmetry;
+        public final double continuity;
+        public final double score;
+        
+        public Candidate(int[][] pattern, double density, double symmetry, double continuity, double score) {
+            this.pattern = pattern;
+            this.density = density;
+            this.symmetry = symmetry;
+            this.continuity = continuity;
+            this.score = score;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Candidate{density=%.2f, symmetry=%.2f, continuity=%.2f, score=%.4f}",
+                density, symmetry, continuity, score);
+        }
+    }
+    
+    /**
+     * Search for the best patterns for a text within a time budget
+     */
+    public static List<Candidate> optimize(String text, int year, Objective objective, long timeBudgetMillis, int resultCount)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(WORKER_COUNT);
+        
+        try {
+            List<Callable<List<Candidate>>> chains = new ArrayList<>();
+            for (int i = 0; i < WORKER_COUNT; i++) {
+                chains.add(() -> runChain(text, year, objective, deadline, resultCount));
+            }
+            
+            List<Candidate> merged = new ArrayList<>();
+            for (Future<List<Candidate>> chain : executor.invokeAll(chains)) {
+                merged.addAll(chain.get());
+            }
+            return topDistinct(merged, resultCount);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Optimizer chain failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * One annealing chain; keeps its own top candidates
+     */
+    private static List<Candidate> runChain(String text, int year, Objective objective, long deadline, int resultCount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        double span = Math.max(1, deadline - start);
+        
+        int[][] base = PatternGenerator.generatePattern(text, year);
+        Candidate current = evaluate(base, random.nextDouble(), random.nextDouble(), random.nextDouble(), objective);
+        List<Candidate> best = new ArrayList<>();
+        best.add(current);
+        
+        // Interrupted when the caller gives up, e.g. the dialog that asked was closed
+        long now;
+        while ((now = System.nanoTime()) < deadline && !Thread.currentThread().isInterrupted()) {
+            double progress = (now - start) / span;
+            double temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, progress);
+            
+            int[][] nextBase = base;
+            if (random.nextDouble() < RESAMPLE_PROBABILITY) {
+                nextBase = PatternGenerator.generatePattern(text, year);
+            }
+            
+            double scale = STEP_SIZE * (1 - 0.8 * progress);
+            Candidate next = evaluate(nextBase,
+                perturb(current.density, scale, random),
+                perturb(current.symmetry, scale, random),
+                perturb(current.continuity, scale, random),
+                objective);
+            
+            double delta = next.score - current.score;
+            if (delta >= 0 || random.nextDouble() < Math.exp(delta / temperature)) {
+                current = next;
+                base = nextBase;
+                best.add(next);
+                if (best.size() > resultCount * 4) {
+                    best = topDistinct(best, resultCount);
+                }
+            }
+        }
+        
+        return topDistinct(best, resultCount);
+    }
+    
+    private static Candidate evaluate(int[][] base, double density, double symmetry, double continuity, Objective objective) {
+        int[][] pattern = new int[7][];
+        for (int day = 0; day < 7; day++) {
+            pattern[day] = base[day].clone();
+        }
+        PatternGenerator.applyCustomParameters(pattern, density, symmetry, continuity);
+        return new Candidate(pattern, density, symmetry, continuity, objective.score(pattern));
+    }
+    
+    private static double perturb(double value, double scale, Random random) {
+        return Math.max(0, Math.min(1, value + random.nextGaussian() * scale));
+    }
+    
+    /**
+     * Best candidates by score, skipping ones whose pattern equals a better one
+     */
+    private static List<Candidate> topDistinct(List<Candidate> candidates, int count) {
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort((a, b) -> Double.compare(b.score, a.score));
+        
+        List<Candidate> result = new ArrayList<>(count);
+        for (Candidate candidate : sorted) {
+            boolean duplicate = false;
+            for (Candidate kept : result) {
+                if (Arrays.deepEquals(kept.pattern, candidate.pattern)) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                result.add(candidate);
+                if (result.size() == count) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * How well active cells match the text's glyphs (F1 of active cells against the glyph mask)
+     */
+    public static Objective legibility(String text) {
+        int[][] mask = PatternGenerator.generateTextMask(text);
+        return pattern -> {
+            int truePositive = 0, falsePositive = 0, falseNegative = 0;
+            for (int day = 0; day < 7; day++) {
+                for (int week = 0; week < 53; week++) {
+                    boolean active = pattern[day][week] > 0;
+                    boolean expected = mask[day][week] > 0;
+                    if (active && expected) truePositive++;
+                    else if (active) falsePositive++;
+                    else if (expected) falseNegative++;
+                }
+            }
+            int denominator = 2 * truePositive + falsePositive + falseNegative;
+            return denominator == 0 ? 1.0 : 2.0 * truePositive / denominator;
+        };
+    }
+    
+    /**
+     * Fewer commits score higher (1 for an empty pattern, 0 for every cell at 6)
+     */
+    public static Objective commitCount() {
+        return pattern -> {
+            int commits = 0;
+            for (int[] row : pattern) {
+                for (int intensity : row) {
+                    commits += intensity;
+                }
+            }
+            return 1.0 - commits / (7.0 * 53 * 6);
+        };
+    }
+    
+    /**
+     * Smaller intensity jumps between neighbouring active cells score higher
+     */
+    public static Objective edgeSmoothness() {
+        return pattern -> {
+            int jumps = 0, pairs = 0;
+            for (int day = 0; day < 7; day++) {
+                for (int week = 0; week < 53; week++) {
+                    int intensity = pattern[day][week];
+                    if (intensity == 0) continue;
+                    if (week + 1 < 53 && pattern[day][week + 1] > 0) {
+                        jumps += Math.abs(intensity - pattern[day][week + 1]);
+                        pairs++;
+                    }
+                    if (day + 1 < 7 && pattern[day + 1][week] > 0) {
+                        jumps += Math.abs(intensity - pattern[day + 1][week]);
+                        pairs++;
+                    }
+                }
+            }
+            return pairs == 0 ? 1.0 : 1.0 - jumps / (5.0 * pairs);
+        };
+    }
+    
+    /**
+     * Weighted sum of objectives
+     */
+    public static Objective weighted(double[] weights, Objective... objectives) {
+        if (weights.length != objectives.length) {
+            throw new IllegalArgumentException("Need one weight per objective");
+        }
+        return pattern -> {
+            double total = 0;
+            for (int i = 0; i < objectives.length; i++) {
+                total += weights[i] * objectives[i].score(pattern);
+            }
+            return total;
+        };
+    }
+    
+    /**
+     * Default visual score: mostly legibility, then smoothness, then commit count
+     */
+    public static Objective visualScore(String text) {
+        return weighted(new double[]{0.6, 0.25, 0.15}, legibility(text), edgeSmoothness(), commitCount());
+    }
+}
@@ -1,8 +1,19 @@
 package com.GitTimeTraveler.ml;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Training Data Generator for GitHub Contribution Pattern ML Model
@@ -15,58 +26,140 @@ public class TrainingDataGenerator {
     private static final String TRAINING_DATA_FILE = "training_data.txt";
     private static final String CHARACTER_PATTERNS_FILE = "character_patterns.txt";
     
+    // Parallel generation settings
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUE_CAPACITY = 4096;       // Records buffered between producers and the writer
+    private static final int RECORD_CAPACITY = 7 * 54 + 32;
+    private static final int DEFAULT_CHARACTER_SAMPLES = 100;
+    private static final long DRAIN_POLL_MILLIS = 50;
+    
     /**
      * Generate training data from a collection of text samples
      */
     public static void generateTrainingData(List<String> textSamples) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(TRAINING_DATA_FILE))) {
-            writer.println("# GitHub Contribution Pattern Training Data");
-            writer.println("# Format: TEXT|YEAR|PATTERN_DATA");
-            writer.println();
+        generateTrainingData(textSamples, 1);
+    }
+    
+    /**
+     * Generate training data with the given number of samples per text.
+     * Samples are produced on all cores and streamed to disk through a bounded queue.
+     */
+    public static void generateTrainingData(List<String> textSamples, int samplesPerText) {
+        if (textSamples.isEmpty() || samplesPerText <= 0) {
+            return;
+        }
+        
+        long totalSamples = (long) textSamples.size() * samplesPerText;
+        int workers = (int) Math.min(WORKER_COUNT, totalSamples);
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<?>> producers = new ArrayList<>();
+        
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(TRAINING_DATA_FILE), StandardCharsets.UTF_8)) {
+            writer.write("# GitHub Contribution Pattern Training Data\n");
+            writer.write("# Format: TEXT|YEAR|PATTERN_DATA\n");
+            writer.write("\n");
+            
+            // Each worker takes an interleaved slice of the sample index space
+            for (int w = 0; w < workers; w++) {
+                final int worker = w;
+                producers.add(executor.submit(() -> {
+                    StringBuilder record = new StringBuilder(RECORD_CAPACITY);
+                    for (long i = worker; i < totalSamples; i += workers) {
+                        String text = textSamples.get((int) (i / samplesPerText));
+                        record.setLength(0);
+                        appendTrainingSample(text, record);
+                        queue.put(record.toString());
+                    }
+                    return null;
+                }));
+            }
             
-            for (String text : textSamples) {
-                generateTrainingSample(text, writer);
+            // Drain on the calling thread until every producer's future is done. Completion
+            // is never signalled through the queue: a producer interrupted while the queue
+            // is full could not deliver that signal.
+            while (true) {
+                String record = queue.poll(DRAIN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    writer.write(record);
+                } else if (producersDone(producers)) {
+                    // Nothing can be added any more; write what is left
+                    while ((record = queue.poll()) != null) {
+                        writer.write(record);
+                    }
+                    break;
+                }
             }
             
-            System.out.println("Training data generated: " + TRAINING_DATA_FILE);
+            System.out.println("Training data generated: " + TRAINING_DATA_FILE + " (" + totalSamples + " samples)");
             
-        } catch (IOException e) {
+        } catch (IOException | ExecutionException e) {
             System.err.println("Error generating training data: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Training data generation interrupted");
+        } finally {
+            executor.shutdownNow();
         }
     }
     
     /**
-     * Generate a single training sample
+     * True once every producer has finished; rethrows the failure of one that failed
      */
-    private static void generateTrainingSample(String text, PrintWriter writer) {
+    private static boolean producersDone(List<Future<?>> producers) throws InterruptedException, ExecutionException {
+        boolean done = true;
+        for (Future<?> producer : producers) {
+            if (producer.isDone()) {
+                producer.get();
+            } else {
+                done = false;
+            }
+        }
+        return done;
+    }
+    
+    /**
+     * Generate a single training sample and append it as one record
+     */
+    private static void appendTrainingSample(String text, StringBuilder record) {
         int year = 2020 + ThreadLocalRandom.current().nextInt(5); // 2020-2024
         
         // Generate pattern with ML approach
         int[][] pattern = PatternGenerator.generatePattern(text, year);
         
-        // Write training sample
-        writer.println(text + "|" + year + "|" + patternToString(pattern));
+        record.append(text).append('|').append(year).append('|');
+        appendPattern(pattern, record);
+        record.append('\n');
     }
     
     /**
-     * Convert pattern array to string format
+     * Append pattern rows, one line per day without a trailing newline
      */
-    private static String patternToString(int[][] pattern) {
-        StringBuilder sb = new StringBuilder();
+    private static void appendPattern(int[][] pattern, StringBuilder sb) {
         for (int day = 0; day < 7; day++) {
+            if (day > 0) {
+                sb.append('\n');
+            }
             for (int week = 0; week < 53; week++) {
-                sb.append(pattern[day][week]);
+                sb.append((char) ('0' + pattern[day][week]));
             }
-            sb.append("\n");
         }
-        return sb.toString().trim();
     }
     
     /**
      * Generate character-specific patterns for learning
      */
     public static void generateCharacterPatterns() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(CHARACTER_PATTERNS_FILE))) {
+        generateCharacterPatterns(DEFAULT_CHARACTER_SAMPLES);
+    }
+    
+    /**
+     * Generate character-specific patterns using the given number of samples per character
+     */
+    public static void generateCharacterPatterns(int samplesPerCharacter) {
+        ExecutorService executor = Executors.newFixedThreadPool(WORKER_COUNT);
+        
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(CHARACTER_PATTERNS_FILE), StandardCharsets.UTF_8))) {
             writer.println("# Character Pattern Learning Data");
             writer.println("# Format: CHARACTER|INTENSITY_DISTRIBUTION");
             writer.println();
@@ -74,45 +167,68 @@ public class TrainingDataGenerator {
             String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
             
             for (char c : alphabet.toCharArray()) {
-                generateCharacterPattern(c, writer);
+                int[] intensityCounts = generateCharacterHistogram(c, samplesPerCharacter, executor);
+                writeCharacterPattern(c, intensityCounts, writer);
             }
             
             System.out.println("Character patterns generated: " + CHARACTER_PATTERNS_FILE);
             
-        } catch (IOException e) {
+        } catch (IOException | ExecutionException e) {
             System.err.println("Error generating character patterns: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Character pattern generation interrupted");
+        } finally {
+            executor.shutdownNow();
         }
     }
     
     /**
-     * Generate pattern for a specific character
+     * Build the intensity histogram for a character. Each worker counts into its
+     * own int[7] and the partial histograms are merged once all workers finish.
      */
-    private static void generateCharacterPattern(char c, PrintWriter writer) {
-        // Generate multiple samples for this character
-        List<Integer> intensityDistribution = new ArrayList<>();
+    static int[] generateCharacterHistogram(char c, int samples, ExecutorService executor)
+            throws InterruptedException, ExecutionException {
+        String text = String.valueOf(c);
+        int workers = Math.max(1, Math.min(WORKER_COUNT, samples));
+        List<Future<int[]>> partials = new ArrayList<>(workers);
         
-        for (int sample = 0; sample < 100; sample++) {
-            String text = String.valueOf(c);
-            int year = 2020 + ThreadLocalRandom.current().nextInt(5);
-            int[][] pattern = PatternGenerator.generatePattern(text, year);
-            
-            // Collect intensity values
-            for (int day = 0; day < 7; day++) {
-                for (int week = 0; week < 53; week++) {
-                    if (pattern[day][week] > 0) {
-                        intensityDistribution.add(pattern[day][week]);
+        for (int w = 0; w < workers; w++) {
+            // Spread the remainder over the first workers
+            int share = samples / workers + (w < samples % workers ? 1 : 0);
+            partials.add(executor.submit(() -> {
+                int[] counts = new int[7]; // 0-6
+                for (int sample = 0; sample < share; sample++) {
+                    int year = 2020 + ThreadLocalRandom.current().nextInt(5);
+                    int[][] pattern = PatternGenerator.generatePattern(text, year);
+                    
+                    for (int day = 0; day < 7; day++) {
+                        int[] row = pattern[day];
+                        for (int week = 0; week < 53; week++) {
+                            if (row[week] > 0) {
+                                counts[row[week]]++;
+                            }
+                        }
                     }
                 }
-            }
+                return counts;
+            }));
         }
         
-        // Calculate intensity distribution
-        int[] intensityCounts = new int[7]; // 0-6
-        for (int intensity : intensityDistribution) {
-            intensityCounts[intensity]++;
+        int[] intensityCounts = new int[7];
+        for (Future<int[]> partial : partials) {
+            int[] counts = partial.get();
+            for (int i = 0; i < intensityCounts.length; i++) {
+                intensityCounts[i] += counts[i];
+            }
         }
-        
-        // Write character pattern
+        return intensityCounts;
+    }
+    
+    /**
+     * Write the intensity distribution for a character
+     */
+    private static void writeCharacterPattern(char c, int[] intensityCounts, PrintWriter writer) {
         writer.print(c + "|");
         for (int i = 0; i < intensityCounts.length; i++) {
             writer.print(intensityCounts[i]);
@@ -127,6 +243,13 @@ public class TrainingDataGenerator {
      * Generate sample training data
      */
     public static void generateSampleTrainingData() {
+        generateSampleTrainingData(1, DEFAULT_CHARACTER_SAMPLES);
+    }
+    
+    /**
+     * Generate sample training data with configurable sample counts
+     */
+    public static void generateSampleTrainingData(int samplesPerText, int samplesPerCharacter) {
         List<String> sampleTexts = Arrays.asList(
             "HELLO", "WORLD", "GITHUB", "JAVA", "CODE", "PROGRAMMING",
             "PASINDU", "SAMPATH", "MACHINE", "LEARNING", "PATTERN",
@@ -136,8 +259,8 @@ public class TrainingDataGenerator {
             "ACTIVITY", "SIMULATION", "PREDICTION", "CONTEXT"
         );
         
-        generateTrainingData(sampleTexts);
-        generateCharacterPatterns();
+        generateTrainingData(sampleTexts, samplesPerText);
+        generateCharacterPatterns(samplesPerCharacter);
     }
     
     /**
@@ -146,44 +269,23 @@ public class TrainingDataGenerator {
     public static List<TrainingSample> loadTrainingData() {
         List<TrainingSample> samples = new ArrayList<>();
         
-        try (Scanner scanner = new Scanner(new File(TRAINING_DATA_FILE))) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
-                
-                String[] parts = line.split("\\|");
-                if (parts.length >= 3) {
-                    String text = parts[0];
-                    int year = Integer.parseInt(parts[1]);
-                    int[][] pattern = stringToPattern(parts[2]);
-                    
-                    samples.add(new TrainingSample(text, year, pattern));
-                }
-            }
-        } catch (FileNotFoundException e) {
+        try {
+            TrainingDataReader.stream(Paths.get(TRAINING_DATA_FILE), (text, year, cells) ->
+                samples.add(new TrainingSample(text, year, TrainingDataReader.toPattern(cells))));
+        } catch (NoSuchFileException e) {
             System.err.println("Training data file not found: " + TRAINING_DATA_FILE);
+        } catch (IOException e) {
+            System.err.println("Error reading training data: " + e.getMessage());
         }
         
         return samples;
     }
     
     /**
-     * Convert string back to pattern array
+     * Load training data in compact form, building the binary cache on first use
      */
-    private static int[][] stringToPattern(String patternString) {
-        int[][] pattern = new int[7][53];
-        String[] lines = patternString.split("\n");
-        
-        for (int day = 0; day < Math.min(7, lines.length); day++) {
-            String line = lines[day];
-            for (int week = 0; week < Math.min(53, line.length()); week++) {
-                pattern[day][week] = Character.getNumericValue(line.charAt(week));
-            }
-        }
-        
-        return pattern;
+    public static TrainingDataReader.Dataset loadTrainingDataset() throws IOException {
+        return TrainingDataReader.load(Paths.get(TRAINING_DATA_FILE));
     }
     
     /**
@@ -208,10 +310,14 @@ public class TrainingDataGenerator {
     
     /**
      * Main method for generating training data
+     * Usage: TrainingDataGenerator [samplesPerText] [samplesPerCharacter]
      */
     public static void main(String[] args) {
+        int samplesPerText = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int samplesPerCharacter = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CHARACTER_SAMPLES;
+        
         System.out.println("Generating training data for GitHub Contribution Pattern ML Model...");
-        generateSampleTrainingData();
+        generateSampleTrainingData(samplesPerText, samplesPerCharacter);
         System.out.println("Training data generation complete!");
     }
 }
@@ -0,0 +1,518 @@
+package com.GitTimeTraveler.ml;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Streaming reader for the training data written by TrainingDataGenerator
+ *
+ * The text file is memory-mapped and parsed byte by byte, so records are read
+ * without allocating a String per line. Each record is a TEXT|YEAR|ROW0 header
+ * line followed by the remaining six grid rows.
+ *
+ * Parsed datasets can be written to a compact binary cache next to the text file
+ * (two cells per byte, columnar text/year arrays). Later loads map the cache
+ * directly instead of parsing the text again. Cells are held in chunks of
+ * CHUNK_SAMPLES samples, each its own buffer (and its own mapping when read
+ * from the cache), so datasets are not limited to 2 GB of cells.
+ */
+public class TrainingDataReader {
+    
+    public static final int GRID_ROWS = 7;
+    public static final int GRID_COLS = 53;
+    public static final int GRID_CELLS = GRID_ROWS * GRID_COLS;
+    public static final int PACKED_CELLS = (GRID_CELLS + 1) / 2;
+    
+    // Samples per cell buffer; about 186 MB of packed cells
+    private static final int CHUNK_SHIFT = 20;
+    public static final int CHUNK_SAMPLES = 1 << CHUNK_SHIFT;
+    
+    // Binary cache layout
+    private static final int CACHE_MAGIC = 0x47545444; // "GTTD"
+    private static final int CACHE_VERSION = 1;
+    private static final String CACHE_EXTENSION = ".bin";
+    
+    // Mapping window for the text file; records never get close to the slack size
+    private static final long WINDOW_SIZE = 64L << 20;
+    private static final int WINDOW_SLACK = 64 * 1024;
+    
+    /**
+     * Receives records as they are parsed. The cells array is reused between
+     * calls and holds intensities in day-major order (day * 53 + week).
+     */
+    public interface SampleConsumer {
+        void accept(String text, int year, byte[] cells);
+    }
+    
+    /**
+     * Stream every record in a training data text file
+     *
+     * @return number of records read
+     */
+    public static long stream(Path textFile, SampleConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(textFile, StandardOpenOption.READ)) {
+            return new TextParser(channel).parse(consumer);
+        }
+    }
+    
+    /**
+     * Load a dataset, using the binary cache when it is newer than the text file.
+     * A missing or stale cache is rebuilt after parsing the text.
+     */
+    public static Dataset load(Path textFile) throws IOException {
+        Path cacheFile = cachePathFor(textFile);
+        Dataset cached = readCache(cacheFile, textFile);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Dataset dataset = parse(textFile);
+        writeCache(dataset, cacheFile, textFile);
+        return dataset;
+    }
+    
+    /**
+     * Parse a training data text file into an in-memory dataset without touching the cache
+     */
+    public static Dataset parse(Path textFile) throws IOException {
+        DatasetBuilder builder = new DatasetBuilder();
+        stream(textFile, builder::add);
+        return builder.build();
+    }
+    
+    /**
+     * Binary cache file used for a training data text file
+     */
+    public static Path cachePathFor(Path textFile) {
+        String name = textFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return textFile.resolveSibling(base + CACHE_EXTENSION);
+    }
+    
+    /**
+     * Write a dataset to the binary cache, stamped with the source file's size and modification time
+     */
+    public static void writeCache(Dataset dataset, Path cacheFile, Path sourceFile) throws IOException {
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16))) {
+            out.writeInt(CACHE_MAGIC);
+            out.writeInt(CACHE_VERSION);
+            out.writeLong(Files.size(sourceFile));
+            out.writeLong(Files.getLastModifiedTime(sourceFile).toMillis());
+            out.writeInt(dataset.texts.length);
+            out.writeInt(dataset.size);
+            
+            for (String text : dataset.texts) {
+                byte[] utf = text.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(utf.length);
+                out.write(utf);
+            }
+            for (int i = 0; i < dataset.size; i++) {
+                out.writeShort(dataset.textIndex[i]);
+            }
+            for (int i = 0; i < dataset.size; i++) {
+                out.writeShort(dataset.years[i]);
+            }
+            
+            byte[] chunk = new byte[1 << 16];
+            for (ByteBuffer cells : dataset.packedCells) {
+                ByteBuffer packed = cells.duplicate();
+                packed.clear();
+                while (packed.hasRemaining()) {
+                    int length = Math.min(chunk.length, packed.remaining());
+                    packed.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+        }
+        
+        Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    /**
+     * Map the binary cache if it exists and still matches the source file
+     *
+     * @return the cached dataset, or null when the cache is missing or stale
+     */
+    public static Dataset readCache(Path cacheFile, Path sourceFile) throws IOException {
+        if (!Files.exists(cacheFile) || !Files.exists(sourceFile)) {
+            return null;
+        }
+        
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            
+            // Header and texts are small and variable-length: read them as a stream
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            if (fileSize < 32 || in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION) {
+                return null;
+            }
+            if (in.readLong() != Files.size(sourceFile)
+                    || in.readLong() != Files.getLastModifiedTime(sourceFile).toMillis()) {
+                return null;
+            }
+            
+            int textCount = in.readInt();
+            int size = in.readInt();
+            if (textCount < 0 || textCount > fileSize / 2 || size < 0) {
+                return null;
+            }
+            
+            long position = 32;
+            String[] texts = new String[textCount];
+            for (int i = 0; i < textCount; i++) {
+                byte[] utf = new byte[in.readUnsignedShort()];
+                in.readFully(utf);
+                texts[i] = new String(utf, StandardCharsets.UTF_8);
+                position += 2 + utf.length;
+            }
+            
+            long cellsStart = position + 4L * size;
+            if (cellsStart + (long) size * PACKED_CELLS > fileSize) {
+                return null;
+            }
+            
+            short[] textIndex = new short[size];
+            map(channel, cacheFile, position, 2L * size).asShortBuffer().get(textIndex);
+            
+            short[] years = new short[size];
+            map(channel, cacheFile, position + 2L * size, 2L * size).asShortBuffer().get(years);
+            
+            // Cells stay in the mapping, one mapping per chunk; nothing is copied onto the heap
+            ByteBuffer[] packedCells = new ByteBuffer[(int) (((long) size + CHUNK_SAMPLES - 1) >>> CHUNK_SHIFT)];
+            for (int chunk = 0; chunk < packedCells.length; chunk++) {
+                long first = (long) chunk << CHUNK_SHIFT;
+                long samples = Math.min(CHUNK_SAMPLES, size - first);
+                packedCells[chunk] = map(channel, cacheFile, cellsStart + first * PACKED_CELLS, samples * PACKED_CELLS);
+            }
+            
+            return new Dataset(texts, textIndex, years, packedCells, size);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Map one region of the cache; a single mapping cannot exceed 2 GB
+     */
+    private static MappedByteBuffer map(FileChannel channel, Path cacheFile, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Training data cache " + cacheFile + " has too many samples to map ("
+                + length + " bytes in one region)");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+    
+    /**
+     * Compact, read-only view of a training set
+     */
+    public static class Dataset {
+        private final String[] texts;
+        private final short[] textIndex;
+        private final short[] years;
+        private final ByteBuffer[] packedCells;   // CHUNK_SAMPLES samples per buffer
+        private final int size;
+        
+        Dataset(String[] texts, short[] textIndex, short[] years, ByteBuffer[] packedCells, int size) {
+            this.texts = texts;
+            this.textIndex = textIndex;
+            this.years = years;
+            this.packedCells = packedCells;
+            this.size = size;
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        public String text(int sample) {
+            return texts[textIndex[sample]];
+        }
+        
+        public int year(int sample) {
+            return years[sample];
+        }
+        
+        /**
+         * Intensity (0-6) for a single cell
+         */
+        public int cell(int sample, int day, int week) {
+            int index = day * GRID_COLS + week;
+            int packed = chunk(sample).get(offset(sample) + (index >> 1));
+            return (index & 1) == 0 ? packed & 0x0F : (packed >> 4) & 0x0F;
+        }
+        
+        /**
+         * Unpack all cells of a sample into a reusable day-major array
+         */
+        public void unpack(int sample, byte[] cells) {
+            ByteBuffer chunk = chunk(sample);
+            int base = offset(sample);
+            for (int i = 0; i < PACKED_CELLS; i++) {
+                int packed = chunk.get(base + i);
+                int index = i << 1;
+                cells[index] = (byte) (packed & 0x0F);
+                if (index + 1 < GRID_CELLS) {
+                    cells[index + 1] = (byte) ((packed >> 4) & 0x0F);
+                }
+            }
+        }
+        
+        private ByteBuffer chunk(int sample) {
+            return packedCells[sample >>> CHUNK_SHIFT];
+        }
+        
+        /**
+         * Offset of a sample's cells within its chunk
+         */
+        private static int offset(int sample) {
+            return (sample & (CHUNK_SAMPLES - 1)) * PACKED_CELLS;
+        }
+        
+        /**
+         * Copy a sample into a fresh 7x53 pattern
+         */
+        public int[][] pattern(int sample) {
+            byte[] cells = new byte[GRID_CELLS];
+            unpack(sample, cells);
+            return toPattern(cells);
+        }
+    }
+    
+    /**
+     * Convert day-major cells into a 7x53 pattern
+     */
+    public static int[][] toPattern(byte[] cells) {
+        int[][] pattern = new int[GRID_ROWS][GRID_COLS];
+        for (int day = 0; day < GRID_ROWS; day++) {
+            for (int week = 0; week < GRID_COLS; week++) {
+                pattern[day][week] = cells[day * GRID_COLS + week];
+            }
+        }
+        return pattern;
+    }
+    
+    /**
+     * Accumulates parsed records into growable primitive arrays, cells in CHUNK_SAMPLES chunks
+     */
+    private static class DatasetBuilder {
+        private final Map<String, Short> textIds = new HashMap<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<byte[]> fullChunks = new ArrayList<>();
+        private short[] textIndex = new short[1024];
+        private short[] years = new short[1024];
+        private byte[] packed = new byte[1024 * PACKED_CELLS];   // chunk being filled
+        private int size;
+        
+        void add(String text, int year, byte[] cells) {
+            if (size == textIndex.length) {
+                int capacity = Math.multiplyExact(size, 2);
+                textIndex = Arrays.copyOf(textIndex, capacity);
+                years = Arrays.copyOf(years, capacity);
+            }
+            int slot = size & (CHUNK_SAMPLES - 1);
+            if (slot == 0 && size > 0) {
+                fullChunks.add(packed);
+                packed = new byte[1024 * PACKED_CELLS];
+            } else if ((slot + 1) * PACKED_CELLS > packed.length) {
+                packed = Arrays.copyOf(packed, Math.min(packed.length * 2, CHUNK_SAMPLES * PACKED_CELLS));
+            }
+            
+            Short id = textIds.get(text);
+            if (id == null) {
+                if (texts.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct training texts");
+                }
+                id = (short) texts.size();
+                textIds.put(text, id);
+                texts.add(text);
+            }
+            
+            textIndex[size] = id;
+            years[size] = (short) year;
+            
+            int base = slot * PACKED_CELLS;
+            for (int i = 0; i < GRID_CELLS; i += 2) {
+                int high = i + 1 < GRID_CELLS ? cells[i + 1] : 0;
+                packed[base + (i >> 1)] = (byte) (cells[i] | (high << 4));
+            }
+            size++;
+        }
+        
+        Dataset build() {
+            ByteBuffer[] chunks = new ByteBuffer[fullChunks.size() + 1];
+            for (int i = 0; i < fullChunks.size(); i++) {
+                chunks[i] = ByteBuffer.wrap(fullChunks.get(i), 0, CHUNK_SAMPLES * PACKED_CELLS).slice();
+            }
+            int last = size - (fullChunks.size() << CHUNK_SHIFT);
+            chunks[fullChunks.size()] = ByteBuffer.wrap(packed, 0, last * PACKED_CELLS).slice();
+            return new Dataset(texts.toArray(new String[0]), textIndex, years, chunks, size);
+        }
+    }
+    
+    /**
+     * Byte-level parser over a sliding memory-mapped window
+     */
+    private static class TextParser {
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer window;
+        private long windowStart;
+        
+        private final byte[] cells = new byte[GRID_CELLS];
+        private byte[] textBytes = new byte[64];
+        private byte[] lastTextBytes = new byte[0];
+        private String lastText;
+        private int lastYear;
+        
+        TextParser(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+        }
+        
+        long parse(SampleConsumer consumer) throws IOException {
+            long records = 0;
+            remap(0);
+            
+            while (hasMore()) {
+                ensureWindow();
+                int b = peek();
+                
+                if (b == '\n' || b == '\r' || b == ' ' || b == '\t') {
+                    next();
+                } else if (b == '#') {
+                    skipLine();
+                } else if (parseRecord()) {
+                    consumer.accept(lastText, lastYear, cells);
+                    records++;
+                }
+            }
+            
+            return records;
+        }
+        
+        /**
+         * Parse TEXT|YEAR|ROW0 followed by rows 1-6
+         */
+        private boolean parseRecord() {
+            int length = 0;
+            while (hasMore() && peek() != '|' && peek() != '\n') {
+                if (length == textBytes.length) {
+                    textBytes = Arrays.copyOf(textBytes, length * 2);
+                }
+                textBytes[length++] = (byte) next();
+            }
+            if (!hasMore() || next() != '|') {
+                return false; // Not a record line
+            }
+            
+            int year = 0;
+            while (hasMore() && peek() >= '0' && peek() <= '9') {
+                year = year * 10 + (next() - '0');
+            }
+            if (!hasMore() || next() != '|') {
+                skipLine();
+                return false;
+            }
+            
+            Arrays.fill(cells, (byte) 0);
+            for (int day = 0; day < GRID_ROWS && hasMore(); day++) {
+                readRow(day);
+            }
+            
+            resolveText(length);
+            lastYear = year;
+            return true;
+        }
+        
+        /**
+         * Read one row of digits up to and including its line terminator
+         */
+        private void readRow(int day) {
+            int week = 0;
+            int base = day * GRID_COLS;
+            while (hasMore()) {
+                int b = next();
+                if (b == '\n') {
+                    return;
+                }
+                if (week < GRID_COLS) {
+                    cells[base + week] = (byte) (b >= '0' && b <= '6' ? b - '0' : 0);
+                }
+                if (b != '\r') {
+                    week++;
+                }
+            }
+        }
+        
+        /**
+         * Reuse the previous String when consecutive records share their text
+         */
+        private void resolveText(int length) {
+            if (lastText != null && Arrays.equals(textBytes, 0, length, lastTextBytes, 0, lastTextBytes.length)) {
+                return;
+            }
+            lastTextBytes = Arrays.copyOf(textBytes, length);
+            lastText = new String(lastTextBytes, StandardCharsets.UTF_8);
+        }
+        
+        private void skipLine() {
+            while (hasMore() && next() != '\n') {
+                // Skip to end of line
+            }
+        }
+        
+        private boolean hasMore() {
+            return windowStart + window.position() < fileSize;
+        }
+        
+        private int peek() {
+            if (!window.hasRemaining()) {
+                slide();
+            }
+            return window.get(window.position()) & 0xFF;
+        }
+        
+        private int next() {
+            if (!window.hasRemaining()) {
+                slide();
+            }
+            return window.get() & 0xFF;
+        }
+        
+        /**
+         * Slide the window forward before a record so it never straddles a boundary
+         */
+        private void ensureWindow() {
+            long end = windowStart + window.limit();
+            if (window.remaining() < WINDOW_SLACK && end < fileSize) {
+                slide();
+            }
+        }
+        
+        private void slide() {
+            try {
+                remap(windowStart + window.position());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        private void remap(long start) throws IOException {
+            long length = Math.min(WINDOW_SIZE, fileSize - start);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            windowStart = start;
+        }
+    }
+}
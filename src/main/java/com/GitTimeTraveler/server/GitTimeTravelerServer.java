@@ -0,0 +1,729 @@
+package com.GitTimeTraveler.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.GitTimeTraveler.cli.Json;
+import com.GitTimeTraveler.jobs.CommitJob;
+import com.GitTimeTraveler.jobs.CommitJobQueue;
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.ml.PatternGenerator;
+import com.GitTimeTraveler.ml.PatternOptimizer;
+import com.GitTimeTraveler.service.FileService;
+import com.GitTimeTraveler.service.PatternService;
+import com.GitTimeTraveler.service.ServiceFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP API
+ *
+ * Serves pattern generation, the pattern library, script export and commit
+ * jobs as JSON over HTTP on the loopback interface. Parameters come from the
+ * query string or an application/x-www-form-urlencoded body; a pattern is 7
+ * comma-separated rows of 53 digits 0-6.
+ *
+ * Listening on loopback does not keep web pages out: a browser will send a
+ * form POST from any site, or from a DNS-rebinding host, to localhost. So a
+ * request is refused unless its Host is this machine's loopback name and port,
+ * it carries no Origin other than that, and (except /api/health) it has an
+ * X-Gitt-Token header with the token printed at startup. A custom header
+ * cannot be sent cross-site without a CORS preflight, which is never granted.
+ *
+ *   GET    /api/health
+ *   POST   /api/generate        text, year [, density, symmetry, continuity]
+ *   POST   /api/optimize        text, year [, budgetMillis, results]
+ *   GET    /api/patterns        [query, offset, limit]
+ *   GET    /api/patterns/NAME
+ *   PUT    /api/patterns/NAME   text, year, pattern
+ *   DELETE /api/patterns/NAME
+ *   GET    /api/similar         name | text, year [, pattern, limit, distance]
+ *   POST   /api/export          name | text, year [, pattern]
+ *   POST   /api/jobs            repository, name | text, year [, pattern, priority]
+ *   GET    /api/jobs
+ *   GET    /api/jobs/ID
+ *   GET    /api/queue
+ *
+ * Each request runs on its own virtual thread when the runtime has them
+ * (JDK 21+) and on a fixed pool otherwise; request threads only parse,
+ * validate and wait. Generation runs on one thread per core behind a bounded
+ * queue, and one optimization (which uses every core itself) runs at a time;
+ * when either is saturated the request gets 503 instead of piling up. Commit
+ * jobs go to a CommitJobQueue logged on disk, run in the background and are
+ * polled by id; queued jobs survive a restart of the server.
+ *
+ * Usage: java -cp target/classes com.GitTimeTraveler.server.GitTimeTravelerServer
+ *            [--port N] [--jobs FILE] [--workers N] [--token TOKEN]
+ */
+public class GitTimeTravelerServer {
+    
+    public static final int DEFAULT_PORT = 8765;
+    public static final String DEFAULT_JOB_LOG = "commit_jobs.log";
+    public static final int DEFAULT_JOB_WORKERS = 4;
+    
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    private static final int BACKLOG = 1024;
+    private static final int REQUEST_THREADS = 64;
+    private static final int GENERATION_QUEUE = 256;
+    private static final long GENERATION_TIMEOUT_SECONDS = 30;
+    private static final long DEFAULT_OPTIMIZE_MILLIS = 2000;
+    private static final long MAX_OPTIMIZE_MILLIS = 10_000;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final String TOKEN_HEADER = "X-Gitt-Token";
+    private static final int TOKEN_BYTES = 24;
+    
+    /**
+     * Request failure with its HTTP status
+     */
+    static class ApiException extends Exception {
+        final int status;
+        
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+    
+    /**
+     * Status code and JSON body of a handled request
+     */
+    private static class Response {
+        final int status;
+        final Json body;
+        
+        Response(int status, Json body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+    
+    /**
+     * Handles the requests of one context; path is the decoded remainder after the context
+     */
+    private interface Endpoint {
+        Response handle(String method, String path, Map<String, String> params) throws Exception;
+    }
+    
+    /**
+     * Pattern plus the text and year it belongs to
+     */
+    private static class PatternSource {
+        final String text;
+        final int year;
+        final int[][] pattern;
+        
+        PatternSource(String text, int year, int[][] pattern) {
+            this.text = text;
+            this.year = year;
+            this.pattern = pattern;
+        }
+    }
+    
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final ThreadPoolExecutor generationPool;
+    private final Semaphore optimizerSlot = new Semaphore(1);
+    private final ReadWriteLock libraryLock = new ReentrantReadWriteLock();
+    private final CommitJobQueue jobQueue;
+    private final byte[] token;
+    
+    /**
+     * @param token value clients must send in the X-Gitt-Token header
+     */
+    public GitTimeTravelerServer(int port, CommitJobQueue jobQueue, String token) throws IOException {
+        this.jobQueue = jobQueue;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        requestExecutor = createRequestExecutor();
+        int cores = Runtime.getRuntime().availableProcessors();
+        generationPool = new ThreadPoolExecutor(cores, cores, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(GENERATION_QUEUE), threads("gitt-generate"));
+        
+        server.setExecutor(requestExecutor);
+        route("/api/health", (method, path, params) -> ok(new Json().put("status", "ok")));
+        route("/api/generate", this::generate);
+        route("/api/optimize", this::optimize);
+        route("/api/patterns", this::patterns);
+        route("/api/similar", this::similar);
+        route("/api/export", this::export);
+        route("/api/jobs", this::jobs);
+        route("/api/queue", this::queue);
+    }
+    
+    public static void main(String[] args) throws IOException {
+        // Headless like the CLI: text is drawn with the built-in bitmap font
+        if (System.getProperty(PatternGenerator.GLYPHS_PROPERTY) == null) {
+            System.setProperty(PatternGenerator.GLYPHS_PROPERTY, "bitmap");
+        }
+        Metrics.configure();
+        
+        int port = DEFAULT_PORT;
+        Path jobLog = Paths.get(DEFAULT_JOB_LOG);
+        int workers = Math.min(DEFAULT_JOB_WORKERS, Runtime.getRuntime().availableProcessors());
+        String token = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--port")) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--jobs")) {
+                jobLog = Paths.get(args[i + 1]);
+            } else if (args[i].equals("--workers")) {
+                workers = Math.max(1, Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--token")) {
+                token = args[i + 1];
+            }
+        }
+        
+        CommitJobQueue jobQueue = new CommitJobQueue(jobLog, workers, ServiceFactory::getGitService);
+        if (token == null) {
+            token = newToken();
+        }
+        GitTimeTravelerServer server = new GitTimeTravelerServer(port, jobQueue, token);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            try {
+                jobQueue.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        System.out.println(new Json()
+            .put("listening", "http://127.0.0.1:" + server.getPort() + "/api")
+            .put("tokenHeader", TOKEN_HEADER)
+            .put("token", token));
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    /**
+     * Stop accepting requests, wait up to delay seconds for running ones, then stop the pools
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        requestExecutor.shutdownNow();
+        generationPool.shutdownNow();
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    private Response generate(String method, String path, Map<String, String> params) throws Exception {
+        requireMethod(method, "GET", "POST");
+        String text = require(params, "text");
+        int year = parseYear(params);
+        
+        int[][] pattern;
+        if (params.containsKey("density") || params.containsKey("symmetry") || params.containsKey("continuity")) {
+            double density = parseFraction(params, "density");
+            double symmetry = parseFraction(params, "symmetry");
+            double continuity = parseFraction(params, "continuity");
+            pattern = compute(() -> patternService().generateCustomPattern(text, year, density, symmetry, continuity));
+        } else {
+            pattern = compute(() -> patternService().generateMLPattern(text, year));
+        }
+        return ok(describe(new PatternSource(text, year, pattern)));
+    }
+    
+    private Response optimize(String method, String path, Map<String, String> params) throws Exception {
+        requireMethod(method, "GET", "POST");
+        String text = require(params, "text");
+        int year = parseYear(params);
+        long budget = Math.min(MAX_OPTIMIZE_MILLIS, parseInt(params, "budgetMillis", (int) DEFAULT_OPTIMIZE_MILLIS));
+        int results = Math.max(1, parseInt(params, "results", 3));
+        
+        // One optimization already keeps every core busy
+        if (!optimizerSlot.tryAcquire(budget, TimeUnit.MILLISECONDS)) {
+            throw new ApiException(503, "Optimizer busy, try again later");
+        }
+        List<PatternOptimizer.Candidate> candidates;
+        try {
+            candidates = patternService().optimizePattern(text, year, budget, results);
+        } finally {
+            optimizerSlot.release();
+        }
+        
+        List<Json> described = new ArrayList<>();
+        for (PatternOptimizer.Candidate candidate : candidates) {
+            described.add(describe(new PatternSource(text, year, candidate.pattern))
+                .put("density", candidate.density)
+                .put("symmetry", candidate.symmetry)
+                .put("continuity", candidate.continuity)
+                .put("score", candidate.score));
+        }
+        return ok(new Json().put("text", text).put("year", year).putObjects("candidates", described));
+    }
+    
+    private Response patterns(String method, String name, Map<String, String> params) throws Exception {
+        if (name.isEmpty()) {
+            requireMethod(method, "GET");
+            libraryLock.readLock().lock();
+            try {
+                if (!params.containsKey("query") && !params.containsKey("offset") && !params.containsKey("limit")) {
+                    return ok(new Json().putStrings("patterns", Arrays.asList(fileService().getAvailablePatternNames())));
+                }
+                int offset = parseInt(params, "offset", 0);
+                int limit = parseInt(params, "limit", 100);
+                if (offset < 0 || limit < 1) {
+                    throw new IllegalArgumentException("offset must not be negative and limit must be at least 1");
+                }
+                FileService.NamePage page = fileService().findPatternNames(params.getOrDefault("query", ""), offset, limit);
+                return ok(new Json().put("total", page.total).put("offset", offset).putStrings("patterns", page.names));
+            } finally {
+                libraryLock.readLock().unlock();
+            }
+        }
+        
+        switch (method) {
+            case "GET":
+                PatternSource source = loadSaved(name);
+                return ok(describe(source).put("name", name));
+            case "PUT":
+                String text = require(params, "text");
+                int year = parseYear(params);
+                int[][] pattern = parsePattern(require(params, "pattern"));
+                libraryLock.writeLock().lock();
+                try {
+                    fileService().savePattern(name, text, year, pattern);
+                } finally {
+                    libraryLock.writeLock().unlock();
+                }
+                return ok(describe(new PatternSource(text, year, pattern)).put("saved", name));
+            case "DELETE":
+                libraryLock.writeLock().lock();
+                try {
+                    if (fileService().loadPattern(name) == null) {
+                        throw new ApiException(404, "Pattern not found: " + name);
+                    }
+                    fileService().deletePattern(name);
+                } finally {
+                    libraryLock.writeLock().unlock();
+                }
+                return ok(new Json().put("deleted", name));
+            default:
+                throw new ApiException(405, "Method not allowed: " + method);
+        }
+    }
+    
+    private Response similar(String method, String path, Map<String, String> params) throws Exception {
+        requireMethod(method, "GET", "POST");
+        PatternSource source = resolvePattern(params);
+        int limit = parseInt(params, "limit", 10);
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        FileService.Distance distance;
+        try {
+            distance = FileService.Distance.valueOf(params.getOrDefault("distance", "l1").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid distance: " + params.get("distance"));
+        }
+        
+        List<FileService.PatternMatch> found;
+        libraryLock.readLock().lock();
+        try {
+            found = fileService().findSimilarPatterns(source.pattern, limit, distance);
+        } finally {
+            libraryLock.readLock().unlock();
+        }
+        List<Json> matches = new ArrayList<>();
+        for (FileService.PatternMatch match : found) {
+            matches.add(new Json().put("name", match.name).put("distance", match.distance));
+        }
+        return ok(new Json().put("distance", distance.name().toLowerCase()).putObjects("matches", matches));
+    }
+    
+    private Response export(String method, String path, Map<String, String> params) throws Exception {
+        requireMethod(method, "GET", "POST");
+        PatternSource source = resolvePattern(params);
+        String commands = ServiceFactory.getGitService().generateCommitCommands(source.pattern, source.year, source.text);
+        
+        List<String> commits = new ArrayList<>();
+        for (String line : commands.split("\n")) {
+            if (line.startsWith("git commit")) {
+                commits.add(line);
+            }
+        }
+        return ok(new Json()
+            .put("text", source.text)
+            .put("year", source.year)
+            .put("commits", commits.size())
+            .putStrings("commands", commits));
+    }
+    
+    private Response jobs(String method, String id, Map<String, String> params) throws Exception {
+        if (!id.isEmpty()) {
+            requireMethod(method, "GET");
+            CommitJob job;
+            try {
+                job = jobQueue.getJob(Long.parseLong(id));
+            } catch (NumberFormatException e) {
+                job = null;
+            }
+            if (job == null) {
+                throw new ApiException(404, "Job not found: " + id);
+            }
+            return ok(describe(job));
+        }
+        
+        if (method.equals("GET")) {
+            List<Json> all = new ArrayList<>();
+            for (CommitJob job : jobQueue.getJobs()) {
+                all.add(describe(job));
+            }
+            return ok(new Json().putObjects("jobs", all));
+        }
+        
+        requireMethod(method, "POST");
+        Path repository = Paths.get(require(params, "repository")).toAbsolutePath().normalize();
+        if (!Files.isDirectory(repository)) {
+            throw new ApiException(400, "Not a directory: " + repository);
+        }
+        int priority = parseInt(params, "priority", 0);
+        PatternSource source = resolvePattern(params);
+        
+        CommitJob job = jobQueue.submit(repository, source.text, source.year, source.pattern, priority);
+        return new Response(202, describe(job));
+    }
+    
+    private Response queue(String method, String path, Map<String, String> params) throws Exception {
+        requireMethod(method, "GET");
+        CommitJobQueue.Status status = jobQueue.getStatus();
+        List<Json> running = new ArrayList<>();
+        for (CommitJob job : status.running) {
+            running.add(describe(job));
+        }
+        return ok(new Json()
+            .put("queued", status.queued)
+            .put("running", status.running.size())
+            .put("succeeded", status.succeeded)
+            .put("failed", status.failed)
+            .put("commitsPerSecond", status.commitsPerSecond)
+            .put("jobsPerMinute", status.jobsPerMinute)
+            .putObjects("runningJobs", running));
+    }
+    
+    /**
+     * Pattern from a saved name, from a pattern parameter, or generated from text and year
+     */
+    private PatternSource resolvePattern(Map<String, String> params) throws Exception {
+        if (params.containsKey("name")) {
+            return loadSaved(params.get("name"));
+        }
+        String text = require(params, "text");
+        int year = parseYear(params);
+        if (params.containsKey("pattern")) {
+            return new PatternSource(text, year, parsePattern(params.get("pattern")));
+        }
+        return new PatternSource(text, year, compute(() -> patternService().generateMLPattern(text, year)));
+    }
+    
+    private PatternSource loadSaved(String name) throws Exception {
+        FileService.SavedPattern saved;
+        libraryLock.readLock().lock();
+        try {
+            saved = fileService().loadPattern(name);
+        } finally {
+            libraryLock.readLock().unlock();
+        }
+        if (saved == null) {
+            throw new ApiException(404, "Pattern not found: " + name);
+        }
+        return new PatternSource(saved.text, saved.year, saved.pattern);
+    }
+    
+    /**
+     * Run CPU-bound work on the generation pool and wait for it; 503 when the pool is saturated
+     */
+    private <T> T compute(Callable<T> task) throws Exception {
+        Future<T> future;
+        try {
+            future = generationPool.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ApiException(503, "Generator busy, try again later");
+        }
+        try {
+            return future.get(GENERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ApiException(503, "Generation timed out");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+    
+    private static PatternService patternService() {
+        return ServiceFactory.getPatternService();
+    }
+    
+    private static FileService fileService() {
+        return ServiceFactory.getFileService();
+    }
+    
+    private void route(String context, Endpoint endpoint) {
+        server.createContext(context, exchange -> serve(exchange, context, endpoint));
+    }
+    
+    private void serve(HttpExchange exchange, String context, Endpoint endpoint) throws IOException {
+        Response response;
+        try {
+            String path = exchange.getRequestURI().getRawPath().substring(context.length());
+            if (!path.isEmpty() && !path.startsWith("/")) {
+                throw new ApiException(404, "Not found: " + exchange.getRequestURI().getPath());
+            }
+            path = URLDecoder.decode(path.isEmpty() ? path : path.substring(1), StandardCharsets.UTF_8);
+            checkCaller(exchange, context);
+            response = endpoint.handle(exchange.getRequestMethod(), path, parameters(exchange));
+        } catch (ApiException e) {
+            response = new Response(e.status, new Json().put("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            response = new Response(400, new Json().put("error", String.valueOf(e.getMessage())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = new Response(503, new Json().put("error", "Server shutting down"));
+        } catch (Exception e) {
+            response = new Response(500, new Json().put("error", String.valueOf(e.getMessage())));
+        }
+        
+        byte[] body = (response.body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    /**
+     * Refuse requests that may come from a web page rather than a local client
+     */
+    private void checkCaller(HttpExchange exchange, String context) throws ApiException {
+        int port = getPort();
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null || !isLoopbackAuthority(host, port)) {
+            throw new ApiException(403, "Forbidden host: " + host);
+        }
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        if (origin != null && !(origin.startsWith("http://") && isLoopbackAuthority(origin.substring(7), port))) {
+            throw new ApiException(403, "Forbidden origin: " + origin);
+        }
+        if (context.equals("/api/health")) {
+            return;
+        }
+        String sent = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        if (sent == null || !MessageDigest.isEqual(token, sent.getBytes(StandardCharsets.UTF_8))) {
+            throw new ApiException(401, "Missing or wrong " + TOKEN_HEADER + " header");
+        }
+    }
+    
+    private static boolean isLoopbackAuthority(String authority, int port) {
+        String suffix = ":" + port;
+        return authority.equals("127.0.0.1" + suffix)
+            || authority.equals("localhost" + suffix)
+            || authority.equals("[::1]" + suffix);
+    }
+    
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+    
+    /**
+     * Query string parameters, overridden by form-encoded body parameters
+     */
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException, ApiException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body too large");
+            }
+            parseForm(new String(body, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+    
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8).trim(),
+                URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * Parse 7 rows of 53 digits 0-6, separated by commas, semicolons or whitespace
+     */
+    private static int[][] parsePattern(String value) {
+        String[] rows = value.trim().split("[,;\\s]+");
+        if (rows.length != GRID_ROWS) {
+            throw new IllegalArgumentException("Pattern needs " + GRID_ROWS + " rows, found " + rows.length);
+        }
+        int[][] pattern = new int[GRID_ROWS][GRID_COLS];
+        for (int row = 0; row < GRID_ROWS; row++) {
+            if (rows[row].length() != GRID_COLS || !rows[row].matches("[0-6]+")) {
+                throw new IllegalArgumentException("Pattern row " + row + " must be " + GRID_COLS + " digits 0-6");
+            }
+            for (int col = 0; col < GRID_COLS; col++) {
+                pattern[row][col] = rows[row].charAt(col) - '0';
+            }
+        }
+        return pattern;
+    }
+    
+    private Json describe(PatternSource source) {
+        List<String> rows = new ArrayList<>();
+        for (int[] row : source.pattern) {
+            StringBuilder digits = new StringBuilder(row.length);
+            for (int intensity : row) {
+                digits.append(intensity);
+            }
+            rows.add(digits.toString());
+        }
+        return new Json()
+            .put("text", source.text)
+            .put("year", source.year)
+            .put("activeCells", patternService().getActiveCellsCount(source.pattern))
+            .putStrings("pattern", rows);
+    }
+    
+    private static Json describe(CommitJob job) {
+        return new Json()
+            .put("id", job.getId())
+            .put("priority", job.getPriority())
+            .put("repository", job.getRepository().toString())
+            .put("text", job.getText())
+            .put("year", job.getYear())
+            .put("state", job.getState().name().toLowerCase())
+            .put("current", job.getCurrent())
+            .put("total", job.getTotal())
+            .put("message", job.getMessage());
+    }
+    
+    private static Response ok(Json body) {
+        return new Response(200, body);
+    }
+    
+    private static void requireMethod(String method, String... allowed) throws ApiException {
+        for (String candidate : allowed) {
+            if (candidate.equals(method)) {
+                return;
+            }
+        }
+        throw new ApiException(405, "Method not allowed: " + method);
+    }
+    
+    private static String require(Map<String, String> params, String key) {
+        String value = params.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + key);
+        }
+        return value;
+    }
+    
+    private static int parseYear(Map<String, String> params) {
+        String value = require(params, "year");
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid year: " + value);
+        }
+    }
+    
+    private static int parseInt(Map<String, String> params, String key, int defaultValue) {
+        String value = params.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+    
+    private static double parseFraction(Map<String, String> params, String key) {
+        String value = params.getOrDefault(key, "0.5");
+        try {
+            double fraction = Double.parseDouble(value.trim());
+            if (fraction < 0 || fraction > 1) {
+                throw new IllegalArgumentException(key + " must be between 0 and 1");
+            }
+            return fraction;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+    
+    /**
+     * A virtual thread per request on JDK 21+, otherwise a fixed pool with a queue;
+     * looked up reflectively because the build targets Java 17
+     */
+    private static ExecutorService createRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return new ThreadPoolExecutor(REQUEST_THREADS, REQUEST_THREADS, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threads("gitt-http"));
+        }
+    }
+    
+    private static ThreadFactory threads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
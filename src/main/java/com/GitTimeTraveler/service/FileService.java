@@ -1,5 +1,7 @@
 package com.GitTimeTraveler.service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -12,6 +14,11 @@ public interface FileService {
      */
     void savePattern(String patternName, String text, int year, int[][] patternData) throws Exception;
     
+    /**
+     * Save many patterns with a single read and write of the file
+     */
+    void savePatterns(Collection<SavedPattern> newPatterns) throws Exception;
+    
     /**
      * Load pattern from file
      */
@@ -23,15 +30,62 @@ public interface FileService {
     Map<String, SavedPattern> loadAllPatterns() throws Exception;
     
     /**
-     * Get all available pattern names
+     * Get all available pattern names, sorted
      */
     String[] getAvailablePatternNames() throws Exception;
     
+    /**
+     * One page of the names starting with the query, sorted, then near misses with a typo or two;
+     * an empty query pages through all names
+     */
+    NamePage findPatternNames(String query, int offset, int limit) throws Exception;
+    
     /**
      * Delete pattern from file
      */
     void deletePattern(String patternName) throws Exception;
     
+    /**
+     * Saved patterns closest to the query, nearest first
+     */
+    List<PatternMatch> findSimilarPatterns(int[][] query, int limit, Distance distance) throws Exception;
+    
+    /**
+     * How far apart two patterns are
+     */
+    enum Distance {
+        /** Cells active in one pattern and empty in the other */
+        HAMMING,
+        /** Sum of the intensity differences over all cells */
+        L1
+    }
+    
+    /**
+     * A saved pattern found by a similarity search
+     */
+    class PatternMatch {
+        public final String name;
+        public final int distance;
+        
+        public PatternMatch(String name, int distance) {
+            this.name = name;
+            this.distance = distance;
+        }
+    }
+    
+    /**
+     * One page of a name search and how many names matched in total
+     */
+    class NamePage {
+        public final List<String> names;
+        public final int total;
+        
+        public NamePage(List<String> names, int total) {
+            this.names = names;
+            this.total = total;
+        }
+    }
+    
     /**
      * Saved pattern data structure
      */
@@ -1,6 +1,8 @@
 package com.GitTimeTraveler.service;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Service interface for Git operations
@@ -8,26 +10,88 @@ import java.time.LocalDate;
 public interface GitService {
     
     /**
-     * Generate commit commands for a pattern
+     * Generate commit commands for a pattern, planned for a repository without commits in that year
      */
     String generateCommitCommands(int[][] patternData, int year, String text);
     
+    /**
+     * Generate commit commands line by line, writing the batch file as lines are produced;
+     * planned like generateCommitCommands
+     *
+     * @return number of commit commands generated
+     */
+    int writeCommitCommands(int[][] patternData, int year, String text, LineCallback output) throws Exception;
+    
     /**
      * Create real commits for a pattern
      */
     void createRealCommits(int[][] patternData, int year, String text, 
                           ProgressCallback progressCallback, CompletionCallback completionCallback);
     
+    /**
+     * Create real commits, streaming the log line by line; onSuccess only gets a short summary
+     */
+    void createRealCommits(int[][] patternData, int year, String text, ProgressCallback progressCallback,
+                          LineCallback output, CompletionCallback completionCallback);
+    
+    /**
+     * Create real commits on the calling thread
+     *
+     * @return number of commits created
+     */
+    int commitPattern(int[][] patternData, int year, String text, ProgressCallback progressCallback,
+                      LineCallback output) throws Exception;
+    
     /**
      * Get commits for a specific year
      */
     String getCommitsByYear(int year) throws Exception;
     
+    /**
+     * Stream the commits of a year line by line
+     *
+     * @return number of commits found
+     */
+    int listCommitsByYear(int year, LineCallback output) throws Exception;
+    
+    /**
+     * Get the number of existing commits on each grid cell of a year
+     */
+    int[][] getDailyCommitCounts(int year) throws Exception;
+    
+    /**
+     * Index the commits of a year by author date, streaming one entry per commit
+     * in git log order; returns the number of commits indexed
+     */
+    int indexCommitsByYear(int year, CommitIndexCallback callback) throws Exception;
+    
+    /**
+     * Read up to count commits of git log, starting at the given commit
+     */
+    List<CommitInfo> readCommits(String startHash, int count) throws Exception;
+    
+    /**
+     * Read up to count commits of git log, skipping the first skip commits
+     */
+    List<CommitInfo> readCommits(int skip, int count) throws Exception;
+    
+    /**
+     * Delete individual commits, keeping the rest of the history on top
+     *
+     * @return number of commits deleted
+     */
+    int deleteCommits(Collection<String> hashes, ProgressCallback progressCallback) throws Exception;
+    
     /**
      * Delete commits for a specific year
      */
     int deleteCommitsByYear(int year) throws Exception;
     
+    /**
+     * First day (a Sunday) of the contribution grid for a year
+     */
+    LocalDate getGridStartDate(int year);
+    
     /**
      * Save commit commands to batch file
      */
@@ -40,6 +104,35 @@ public interface GitService {
         void onProgress(int current, int total, String message);
     }
     
+    /**
+     * Receives output one line at a time, without the line terminator
+     */
+    interface LineCallback {
+        void onLine(String line);
+    }
+    
+    /**
+     * Receives one commit of an index: its position in git log, hash and author date
+     */
+    interface CommitIndexCallback {
+        void onCommit(int logPosition, String hash, LocalDate date);
+    }
+    
+    /**
+     * One commit as read from git log
+     */
+    class CommitInfo {
+        public final String hash;
+        public final LocalDate date;
+        public final String message;
+        
+        public CommitInfo(String hash, LocalDate date, String message) {
+            this.hash = hash;
+            this.date = date;
+            this.message = message;
+        }
+    }
+    
     /**
      * Completion callback interface
      */
@@ -1,5 +1,12 @@
 package com.GitTimeTraveler.service;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import com.GitTimeTraveler.ml.PatternOptimizer;
+
 /**
  * Service interface for pattern management and ML operations
  */
@@ -15,6 +22,27 @@ public interface PatternService {
      */
     int[][] generateCustomPattern(String text, int year, double density, double symmetry, double continuity);
     
+    /**
+     * Apply custom parameters to a copy of a pattern from generateMLPattern; cheap enough to call per frame
+     */
+    int[][] customizePattern(int[][] basePattern, double density, double symmetry, double continuity);
+    
+    /**
+     * Search density/symmetry/continuity on all cores and return the best candidates
+     */
+    List<PatternOptimizer.Candidate> optimizePattern(String text, int year, long timeBudgetMillis, int resultCount)
+        throws InterruptedException;
+    
+    /**
+     * Convert a PNG/JPEG image into a 7-row pattern with the given number of weeks
+     */
+    int[][] importImage(Path image, int weeks) throws IOException;
+    
+    /**
+     * Convert every PNG/JPEG image in a folder in parallel
+     */
+    Map<Path, int[][]> importImageFolder(Path folder, int weeks) throws IOException, InterruptedException;
+    
     /**
      * Clear pattern data
      */
@@ -34,9 +62,4 @@ public interface PatternService {
      * Get cell intensity
      */
     int getCellIntensity(int[][] patternData, int row, int col);
-    
-    /**
-     * Apply intensity color mapping
-     */
-    java.awt.Color getIntensityColor(int intensity);
 }
@@ -1,42 +1,68 @@
 package com.GitTimeTraveler.service;
 
+import java.nio.file.Path;
+
 import com.GitTimeTraveler.service.impl.*;
 
 /**
  * Factory class for creating service instances
+ *
+ * Each service is created the first time it is asked for, through a holder
+ * class that the JVM initializes on first access. Nothing is built for a
+ * service that is never used, so a headless caller that only needs the git,
+ * pattern and file services never loads UIServiceImpl or Swing, and the
+ * pattern generator is not touched until a pattern is actually generated.
  */
 public class ServiceFactory {
     
-    private static final GitService gitService = new GitServiceImpl();
-    private static final PatternService patternService = new PatternServiceImpl();
-    private static final FileService fileService = new FileServiceImpl();
-    private static final UIService uiService = new UIServiceImpl();
+    private static class GitServiceHolder {
+        static final GitService INSTANCE = new GitServiceImpl();
+    }
+    
+    private static class PatternServiceHolder {
+        static final PatternService INSTANCE = new PatternServiceImpl();
+    }
+    
+    private static class FileServiceHolder {
+        static final FileService INSTANCE = new FileServiceImpl();
+    }
+    
+    private static class UIServiceHolder {
+        static final UIService INSTANCE = new UIServiceImpl();
+    }
     
     /**
      * Get GitService instance
      */
     public static GitService getGitService() {
-        return gitService;
+        return GitServiceHolder.INSTANCE;
+    }
+    
+    /**
+     * Get a GitService working on the repository in the given directory
+     */
+    public static GitService getGitService(Path repository) {
+        return new GitServiceImpl(repository);
     }
     
     /**
      * Get PatternService instance
      */
     public static PatternService getPatternService() {
-        return patternService;
+        return PatternServiceHolder.INSTANCE;
     }
     
     /**
      * Get FileService instance
      */
     public static FileService getFileService() {
-        return fileService;
+        return FileServiceHolder.INSTANCE;
     }
     
     /**
      * Get UIService instance
      */
     public static UIService getUIService() {
-        return uiService;
+        return UIServiceHolder.INSTANCE;
     }
 }
@@ -63,6 +63,11 @@ public interface UIService {
      */
     String showInputDialog(Component parent, String title, String message);
     
+    /**
+     * Apply intensity color mapping
+     */
+    Color getIntensityColor(int intensity);
+    
     /**
      * Show message dialog
      */
@@ -0,0 +1,185 @@
+package com.GitTimeTraveler.service.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Appends commits to the current branch through one git fast-import process
+ *
+ * Instead of a git add and a git commit process per commit, every commit is
+ * written into a single stream that fast-import turns straight into a pack
+ * file: no index, no working tree and no loose objects until close(), which
+ * moves the index and working tree from the old tip to the new one. A detached
+ * HEAD or uncommitted changes are refused up front, so nothing is overwritten. Commits touch only contribution_pattern.txt like the
+ * ones GitServiceImpl creates, and are dated at the given second of their day
+ * in UTC, so --date=short shows the intended day. The file content is only sent
+ * when it changes; consecutive commits with equal content share one tree.
+ */
+public class FastImportWriter implements Closeable {
+    
+    private static final String COMMIT_FILE = "contribution_pattern.txt";
+    private static final int BUFFER_BYTES = 1 << 20;
+    
+    private final Path repository;
+    private final Process process;
+    private final OutputStream out;
+    private final byte[] identity;
+    private final String branch;
+    private final String oldTip;
+    private String parent;
+    private byte[] lastContent;
+    private int commits;
+    private boolean closed;
+    
+    private FastImportWriter(Path repository, Process process, String identity, String branch, String parent) {
+        this.repository = repository;
+        this.process = process;
+        this.out = new BufferedOutputStream(process.getOutputStream(), BUFFER_BYTES);
+        this.identity = identity.getBytes(StandardCharsets.UTF_8);
+        this.branch = branch;
+        this.oldTip = parent;
+        this.parent = parent;
+    }
+    
+    /**
+     * Start appending to the checked-out branch, creating the repository if needed
+     *
+     * @param identity author and committer, as "Name <email>"
+     * @throws IOException if HEAD is detached or the index or working tree has uncommitted changes
+     */
+    public static FastImportWriter open(Path repository, String identity) throws IOException, InterruptedException {
+        run(repository, "git", "init", "--quiet");
+        String branch = output(repository, "git", "symbolic-ref", "--quiet", "HEAD");
+        if (branch.isEmpty()) {
+            throw new IOException("HEAD is detached in " + repository + "; check out a branch to add commits to");
+        }
+        String parent = output(repository, "git", "rev-parse", "--verify", "--quiet", "HEAD");
+        if (!parent.isEmpty()) {
+            exitCode(repository, "git", "update-index", "-q", "--refresh"); // only clears stale stat info
+        }
+        if (!parent.isEmpty() && exitCode(repository, "git", "diff-index", "--quiet", "HEAD", "--") != 0) {
+            throw new IOException("Uncommitted changes in " + repository + "; commit or stash them first");
+        }
+        
+        ProcessBuilder builder = new ProcessBuilder("git", "fast-import", "--quiet", "--done")
+            .directory(repository.toFile())
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT);
+        return new FastImportWriter(repository, GitProcess.start(builder), identity, branch,
+            parent.isEmpty() ? null : parent);
+    }
+    
+    /**
+     * Append one commit
+     *
+     * @param content new content of contribution_pattern.txt, or null to keep the previous tree
+     */
+    public void commit(LocalDate date, int secondOfDay, String message, byte[] content) throws IOException {
+        long epochSecond = date.toEpochSecond(LocalTime.MIDNIGHT, ZoneOffset.UTC) + secondOfDay;
+        byte[] when = (" " + epochSecond + " +0000\n").getBytes(StandardCharsets.US_ASCII);
+        
+        write("commit " + branch + "\n");
+        out.write("author ".getBytes(StandardCharsets.US_ASCII));
+        out.write(identity);
+        out.write(when);
+        out.write("committer ".getBytes(StandardCharsets.US_ASCII));
+        out.write(identity);
+        out.write(when);
+        data(message.getBytes(StandardCharsets.UTF_8));
+        if (parent != null) {
+            // Only the first commit names its parent; fast-import chains the rest itself
+            write("from " + parent + "\n");
+            parent = null;
+        }
+        if (content != null && !Arrays.equals(content, lastContent)) {
+            write("M 100644 inline " + COMMIT_FILE + "\n");
+            data(content);
+            lastContent = content;
+        }
+        out.write('\n');
+        commits++;
+    }
+    
+    /**
+     * Commits appended so far
+     */
+    public int getCommits() {
+        return commits;
+    }
+    
+    /**
+     * Finish the import and move the index and working tree to the new tip
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            write("done\n");
+            out.close();
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("git fast-import failed with exit code " + exitCode);
+            }
+            if (commits > 0) {
+                // Two-tree read-tree fails rather than overwrite changes made meanwhile
+                if (oldTip != null) {
+                    run(repository, "git", "read-tree", "-u", "-m", oldTip, "HEAD");
+                } else {
+                    run(repository, "git", "read-tree", "-u", "-m", "HEAD");
+                }
+            }
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while finishing git fast-import", e);
+        }
+    }
+    
+    private void data(byte[] bytes) throws IOException {
+        write("data " + bytes.length + "\n");
+        out.write(bytes);
+        out.write('\n');
+    }
+    
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static void run(Path repository, String... command) throws IOException, InterruptedException {
+        int exitCode = exitCode(repository, command);
+        if (exitCode != 0) {
+            throw new IOException(String.join(" ", command) + " failed with exit code " + exitCode);
+        }
+    }
+    
+    private static int exitCode(Path repository, String... command) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(repository.toFile())
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT);
+        return GitProcess.start(builder).waitFor();
+    }
+    
+    /**
+     * First line of a command's output; empty when it fails (e.g. HEAD of an empty repository)
+     */
+    private static String output(Path repository, String... command) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(repository.toFile())
+            .redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = GitProcess.start(builder);
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        return process.waitFor() == 0 ? output : "";
+    }
+}
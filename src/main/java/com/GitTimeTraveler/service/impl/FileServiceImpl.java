@@ -4,10 +4,21 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
+import com.GitTimeTraveler.jfr.FlightRecording;
+import com.GitTimeTraveler.jfr.PatternStoreEvent;
+import com.GitTimeTraveler.metrics.Counter;
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.metrics.Timer;
 import com.GitTimeTraveler.service.FileService;
 
 /**
@@ -19,8 +30,34 @@ public class FileServiceImpl implements FileService {
     private static final int GRID_ROWS = 7;
     private static final int GRID_COLS = 53;
     
+    private static final Timer LOAD_TIMER = Metrics.timer("patterns.load");
+    private static final Timer SAVE_TIMER = Metrics.timer("patterns.save");
+    private static final Counter BYTES_READ = Metrics.counter("patterns.load.bytes");
+    private static final Counter BYTES_WRITTEN = Metrics.counter("patterns.save.bytes");
+    
+    private final Path patternsFile;
+    
+    // Indexes and the file version each reflects; rebuilt when the file changes behind our back
+    private PatternSimilarityIndex similarityIndex;
+    private String similarityVersion;
+    private PatternNameIndex nameIndex;
+    private String nameVersion;
+    
+    public FileServiceImpl() {
+        this(Paths.get(PATTERNS_FILE));
+    }
+    
+    /**
+     * Store patterns in the given file instead of saved_patterns.txt in the working directory
+     */
+    public FileServiceImpl(Path patternsFile) {
+        this.patternsFile = patternsFile;
+    }
+    
     @Override
     public void savePattern(String patternName, String text, int year, int[][] patternData) throws Exception {
+        String before = fileVersion();
+        
         // Load existing patterns
         Map<String, SavedPattern> patterns = loadAllPatterns();
         
@@ -29,6 +66,20 @@ public class FileServiceImpl implements FileService {
         
         // Save to file
         savePatternsToFile(patterns);
+        indexesChanged(before, Collections.singletonMap(patternName, patternData));
+    }
+    
+    @Override
+    public void savePatterns(Collection<SavedPattern> newPatterns) throws Exception {
+        String before = fileVersion();
+        Map<String, SavedPattern> patterns = loadAllPatterns();
+        Map<String, int[][]> changes = new LinkedHashMap<>();
+        for (SavedPattern pattern : newPatterns) {
+            patterns.put(pattern.name, pattern);
+            changes.put(pattern.name, pattern.pattern);
+        }
+        savePatternsToFile(patterns);
+        indexesChanged(before, changes);
     }
     
     @Override
@@ -40,13 +91,15 @@ public class FileServiceImpl implements FileService {
     @Override
     public Map<String, SavedPattern> loadAllPatterns() throws IOException {
         Map<String, SavedPattern> patterns = new HashMap<>();
-        Path filePath = Paths.get(PATTERNS_FILE);
-        
-        if (!Files.exists(filePath)) {
+        if (!Files.exists(patternsFile)) {
             return patterns;
         }
         
-        try (Scanner scanner = new Scanner(filePath)) {
+        PatternStoreEvent event = startEvent("load");
+        Timer.Sample sample = LOAD_TIMER.start();
+        long bytes = Files.size(patternsFile);
+        BYTES_READ.add(bytes);
+        try (Scanner scanner = new Scanner(patternsFile)) {
             while (scanner.hasNextLine()) {
                 String line = scanner.nextLine().trim();
                 if (line.startsWith("PATTERN:")) {
@@ -70,6 +123,11 @@ public class FileServiceImpl implements FileService {
                     patterns.put(name, new SavedPattern(name, text, year, pattern));
                 }
             }
+        } finally {
+            sample.stop();
+            if (event != null) {
+                event.end(patterns.size(), bytes);
+            }
         }
         
         return patterns;
@@ -77,19 +135,135 @@ public class FileServiceImpl implements FileService {
     
     @Override
     public String[] getAvailablePatternNames() throws Exception {
-        Map<String, SavedPattern> patterns = loadAllPatterns();
-        return patterns.keySet().toArray(new String[0]);
+        return nameIndex().names();
+    }
+    
+    @Override
+    public NamePage findPatternNames(String query, int offset, int limit) throws Exception {
+        return nameIndex().search(query, offset, limit);
     }
     
     @Override
     public void deletePattern(String patternName) throws Exception {
+        String before = fileVersion();
         Map<String, SavedPattern> patterns = loadAllPatterns();
         patterns.remove(patternName);
         savePatternsToFile(patterns);
+        indexesChanged(before, Collections.singletonMap(patternName, null));
+    }
+    
+    @Override
+    public List<PatternMatch> findSimilarPatterns(int[][] query, int limit, Distance distance) throws Exception {
+        return similarityIndex().nearest(query, limit, distance);
+    }
+    
+    /**
+     * The similarity index, built from the file the first time and whenever the file changed
+     */
+    private synchronized PatternSimilarityIndex similarityIndex() throws IOException {
+        String version = fileVersion();
+        if (similarityIndex == null || !version.equals(similarityVersion)) {
+            PatternSimilarityIndex index = new PatternSimilarityIndex();
+            for (SavedPattern pattern : loadAllPatterns().values()) {
+                index.put(pattern.name, pattern.pattern);
+            }
+            similarityIndex = index;
+            similarityVersion = version;
+        }
+        return similarityIndex;
+    }
+    
+    /**
+     * The name index, built from the file the first time and whenever the file changed
+     */
+    private synchronized PatternNameIndex nameIndex() throws IOException {
+        String version = fileVersion();
+        if (nameIndex == null || !version.equals(nameVersion)) {
+            PatternNameIndex index = new PatternNameIndex();
+            index.addAll(loadPatternNames());
+            nameIndex = index;
+            nameVersion = version;
+        }
+        return nameIndex;
+    }
+    
+    /**
+     * Apply our own saves (and deletes, for null patterns) to each index that was current
+     * before the write, and drop the ones that were not
+     */
+    private synchronized void indexesChanged(String versionBefore, Map<String, int[][]> changes) throws IOException {
+        String version = fileVersion();
+        if (similarityIndex != null && versionBefore.equals(similarityVersion)) {
+            for (Map.Entry<String, int[][]> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    similarityIndex.remove(change.getKey());
+                } else {
+                    similarityIndex.put(change.getKey(), change.getValue());
+                }
+            }
+            similarityVersion = version;
+        } else {
+            similarityIndex = null;
+        }
+        if (nameIndex != null && versionBefore.equals(nameVersion)) {
+            List<String> added = new ArrayList<>();
+            for (Map.Entry<String, int[][]> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    nameIndex.remove(change.getKey());
+                } else {
+                    added.add(change.getKey());
+                }
+            }
+            if (added.size() == 1) {
+                nameIndex.add(added.get(0));
+            } else if (!added.isEmpty()) {
+                nameIndex.addAll(added);
+            }
+            nameVersion = version;
+        } else {
+            nameIndex = null;
+        }
+    }
+    
+    /**
+     * Names in the patterns file, read without parsing the grids
+     */
+    private List<String> loadPatternNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        if (!Files.exists(patternsFile)) {
+            return names;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(patternsFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("PATTERN:")) {
+                    names.add(line.substring(8).trim());
+                    // Text, year and grid rows follow; skip them like loadAllPatterns does
+                    for (int i = 0; i < 2 + GRID_ROWS; i++) {
+                        reader.readLine();
+                    }
+                }
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Size and modification time of the patterns file, to notice changes made by others
+     */
+    private String fileVersion() throws IOException {
+        if (!Files.exists(patternsFile)) {
+            return "missing";
+        }
+        BasicFileAttributes attributes = Files.readAttributes(patternsFile, BasicFileAttributes.class);
+        return attributes.size() + "@" + attributes.lastModifiedTime().toMillis();
     }
     
     private void savePatternsToFile(Map<String, SavedPattern> patterns) throws IOException {
-        try (FileWriter writer = new FileWriter(PATTERNS_FILE)) {
+        PatternStoreEvent event = startEvent("save");
+        Timer.Sample sample = SAVE_TIMER.start();
+        try (FileWriter writer = new FileWriter(patternsFile.toFile())) {
             for (SavedPattern pattern : patterns.values()) {
                 writer.write("PATTERN: " + pattern.name + "\n");
                 writer.write(pattern.text + "\n");
@@ -102,6 +276,25 @@ public class FileServiceImpl implements FileService {
                     writer.write("\n");
                 }
             }
+        } finally {
+            sample.stop();
+        }
+        long bytes = Files.size(patternsFile);
+        BYTES_WRITTEN.add(bytes);
+        if (event != null) {
+            event.end(patterns.size(), bytes);
+        }
+    }
+    
+    /**
+     * Begin a Flight Recorder event for a load or save, or null when it is not active
+     */
+    private PatternStoreEvent startEvent(String operation) {
+        if (!FlightRecording.isActive()) {
+            return null;
         }
+        PatternStoreEvent event = new PatternStoreEvent(operation, patternsFile.toAbsolutePath().toString());
+        event.begin();
+        return event;
     }
 }
@@ -0,0 +1,139 @@
+package com.GitTimeTraveler.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.GitTimeTraveler.jfr.FlightRecording;
+import com.GitTimeTraveler.jfr.GitProcessEvent;
+import com.GitTimeTraveler.metrics.Histogram;
+import com.GitTimeTraveler.metrics.Metrics;
+
+/**
+ * A started git process that reports its timings to Metrics
+ *
+ * Per git subcommand it records how long ProcessBuilder.start() took
+ * (git.<sub>.spawn), the time from start until waitFor() saw it exit
+ * (git.<sub>.exit) and non-zero exits (git.<sub>.failures), and emits a
+ * GitProcessEvent spanning the same interval when Flight Recorder is active. Everything
+ * else is delegated, so callers use it like the Process it wraps.
+ */
+class GitProcess extends Process {
+    
+    private final Process process;
+    private final String subcommand;
+    private final long started;
+    private final GitProcessEvent event;
+    private boolean reported;
+    
+    private GitProcess(Process process, String subcommand, long started, GitProcessEvent event) {
+        this.process = process;
+        this.subcommand = subcommand;
+        this.started = started;
+        this.event = event;
+    }
+    
+    /**
+     * Start a git command line
+     */
+    static Process start(ProcessBuilder builder) throws IOException {
+        List<String> command = builder.command();
+        String subcommand = command.size() > 1 ? command.get(1) : "git";
+        GitProcessEvent event = null;
+        if (FlightRecording.isActive()) {
+            File directory = builder.directory() != null ? builder.directory() : new File(".");
+            event = new GitProcessEvent(subcommand, String.join(" ", command),
+                directory.getAbsoluteFile().toPath().normalize().toString());
+            event.begin();
+        }
+        
+        long started = System.nanoTime();
+        Process process = builder.start();
+        Metrics.histogram("git." + subcommand + ".spawn", Histogram.Unit.NANOSECONDS).record(System.nanoTime() - started);
+        return new GitProcess(process, subcommand, started, event);
+    }
+    
+    @Override
+    public int waitFor() throws InterruptedException {
+        int exitCode = process.waitFor();
+        exited(exitCode);
+        return exitCode;
+    }
+    
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        boolean exited = process.waitFor(timeout, unit);
+        if (exited) {
+            exited(process.exitValue());
+        }
+        return exited;
+    }
+    
+    private synchronized void exited(int exitCode) {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        Metrics.histogram("git." + subcommand + ".exit", Histogram.Unit.NANOSECONDS).record(System.nanoTime() - started);
+        if (exitCode != 0) {
+            Metrics.counter("git." + subcommand + ".failures").increment();
+        }
+        if (event != null) {
+            event.end(exitCode);
+        }
+    }
+    
+    @Override
+    public OutputStream getOutputStream() {
+        return process.getOutputStream();
+    }
+    
+    @Override
+    public InputStream getInputStream() {
+        return process.getInputStream();
+    }
+    
+    @Override
+    public InputStream getErrorStream() {
+        return process.getErrorStream();
+    }
+    
+    @Override
+    public int exitValue() {
+        return process.exitValue();
+    }
+    
+    @Override
+    public void destroy() {
+        process.destroy();
+    }
+    
+    @Override
+    public Process destroyForcibly() {
+        return process.destroyForcibly();
+    }
+    
+    @Override
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+    
+    @Override
+    public long pid() {
+        return process.pid();
+    }
+    
+    @Override
+    public ProcessHandle toHandle() {
+        return process.toHandle();
+    }
+    
+    @Override
+    public CompletableFuture<Process> onExit() {
+        return process.onExit().thenApply(exited -> this);
+    }
+}
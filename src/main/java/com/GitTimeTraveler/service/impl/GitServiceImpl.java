@@ -1,15 +1,32 @@
 package com.GitTimeTraveler.service.impl;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import com.GitTimeTraveler.jfr.CommitEvent;
+import com.GitTimeTraveler.jfr.FlightRecording;
+import com.GitTimeTraveler.metrics.Counter;
+import com.GitTimeTraveler.metrics.Metrics;
+import com.GitTimeTraveler.metrics.Timer;
 import com.GitTimeTraveler.service.GitService;
 
 /**
@@ -19,138 +36,147 @@ public class GitServiceImpl implements GitService {
     
     private static final int GRID_ROWS = 7;
     private static final int GRID_COLS = 53;
+    private static final int DATE_LENGTH = 10;  // yyyy-mm-dd
+    
+    // One sample per created commit: file write, git add and git commit
+    private static final Timer COMMIT_TIMER = Metrics.timer("commits.create");
+    private static final Counter COMMITS_CREATED = Metrics.counter("commits.created");
+    
+    private final Path repository;
+    
+    /**
+     * Service for the repository in the working directory
+     */
+    public GitServiceImpl() {
+        this(Paths.get("."));
+    }
+    
+    /**
+     * Service for the repository in the given directory
+     */
+    public GitServiceImpl(Path repository) {
+        this.repository = repository;
+    }
     
     @Override
     public String generateCommitCommands(int[][] patternData, int year, String text) {
         StringBuilder output = new StringBuilder();
-        output.append("GitHub Contribution Graph Generator\n");
-        output.append("Year: ").append(year).append("\n");
-        output.append("Text: ").append(text).append("\n");
-        output.append("Pattern: ").append(getActiveCells(patternData)).append(" active cells\n\n");
+        emitCommitCommands(patternData, year, text, line -> output.append(line).append("\n"));
+        return output.toString();
+    }
+    
+    @Override
+    public int writeCommitCommands(int[][] patternData, int year, String text, LineCallback output) throws IOException {
+        LocalDate firstSunday = calculateFirstSunday(year);
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get("git_commands.bat"))) {
+            writeBatchHeader(writer, firstSunday);
+            int commitCount = emitCommitCommands(patternData, year, text, line -> {
+                output.onLine(line);
+                if (line.startsWith("git commit")) {
+                    try {
+                        writer.write(line);
+                        writer.write("\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            writeBatchFooter(writer);
+            return commitCount;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Produce the commit command listing one line at a time
+     *
+     * The script may be run in any repository, so it is planned for one without
+     * commits in the year; only commitPattern knows its target and reads its history.
+     *
+     * @return number of commit commands
+     */
+    private int emitCommitCommands(int[][] patternData, int year, String text, LineCallback output) {
+        output.onLine("GitHub Contribution Graph Generator");
+        output.onLine("Year: " + year);
+        output.onLine("Text: " + text);
+        output.onLine("Pattern: " + getActiveCells(patternData) + " active cells");
+        output.onLine("");
         
         // Generate commit commands
-        output.append("Git Commands to Run:\n");
-        output.append("===================\n\n");
+        output.onLine("Git Commands to Run:");
+        output.onLine("===================");
+        output.onLine("");
         
         // Calculate the actual start date for GitHub contribution graph
         LocalDate firstSunday = calculateFirstSunday(year);
         
-        output.append("GitHub contribution graph starts from: ").append(firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE)).append("\n");
-        output.append("Grid mapping: Week 0 = ").append(firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE)).append("\n\n");
+        output.onLine("GitHub contribution graph starts from: " + firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        output.onLine("Grid mapping: Week 0 = " + firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        output.onLine("");
+        
+        // Fewest commits per day that still render the intended shades
+        ShadeSolver.Plan plan = planCommits(patternData, year, firstSunday, new int[GRID_ROWS][GRID_COLS]);
+        reportUnreachable(output, plan);
         
         int commitCount = 0;
+        StringBuilder line = new StringBuilder();
         
         for (int week = 0; week < GRID_COLS; week++) {
             for (int day = 0; day < GRID_ROWS; day++) {
                 int intensity = patternData[day][week];
-                if (intensity > 0) {
+                int commits = plan.commits[day][week];
+                if (commits > 0) {
                     LocalDate commitDate = firstSunday.plusWeeks(week).plusDays(day);
                     
-                    // Skip if date is in the future or before the year
-                    if (commitDate.isAfter(LocalDate.now()) || commitDate.getYear() != year) {
-                        continue;
-                    }
-                    
-                    // Create multiple commits based on intensity level
-                    for (int i = 0; i < intensity; i++) {
-                        output.append("git commit --date=\"").append(commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE))
-                              .append(" 12:00:00\" -m \"Commit for ").append(text).append(" pattern (intensity ").append(intensity).append(")\"\n");
+                    line.setLength(0);
+                    line.append("git commit --date=\"").append(commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE))
+                        .append(" 12:00:00\" -m \"Commit for ").append(text).append(" pattern (intensity ").append(intensity).append(")\"");
+                    String command = line.toString();
+                    for (int i = 0; i < commits; i++) {
+                        output.onLine(command);
                         commitCount++;
                     }
                 }
             }
         }
         
-        output.append("\nTotal commits to generate: ").append(commitCount).append("\n");
-        output.append("\nTo run all commands, save this output to a .bat file and execute it.\n");
+        output.onLine("");
+        output.onLine("Total commits to generate: " + commitCount);
+        output.onLine("");
+        output.onLine("To run all commands, save this output to a .bat file and execute it.");
         
-        return output.toString();
+        return commitCount;
     }
     
     @Override
     public void createRealCommits(int[][] patternData, int year, String text, 
                                  ProgressCallback progressCallback, CompletionCallback completionCallback) {
+        // Collect the streamed log and hand it over in one piece, as before
+        StringBuilder output = new StringBuilder();
+        createRealCommits(patternData, year, text, progressCallback,
+            line -> output.append(line).append("\n"),
+            new CompletionCallback() {
+                @Override
+                public void onSuccess(String message) {
+                    completionCallback.onSuccess(output.toString());
+                }
+                
+                @Override
+                public void onError(String error) {
+                    completionCallback.onError(error);
+                }
+            });
+    }
+    
+    @Override
+    public void createRealCommits(int[][] patternData, int year, String text, ProgressCallback progressCallback,
+                                 LineCallback output, CompletionCallback completionCallback) {
         ExecutorService executor = Executors.newSingleThreadExecutor();
         executor.submit(() -> {
             try {
-                // Calculate the actual start date for GitHub contribution graph
-                LocalDate firstSunday = calculateFirstSunday(year);
-                
-                // Create a simple text file to commit
-                Path commitFile = Paths.get("contribution_pattern.txt");
-                
-                // Initialize git repository if not exists
-                progressCallback.onProgress(0, 100, "Initializing git repository...");
-                ProcessBuilder gitInit = new ProcessBuilder("git", "init");
-                gitInit.directory(Paths.get(".").toFile());
-                Process initProcess = gitInit.start();
-                initProcess.waitFor();
-                
-                // Count total commits first
-                int totalCommits = calculateTotalCommits(patternData, year, firstSunday);
-                
-                progressCallback.onProgress(0, totalCommits, "Creating commits...");
-                
-                int commitCount = 0;
-                StringBuilder output = new StringBuilder();
-                output.append("Creating real commits for GitHub contribution graph...\n");
-                output.append("GitHub contribution graph starts from: ").append(firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE)).append("\n");
-                output.append("Total commits to create: ").append(totalCommits).append("\n\n");
-                
-                for (int week = 0; week < GRID_COLS; week++) {
-                    for (int day = 0; day < GRID_ROWS; day++) {
-                        int intensity = patternData[day][week];
-                        if (intensity > 0) {
-                            LocalDate commitDate = firstSunday.plusWeeks(week).plusDays(day);
-                            
-                            if (commitDate.isAfter(LocalDate.now()) || commitDate.getYear() != year) {
-                                continue;
-                            }
-                            
-                            // Create multiple commits based on intensity level
-                            for (int i = 0; i < intensity; i++) {
-                                // Update progress
-                                progressCallback.onProgress(commitCount + 1, totalCommits, 
-                                    "Creating commit " + (commitCount + 1) + " of " + totalCommits + "...");
-                                
-                                // Create or modify the file
-                                String content = "GitHub Contribution Pattern\n" +
-                                               "Text: " + text + "\n" +
-                                               "Date: " + commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE) + "\n" +
-                                               "Week: " + week + ", Day: " + day + "\n" +
-                                               "Intensity: " + intensity + "\n" +
-                                               "Commit #" + (commitCount + 1) + "\n";
-                                
-                                Files.write(commitFile, content.getBytes());
-                                
-                                // Add the file
-                                ProcessBuilder gitAdd = new ProcessBuilder("git", "add", "contribution_pattern.txt");
-                                gitAdd.directory(Paths.get(".").toFile());
-                                Process addProcess = gitAdd.start();
-                                addProcess.waitFor();
-                                
-                                // Commit with specific date
-                                String commitMessage = "Commit for " + text + " pattern (intensity " + intensity + ") - " + commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
-                                ProcessBuilder gitCommit = new ProcessBuilder("git", "commit", 
-                                    "--date=" + commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE) + " 12:00:00",
-                                    "-m", commitMessage);
-                                gitCommit.directory(Paths.get(".").toFile());
-                                Process commitProcess = gitCommit.start();
-                                commitProcess.waitFor();
-                                
-                                output.append("Created commit for ").append(commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE)).append(" (intensity ").append(intensity).append(")\n");
-                                commitCount++;
-                            }
-                        }
-                    }
-                }
-                
-                output.append("\nTotal commits created: ").append(commitCount).append("\n");
-                output.append("Check your git log: git log --oneline\n");
-                output.append("Push to GitHub to see the contribution graph!\n");
-                
-                completionCallback.onSuccess(output.toString());
-                
+                int commitCount = commitPattern(patternData, year, text, progressCallback, output);
+                completionCallback.onSuccess("Created " + commitCount + " commits");
             } catch (Exception e) {
                 completionCallback.onError("Error creating commits: " + e.getMessage());
             }
@@ -159,90 +185,258 @@ public class GitServiceImpl implements GitService {
         executor.shutdown();
     }
     
+    @Override
+    public int commitPattern(int[][] patternData, int year, String text, ProgressCallback progressCallback,
+                             LineCallback output) throws Exception {
+        // Calculate the actual start date for GitHub contribution graph
+        LocalDate firstSunday = calculateFirstSunday(year);
+        
+        // Create a simple text file to commit
+        Path commitFile = repository.resolve("contribution_pattern.txt");
+        
+        // Initialize git repository if not exists
+        progressCallback.onProgress(0, 100, "Initializing git repository...");
+        ProcessBuilder gitInit = new ProcessBuilder("git", "init");
+        gitInit.directory(repository.toFile());
+        runGit(gitInit);
+        
+        // Solve against the commits already in the repository
+        progressCallback.onProgress(0, 100, "Reading existing commits...");
+        ShadeSolver.Plan plan = planCommits(patternData, year, firstSunday, getDailyCommitCounts(year));
+        int totalCommits = plan.totalCommits;
+        
+        progressCallback.onProgress(0, totalCommits, "Creating commits...");
+        
+        int commitCount = 0;
+        output.onLine("Creating real commits for GitHub contribution graph...");
+        output.onLine("GitHub contribution graph starts from: " + firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        output.onLine("Total commits to create: " + totalCommits);
+        reportUnreachable(output, plan);
+        output.onLine("");
+        String repositoryPath = repository.toAbsolutePath().normalize().toString();
+        
+        for (int week = 0; week < GRID_COLS; week++) {
+            for (int day = 0; day < GRID_ROWS; day++) {
+                int intensity = patternData[day][week];
+                int commits = plan.commits[day][week];
+                if (commits > 0) {
+                    LocalDate commitDate = firstSunday.plusWeeks(week).plusDays(day);
+                    
+                    for (int i = 0; i < commits; i++) {
+                        Timer.Sample sample = COMMIT_TIMER.start();
+                        CommitEvent event = null;
+                        if (FlightRecording.isActive()) {
+                            event = new CommitEvent(repositoryPath, text, year,
+                                commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE), intensity, commitCount + 1);
+                            event.begin();
+                        }
+                        
+                        // Update progress
+                        progressCallback.onProgress(commitCount + 1, totalCommits, 
+                            "Creating commit " + (commitCount + 1) + " of " + totalCommits + "...");
+                        
+                        // Create or modify the file
+                        String content = commitFileContent(text, commitDate, week, day, intensity, commitCount + 1);
+                        
+                        Files.write(commitFile, content.getBytes());
+                        
+                        // Add the file
+                        ProcessBuilder gitAdd = new ProcessBuilder("git", "add", "contribution_pattern.txt");
+                        gitAdd.directory(repository.toFile());
+                        runGit(gitAdd);
+                        
+                        // Commit with specific date
+                        ProcessBuilder gitCommit = new ProcessBuilder("git", "commit", 
+                            "--date=" + commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE) + " 12:00:00",
+                            "-m", commitMessage(text, intensity, commitDate));
+                        gitCommit.directory(repository.toFile());
+                        runGit(gitCommit);
+                        
+                        output.onLine("Created commit for " + commitDate.format(DateTimeFormatter.ISO_LOCAL_DATE) + " (intensity " + intensity + ")");
+                        commitCount++;
+                        COMMITS_CREATED.increment();
+                        sample.stop();
+                        if (event != null) {
+                            event.commit();
+                        }
+                    }
+                }
+            }
+        }
+        
+        output.onLine("");
+        output.onLine("Total commits created: " + commitCount);
+        output.onLine("Check your git log: git log --oneline");
+        output.onLine("Push to GitHub to see the contribution graph!");
+        
+        return commitCount;
+    }
+    
     @Override
     public String getCommitsByYear(int year) throws Exception {
         StringBuilder output = new StringBuilder();
         output.append("Commits for year ").append(year).append(":\n");
         output.append("=".repeat(50)).append("\n\n");
         
-        // Run git log command
-        ProcessBuilder gitLog = new ProcessBuilder("git", "log", "--oneline", "--since=" + year + "-01-01", "--until=" + year + "-12-31");
-        gitLog.directory(Paths.get(".").toFile());
-        Process process = gitLog.start();
+        int commitCount = listCommitsByYear(year, line -> output.append(line).append("\n"));
         
-        // Read output
-        try (var scanner = new java.util.Scanner(process.getInputStream())) {
-            int commitCount = 0;
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (!line.trim().isEmpty()) {
-                    output.append(line).append("\n");
+        output.append("\nTotal commits found: ").append(commitCount).append("\n");
+        return output.toString();
+    }
+    
+    @Override
+    public int listCommitsByYear(int year, LineCallback output) throws Exception {
+        // Pattern commits are backdated through the author date only, so filter on %ad
+        // (--since/--until would filter on the committer date)
+        String prefix = year + "-";
+        Process process = startGitLog("--date=short", "--format=%ad %h %s");
+        
+        int commitCount = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(prefix)) {
+                    output.onLine(line.substring(DATE_LENGTH + 1));
                     commitCount++;
                 }
             }
-            
-            output.append("\nTotal commits found: ").append(commitCount).append("\n");
         }
         
         process.waitFor();
-        return output.toString();
+        return commitCount;
     }
     
     @Override
-    public int deleteCommitsByYear(int year) throws Exception {
-        // Get all commits for the year first
-        String commits = getCommitsByYear(year);
-        String[] lines = commits.split("\n");
+    public int indexCommitsByYear(int year, CommitIndexCallback callback) throws Exception {
+        String prefix = year + "-";
+        Process process = startGitLog("--date=short", "--format=%ad %H");
+        
+        int position = 0;
         int commitCount = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(prefix)) {
+                    callback.onCommit(position, line.substring(DATE_LENGTH + 1), parseShortDate(line));
+                    commitCount++;
+                }
+                position++;
+            }
+        }
         
-        // Count commits (skip header lines)
-        for (String line : lines) {
-            if (line.trim().startsWith("commit ") || line.trim().matches("^[a-f0-9]{7,}.*")) {
-                commitCount++;
+        process.waitFor();
+        return commitCount;
+    }
+    
+    @Override
+    public List<CommitInfo> readCommits(String startHash, int count) throws Exception {
+        // Starting at a known commit avoids the walk over everything before it that --skip costs
+        return readCommitLog(count, startGitLog("--max-count=" + count, "--date=short", "--format=%H%x1f%ad%x1f%s", startHash));
+    }
+    
+    @Override
+    public List<CommitInfo> readCommits(int skip, int count) throws Exception {
+        return readCommitLog(count, startGitLog("--skip=" + skip, "--max-count=" + count, "--date=short", "--format=%H%x1f%ad%x1f%s"));
+    }
+    
+    private static List<CommitInfo> readCommitLog(int count, Process process) throws Exception {
+        List<CommitInfo> commits = new ArrayList<>(count);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\u001f", 3);
+                commits.add(new CommitInfo(fields[0], LocalDate.parse(fields[1]), fields.length > 2 ? fields[2] : ""));
             }
         }
         
-        if (commitCount == 0) {
-            return 0;
+        process.waitFor();
+        return commits;
+    }
+    
+    @Override
+    public int deleteCommits(Collection<String> hashes, ProgressCallback progressCallback) throws Exception {
+        return HistoryRewriter.deleteCommits(repository, new HashSet<>(hashes), progressCallback);
+    }
+    
+    @Override
+    public int[][] getDailyCommitCounts(int year) throws Exception {
+        LocalDate firstSunday = calculateFirstSunday(year);
+        LocalDate end = firstSunday.plusWeeks(GRID_COLS);
+        int[][] counts = new int[GRID_ROWS][GRID_COLS];
+        if (!hasCommits()) {
+            return counts;
         }
         
-        // Create a new branch without the commits
-        String backupBranch = "backup-before-delete-" + System.currentTimeMillis();
+        // Backdated commits only carry the date as author date, so bucket by %ad
+        // rather than filtering with --since/--until (which use the committer date)
+        ProcessBuilder gitLog = new ProcessBuilder("git", "log", "--format=%ad", "--date=short");
+        gitLog.directory(repository.toFile());
+        gitLog.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = GitProcess.start(gitLog);
         
-        // Create backup branch
-        ProcessBuilder createBackup = new ProcessBuilder("git", "branch", backupBranch);
-        createBackup.directory(Paths.get(".").toFile());
-        Process backupProcess = createBackup.start();
-        backupProcess.waitFor();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                LocalDate date = LocalDate.parse(line.trim());
+                if (date.isBefore(firstSunday) || !date.isBefore(end)) {
+                    continue;
+                }
+                int offset = (int) ChronoUnit.DAYS.between(firstSunday, date);
+                counts[offset % GRID_ROWS][offset / GRID_ROWS]++;
+            }
+        }
         
-        try {
-            // Reset to before the year
-            ProcessBuilder resetCommand = new ProcessBuilder("git", "reset", "--hard", "HEAD~" + commitCount);
-            resetCommand.directory(Paths.get(".").toFile());
-            Process resetProcess = resetCommand.start();
-            resetProcess.waitFor();
-            
-            return commitCount;
-            
-        } catch (Exception e) {
-            // Restore from backup if something goes wrong
-            ProcessBuilder restoreCommand = new ProcessBuilder("git", "reset", "--hard", backupBranch);
-            restoreCommand.directory(Paths.get(".").toFile());
-            Process restoreProcess = restoreCommand.start();
-            restoreProcess.waitFor();
-            throw e;
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException("git log failed with exit code " + exitCode + " in " + repository);
         }
+        return counts;
+    }
+    
+    /**
+     * Whether HEAD points at a commit; a directory that is not a repository is an error
+     */
+    private boolean hasCommits() throws IOException, InterruptedException {
+        ProcessBuilder revParse = new ProcessBuilder("git", "rev-parse", "--verify", "--quiet", "HEAD");
+        revParse.directory(repository.toFile());
+        revParse.redirectErrorStream(true);
+        Process process = GitProcess.start(revParse);
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        int exitCode = process.waitFor();
+        if (exitCode > 1) {
+            throw new IOException("git rev-parse failed with exit code " + exitCode + " in " + repository
+                + (output.isEmpty() ? "" : ": " + output));
+        }
+        return exitCode == 0;
+    }
+    
+    @Override
+    public int deleteCommitsByYear(int year) throws Exception {
+        // Collect the year's commits by author date, then drop just those
+        String prefix = year + "-";
+        Process process = startGitLog("--date=short", "--format=%ad %H");
+        
+        List<String> hashes = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(prefix)) {
+                    hashes.add(line.substring(DATE_LENGTH + 1));
+                }
+            }
+        }
+        process.waitFor();
+        
+        return deleteCommits(hashes, null);
     }
     
     @Override
     public void saveCommitCommandsToFile(String commands, LocalDate firstSunday) throws IOException {
         try (FileWriter writer = new FileWriter("git_commands.bat")) {
-            writer.write("@echo off\n");
-            writer.write("echo Generating GitHub contribution graph...\n");
-            writer.write("echo GitHub contribution graph starts from: ");
-            writer.write(firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE));
-            writer.write("\n");
-            writer.write("echo.\n");
+            writeBatchHeader(writer, firstSunday);
             
             // Extract commit commands from the full output
             String[] lines = commands.split("\n");
@@ -258,12 +452,69 @@ public class GitServiceImpl implements GitService {
                 }
             }
             
-            writer.write("echo.\n");
-            writer.write("echo Done! Check your GitHub contribution graph.\n");
-            writer.write("pause\n");
+            writeBatchFooter(writer);
         }
     }
     
+    private void writeBatchHeader(Writer writer, LocalDate firstSunday) throws IOException {
+        writer.write("@echo off\n");
+        writer.write("echo Generating GitHub contribution graph...\n");
+        writer.write("echo GitHub contribution graph starts from: ");
+        writer.write(firstSunday.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        writer.write("\n");
+        writer.write("echo.\n");
+    }
+    
+    private void writeBatchFooter(Writer writer) throws IOException {
+        writer.write("echo.\n");
+        writer.write("echo Done! Check your GitHub contribution graph.\n");
+        writer.write("pause\n");
+    }
+    
+    @Override
+    public LocalDate getGridStartDate(int year) {
+        return calculateFirstSunday(year);
+    }
+    
+    /**
+     * Date at the start of a --date=short line; cheaper than LocalDate.parse on large logs
+     */
+    private static LocalDate parseShortDate(String line) {
+        int year = Integer.parseInt(line, 0, 4, 10);
+        int month = Integer.parseInt(line, 5, 7, 10);
+        int day = Integer.parseInt(line, 8, 10, 10);
+        return LocalDate.of(year, month, day);
+    }
+    
+    /**
+     * Run a git command to completion; a non-zero exit fails with git's own output
+     */
+    private static void runGit(ProcessBuilder builder) throws IOException, InterruptedException {
+        builder.redirectErrorStream(true);
+        Process process = GitProcess.start(builder);
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException(String.join(" ", builder.command().subList(0, 2)) + " failed with exit code "
+                + exitCode + (output.isEmpty() ? "" : ": " + output));
+        }
+    }
+    
+    /**
+     * Start git log with the given options (HEAD unless a revision is given); a
+     * repository without commits yields no output
+     */
+    private Process startGitLog(String... options) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("log");
+        command.addAll(Arrays.asList(options));
+        ProcessBuilder gitLog = new ProcessBuilder(command);
+        gitLog.directory(repository.toFile());
+        gitLog.redirectError(ProcessBuilder.Redirect.DISCARD);
+        return GitProcess.start(gitLog);
+    }
+    
     private LocalDate calculateFirstSunday(int year) {
         LocalDate jan1 = LocalDate.of(year, 1, 1);
         int dayOfWeek = jan1.getDayOfWeek().getValue(); // 1=Monday, 7=Sunday
@@ -278,20 +529,50 @@ public class GitServiceImpl implements GitService {
         return firstSunday;
     }
     
-    private int calculateTotalCommits(int[][] patternData, int year, LocalDate firstSunday) {
-        int totalCommits = 0;
+    /**
+     * Commits to create per cell, solved against the commits already on each day
+     */
+    /**
+     * Fewest commits per day that render the pattern's shades on top of the existing
+     * daily counts; days outside the year or in the future get none
+     */
+    public ShadeSolver.Plan planCommits(int[][] patternData, int year, LocalDate firstSunday, int[][] existing) {
+        // Only days inside the year and not in the future can receive commits
+        int[][] targets = new int[GRID_ROWS][GRID_COLS];
         for (int week = 0; week < GRID_COLS; week++) {
             for (int day = 0; day < GRID_ROWS; day++) {
-                int intensity = patternData[day][week];
-                if (intensity > 0) {
-                    LocalDate commitDate = firstSunday.plusWeeks(week).plusDays(day);
-                    if (!commitDate.isAfter(LocalDate.now()) && commitDate.getYear() == year) {
-                        totalCommits += intensity;
-                    }
+                LocalDate commitDate = firstSunday.plusWeeks(week).plusDays(day);
+                if (!commitDate.isAfter(LocalDate.now()) && commitDate.getYear() == year) {
+                    targets[day][week] = patternData[day][week];
                 }
             }
         }
-        return totalCommits;
+        return ShadeSolver.solve(targets, existing);
+    }
+    
+    /**
+     * Content of contribution_pattern.txt for the number-th commit of a pattern
+     */
+    public static String commitFileContent(String text, LocalDate date, int week, int day, int intensity, int number) {
+        return "GitHub Contribution Pattern\n" +
+               "Text: " + text + "\n" +
+               "Date: " + date.format(DateTimeFormatter.ISO_LOCAL_DATE) + "\n" +
+               "Week: " + week + ", Day: " + day + "\n" +
+               "Intensity: " + intensity + "\n" +
+               "Commit #" + number + "\n";
+    }
+    
+    /**
+     * Message of a pattern commit
+     */
+    public static String commitMessage(String text, int intensity, LocalDate date) {
+        return "Commit for " + text + " pattern (intensity " + intensity + ") - " + date.format(DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+    
+    private void reportUnreachable(LineCallback output, ShadeSolver.Plan plan) {
+        if (plan.unreachableCells > 0) {
+            output.onLine("Warning: " + plan.unreachableCells + " cells cannot reach their shade with the existing commits");
+        }
     }
     
     private int getActiveCells(int[][] patternData) {
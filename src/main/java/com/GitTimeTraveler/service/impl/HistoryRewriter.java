@@ -0,0 +1,182 @@
+package com.GitTimeTraveler.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import com.GitTimeTraveler.service.GitService;
+
+/**
+ * Removes individual commits from the current branch
+ *
+ * Starting at the oldest commit to delete, the history is replayed on top of
+ * the last kept commit with git commit-tree: every kept commit gets its
+ * original tree, author, committer, dates and message, and only its parent
+ * changes. Trees are reused as they are, so no merge or cherry-pick can
+ * conflict; deleting a commit simply removes its snapshot from the chain.
+ * Only linear history is supported. The old tip is kept on a backup branch
+ * before the branch is moved.
+ */
+class HistoryRewriter {
+    
+    private static final char FIELD = '\u001f';
+    private static final char RECORD = '\u001e';
+    private static final String LOG_FORMAT = "--format=%H%x1f%P%x1f%T%x1f%an%x1f%ae%x1f%ad%x1f%cn%x1f%ce%x1f%cd%x1f%B%x1e";
+    
+    private HistoryRewriter() {
+    }
+    
+    /**
+     * Delete the given commits (full hashes) and return how many were removed
+     */
+    static int deleteCommits(Path repository, Set<String> hashes, GitService.ProgressCallback progressCallback) throws IOException, InterruptedException {
+        if (hashes.isEmpty()) {
+            return 0;
+        }
+        
+        // The oldest commit to delete is the last one git log lists
+        String oldest = null;
+        int found = 0;
+        int replayCount = 0;
+        Process log = start(repository, "git", "log", "--format=%H", "HEAD");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(log.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int position = 0;
+            while ((line = reader.readLine()) != null) {
+                position++;
+                if (hashes.contains(line)) {
+                    oldest = line;
+                    replayCount = position;
+                    found++;
+                }
+            }
+        }
+        log.waitFor();
+        if (found != hashes.size()) {
+            throw new IOException((hashes.size() - found) + " of the selected commits are not on the current branch");
+        }
+        
+        String base = revParse(repository, oldest + "^");
+        String tip = base;
+        String previous = null;
+        int deleted = 0;
+        int processed = 0;
+        
+        // Replay oldest first; the range starts at the oldest deleted commit
+        String range = base != null ? base + "..HEAD" : "HEAD";
+        Process replay = start(repository, "git", "log", "--reverse", "--date=raw", LOG_FORMAT, range);
+        try (Reader reader = new BufferedReader(new InputStreamReader(replay.getInputStream(), StandardCharsets.UTF_8))) {
+            String record;
+            while ((record = readRecord(reader)) != null) {
+                String[] fields = record.split(String.valueOf(FIELD), 10);
+                String hash = fields[0];
+                String parents = fields[1];
+                
+                if (parents.contains(" ")) {
+                    throw new IOException("Cannot delete commits across a merge (" + hash.substring(0, 7) + ")");
+                }
+                if (previous != null && !parents.equals(previous)) {
+                    throw new IOException("History is not linear at " + hash.substring(0, 7));
+                }
+                previous = hash;
+                
+                if (hashes.contains(hash)) {
+                    deleted++;
+                } else {
+                    tip = commitTree(repository, fields, tip);
+                }
+                
+                processed++;
+                if (progressCallback != null) {
+                    progressCallback.onProgress(processed, replayCount, "Rewriting commit " + processed + " of " + replayCount + "...");
+                }
+            }
+        }
+        replay.waitFor();
+        
+        if (tip == null) {
+            throw new IOException("Cannot delete every commit of the branch");
+        }
+        
+        String backupBranch = "backup-before-delete-" + System.currentTimeMillis();
+        run(repository, "git", "branch", backupBranch);
+        run(repository, "git", "reset", "--keep", tip);
+        return deleted;
+    }
+    
+    /**
+     * Create a copy of a logged commit on a new parent and return its hash
+     */
+    private static String commitTree(Path repository, String[] fields, String parent) throws IOException, InterruptedException {
+        ProcessBuilder builder = parent != null
+            ? new ProcessBuilder("git", "commit-tree", fields[2], "-p", parent)
+            : new ProcessBuilder("git", "commit-tree", fields[2]);
+        builder.directory(repository.toFile());
+        builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Map<String, String> env = builder.environment();
+        env.put("GIT_AUTHOR_NAME", fields[3]);
+        env.put("GIT_AUTHOR_EMAIL", fields[4]);
+        env.put("GIT_AUTHOR_DATE", fields[5]);
+        env.put("GIT_COMMITTER_NAME", fields[6]);
+        env.put("GIT_COMMITTER_EMAIL", fields[7]);
+        env.put("GIT_COMMITTER_DATE", fields[8]);
+        
+        Process process = GitProcess.start(builder);
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(fields[9].getBytes(StandardCharsets.UTF_8));
+        }
+        String hash;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            hash = reader.readLine();
+        }
+        if (process.waitFor() != 0 || hash == null) {
+            throw new IOException("git commit-tree failed for " + fields[0].substring(0, 7));
+        }
+        return hash.trim();
+    }
+    
+    /**
+     * Next record of a RECORD-terminated log, without the newline git puts between records
+     */
+    private static String readRecord(Reader reader) throws IOException {
+        StringBuilder record = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1 && c != RECORD) {
+            if (c == '\n' && record.length() == 0) {
+                continue;
+            }
+            record.append((char) c);
+        }
+        return c == -1 && record.length() == 0 ? null : record.toString();
+    }
+    
+    private static String revParse(Path repository, String revision) throws IOException, InterruptedException {
+        Process process = start(repository, "git", "rev-parse", "--verify", "--quiet", revision);
+        String hash;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            hash = reader.readLine();
+        }
+        return process.waitFor() == 0 && hash != null ? hash.trim() : null;
+    }
+    
+    private static void run(Path repository, String... command) throws IOException, InterruptedException {
+        Process process = start(repository, command);
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        if (process.waitFor() != 0) {
+            throw new IOException(String.join(" ", command) + " failed");
+        }
+    }
+    
+    private static Process start(Path repository, String... command) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(repository.toFile());
+        builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        return GitProcess.start(builder);
+    }
+}
@@ -0,0 +1,227 @@
+package com.GitTimeTraveler.service.impl;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Converts PNG/JPEG artwork into 7-row intensity patterns
+ *
+ * Images are decoded through ImageIO in horizontal strips with source
+ * subsampling, so only a strip of the reduced image is ever in memory. Each
+ * decoded pixel contributes its darkness (weighted by alpha) to the grid cells
+ * it overlaps, which gives an exact area average, and the averages are then
+ * quantized to levels 0-6 with Floyd-Steinberg error diffusion.
+ */
+public class ImagePatternImporter {
+    
+    public static final int ROWS = 7;
+    private static final int SAMPLES_PER_CELL = 8;         // Decoded pixels kept per cell along each axis
+    private static final int STRIP_PIXELS = 1 << 20;       // Decoded pixels per strip read
+    private static final String IMAGE_GLOB = "*.{png,PNG,jpg,JPG,jpeg,JPEG}";
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Import one image
+     *
+     * @param weeks number of columns, or 0 to follow the image's aspect ratio
+     */
+    public static int[][] importImage(Path image, int weeks) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(image.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open image: " + image);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + image);
+            }
+            
+            ImageReader reader = readers.next();
+            try {
+                // Not seek-forward-only: every strip is a separate read of image 0
+                reader.setInput(input, false, true);
+                return quantize(averageDarkness(reader, weeks));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Import every PNG/JPEG in a folder in parallel, keyed by file name order
+     *
+     * Images that fail to decode are reported and left out of the result.
+     */
+    public static Map<Path, int[][]> importFolder(Path folder, int weeks) throws IOException, InterruptedException {
+        List<Path> images = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, IMAGE_GLOB)) {
+            for (Path image : stream) {
+                images.add(image);
+            }
+        }
+        Collections.sort(images);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(WORKER_COUNT, images.size())));
+        try {
+            List<Callable<int[][]>> tasks = new ArrayList<>();
+            for (Path image : images) {
+                tasks.add(() -> importImage(image, weeks));
+            }
+            
+            List<Future<int[][]>> results = executor.invokeAll(tasks);
+            Map<Path, int[][]> patterns = new LinkedHashMap<>();
+            for (int i = 0; i < images.size(); i++) {
+                try {
+                    patterns.put(images.get(i), results.get(i).get());
+                } catch (ExecutionException e) {
+                    System.err.println("Error importing " + images.get(i) + ": " + e.getCause().getMessage());
+                }
+            }
+            return patterns;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Mean darkness (0-1) of every cell, read strip by strip
+     */
+    private static double[][] averageDarkness(ImageReader reader, int weeks) throws IOException {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        int cols = weeks > 0 ? weeks : Math.max(1, (int) Math.round((double) ROWS * width / height));
+        
+        // Subsample so that roughly SAMPLES_PER_CELL decoded pixels remain per cell
+        int stepX = Math.max(1, width / (cols * SAMPLES_PER_CELL));
+        int stepY = Math.max(1, height / (ROWS * SAMPLES_PER_CELL));
+        int decodedWidth = (width + stepX - 1) / stepX;
+        int decodedHeight = (height + stepY - 1) / stepY;
+        
+        double cellWidth = (double) decodedWidth / cols;
+        double cellHeight = (double) decodedHeight / ROWS;
+        double[][] sums = new double[ROWS][cols];
+        double[] line = new double[cols];
+        int[] argb = new int[decodedWidth];
+        
+        // Strip boundaries fall on multiples of stepY so the subsampling grid stays aligned
+        int stripRows = Math.max(1, STRIP_PIXELS / decodedWidth) * stepY;
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(stepX, stepY, 0, 0);
+        
+        int decodedRow = 0;
+        for (int top = 0; top < height; top += stripRows) {
+            param.setSourceRegion(new Rectangle(0, top, width, Math.min(stripRows, height - top)));
+            BufferedImage strip = reader.read(0, param);
+            int stripWidth = Math.min(decodedWidth, strip.getWidth());
+            
+            for (int y = 0; y < strip.getHeight() && decodedRow < decodedHeight; y++, decodedRow++) {
+                strip.getRGB(0, y, stripWidth, 1, argb, 0, decodedWidth);
+                
+                // Horizontal pass: spread each pixel over the columns it overlaps
+                Arrays.fill(line, 0);
+                for (int x = 0; x < stripWidth; x++) {
+                    double darkness = darkness(argb[x]);
+                    if (darkness > 0) {
+                        spread(x, cellWidth, darkness, line);
+                    }
+                }
+                
+                // Vertical pass: spread the line over the rows it overlaps
+                for (int row = (int) (decodedRow / cellHeight); row < ROWS; row++) {
+                    double overlap = overlap(decodedRow, row, cellHeight);
+                    if (overlap <= 0) {
+                        break;
+                    }
+                    for (int col = 0; col < cols; col++) {
+                        sums[row][col] += line[col] * overlap;
+                    }
+                }
+            }
+        }
+        
+        double cellArea = cellWidth * cellHeight;
+        for (double[] row : sums) {
+            for (int col = 0; col < cols; col++) {
+                row[col] = Math.min(1.0, row[col] / cellArea);
+            }
+        }
+        return sums;
+    }
+    
+    /**
+     * Add a pixel's value to every cell it overlaps, weighted by the overlap
+     */
+    private static void spread(int pixel, double cellSize, double value, double[] cells) {
+        for (int cell = (int) (pixel / cellSize); cell < cells.length; cell++) {
+            double overlap = overlap(pixel, cell, cellSize);
+            if (overlap <= 0) {
+                break;
+            }
+            cells[cell] += value * overlap;
+        }
+    }
+    
+    /**
+     * Length of [pixel, pixel + 1) inside a cell
+     */
+    private static double overlap(int pixel, int cell, double cellSize) {
+        return Math.min(pixel + 1, (cell + 1) * cellSize) - Math.max(pixel, cell * cellSize);
+    }
+    
+    /**
+     * Darkness of a pixel; transparent pixels count as empty background
+     */
+    private static double darkness(int argb) {
+        double alpha = ((argb >>> 24) & 0xFF) / 255.0;
+        int red = (argb >> 16) & 0xFF;
+        int green = (argb >> 8) & 0xFF;
+        int blue = argb & 0xFF;
+        double luminance = (0.2126 * red + 0.7152 * green + 0.0722 * blue) / 255.0;
+        return alpha * (1.0 - luminance);
+    }
+    
+    /**
+     * Floyd-Steinberg dithering of darkness values to intensity levels 0-6
+     */
+    private static int[][] quantize(double[][] darkness) {
+        int cols = darkness[0].length;
+        double[][] values = new double[ROWS][cols];
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < cols; col++) {
+                values[row][col] = darkness[row][col] * 6;
+            }
+        }
+        
+        int[][] pattern = new int[ROWS][cols];
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < cols; col++) {
+                double value = values[row][col];
+                int level = (int) Math.max(0, Math.min(6, Math.round(value)));
+                pattern[row][col] = level;
+                
+                double error = value - level;
+                if (col + 1 < cols) values[row][col + 1] += error * 7 / 16;
+                if (row + 1 < ROWS) {
+                    if (col > 0) values[row + 1][col - 1] += error * 3 / 16;
+                    values[row + 1][col] += error * 5 / 16;
+                    if (col + 1 < cols) values[row + 1][col + 1] += error * 1 / 16;
+                }
+            }
+        }
+        return pattern;
+    }
+}
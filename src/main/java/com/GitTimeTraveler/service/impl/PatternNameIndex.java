@@ -0,0 +1,382 @@
+package com.GitTimeTraveler.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.GitTimeTraveler.service.FileService;
+
+/**
+ * Sorted, searchable index of saved pattern names
+ *
+ * Names are kept in one sorted list (case-insensitive, then exact), so a page
+ * of all names or of the names starting with a prefix is a binary search and
+ * a sublist. Typo-tolerant search finds names that start with the query after
+ * up to one edit (queries of 4-7 characters) or two edits (8 and more), where
+ * an edit inserts, deletes or replaces a character or swaps two neighbours.
+ *
+ * Candidates for a typo search come from postings of positional bigrams: for
+ * every name, each pair of neighbouring lower-case characters (the first one
+ * paired with a start marker) is listed under the pair and its position. An
+ * edit changes at most three of these pairs and moves the others by at most
+ * one position, so a name within k edits shares at least m - 3k of the m pairs
+ * of the query, each within k positions of where the query has it. Only names
+ * that pass this count get the edit distance computed.
+ *
+ * Searches run concurrently; add and remove take an exclusive lock and cost a
+ * list insertion plus one posting update per indexed character.
+ */
+public class PatternNameIndex {
+    
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+    private static final Comparator<Near> NEAR_ORDER = Comparator
+        .comparingInt((Near match) -> match.edits)
+        .thenComparing(match -> match.name, ORDER);
+    private static final int MAX_POSITION = 32;      // bigrams indexed per name
+    private static final char START = '\0';
+    
+    /**
+     * Name ids listed under one bigram at one position
+     */
+    private static class Posting {
+        int[] ids = new int[4];
+        int size;
+        
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+        
+        void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * A typo match and how many edits it took
+     */
+    private static class Near {
+        final String name;
+        final int edits;
+        
+        Near(String name, int edits) {
+            this.name = name;
+            this.edits = edits;
+        }
+    }
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<String> sorted = new ArrayList<>();
+    private final Map<String, Integer> idOf = new HashMap<>();
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private String[] names = new String[16];
+    private String[] folded = new String[16];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+    
+    /**
+     * Index a name; does nothing if it is already there
+     */
+    public void add(String name) {
+        lock.writeLock().lock();
+        try {
+            if (index(name)) {
+                int position = Collections.binarySearch(sorted, name, ORDER);
+                sorted.add(-position - 1, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Index many names at once, sorting once instead of inserting each in place
+     */
+    public void addAll(Collection<String> newNames) {
+        lock.writeLock().lock();
+        try {
+            for (String name : newNames) {
+                if (index(name)) {
+                    sorted.add(name);
+                }
+            }
+            sorted.sort(ORDER);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Give a new name an id and its postings; false if it is already indexed
+     */
+    private boolean index(String name) {
+        if (idOf.containsKey(name)) {
+            return false;
+        }
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+            folded = Arrays.copyOf(folded, id * 2);
+        }
+        names[id] = name;
+        folded[id] = fold(name);
+        idOf.put(name, id);
+        
+        String key = folded[id];
+        for (int i = 0; i < Math.min(key.length(), MAX_POSITION); i++) {
+            postings.computeIfAbsent(bigram(key, i), k -> new Posting()).add(id);
+        }
+        return true;
+    }
+    
+    /**
+     * Drop a name; does nothing if it is not there
+     */
+    public void remove(String name) {
+        lock.writeLock().lock();
+        try {
+            Integer id = idOf.remove(name);
+            if (id == null) {
+                return;
+            }
+            sorted.remove(Collections.binarySearch(sorted, name, ORDER));
+            
+            String key = folded[id];
+            for (int i = 0; i < Math.min(key.length(), MAX_POSITION); i++) {
+                long bigram = bigram(key, i);
+                Posting posting = postings.get(bigram);
+                posting.remove(id);
+                if (posting.size == 0) {
+                    postings.remove(bigram);
+                }
+            }
+            
+            names[id] = null;
+            folded[id] = null;
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            }
+            freeIds[freeCount++] = id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return sorted.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Every name, sorted
+     */
+    public String[] names() {
+        lock.readLock().lock();
+        try {
+            return sorted.toArray(new String[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * One page of the names starting with the query (ignoring case), sorted, followed
+     * by the names that start with it after a typo or two, fewest edits first
+     *
+     * An empty query pages through all names.
+     */
+    public FileService.NamePage search(String query, int offset, int limit) {
+        String prefix = query == null ? "" : query.trim();
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(prefix, false);
+            int to = prefix.isEmpty() ? sorted.size() : lowerBound(prefix, true);
+            int start = Math.max(offset, 0);
+            
+            List<String> page = new ArrayList<>();
+            for (int i = from + start; i < to && page.size() < limit; i++) {
+                page.add(sorted.get(i));
+            }
+            int prefixCount = to - from;
+            int nearCount = near(prefix, Math.max(start - prefixCount, 0), limit - page.size(), page);
+            return new FileService.NamePage(page, prefixCount + nearCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * First position whose name, cut to the prefix length, sorts after (strictly) or not before the prefix
+     */
+    private int lowerBound(String prefix, boolean strictly) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            String name = sorted.get(middle);
+            String head = name.length() > prefix.length() ? name.substring(0, prefix.length()) : name;
+            int comparison = String.CASE_INSENSITIVE_ORDER.compare(head, prefix);
+            if (strictly ? comparison <= 0 : comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Count the names that start with the query only after 1 to maxEdits edits, and add
+     * the given slice of them to the page, fewest edits first, then sorted
+     */
+    private int near(String query, int skip, int limit, List<String> page) {
+        String key = fold(query);
+        int edits = maxEdits(key.length());
+        if (edits == 0) {
+            return 0;
+        }
+        
+        // Count, per name, the query bigrams it has within `edits` positions of the query's
+        int bigrams = Math.min(key.length(), MAX_POSITION - edits);
+        int needed = bigrams - 3 * edits;
+        int[] counts = new int[nextId];
+        int[] lastCounted = new int[nextId];
+        int[] candidates = new int[64];
+        int candidateCount = 0;
+        for (int i = 0; i < bigrams; i++) {
+            long pair = bigram(key, i) & 0xFFFFFFFFL;
+            for (int position = Math.max(0, i - edits); position <= i + edits; position++) {
+                Posting posting = postings.get(pair | (long) position << 32);
+                if (posting == null) {
+                    continue;
+                }
+                for (int p = 0; p < posting.size; p++) {
+                    int id = posting.ids[p];
+                    if (lastCounted[id] == i + 1) {
+                        continue;
+                    }
+                    lastCounted[id] = i + 1;
+                    if (++counts[id] == needed) {
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        }
+                        candidates[candidateCount++] = id;
+                    }
+                }
+            }
+        }
+        
+        // Keep only the first skip + limit matches in order: the worst of them on top of the heap
+        int wanted = skip + Math.max(limit, 0);
+        PriorityQueue<Near> best = new PriorityQueue<>(NEAR_ORDER.reversed());
+        int total = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            int id = candidates[c];
+            String name = names[id];
+            if (name.regionMatches(true, 0, query, 0, query.length())) {
+                continue;   // already listed as a prefix match
+            }
+            int distance = prefixDistance(key, folded[id], edits);
+            if (distance > edits) {
+                continue;
+            }
+            total++;
+            if (wanted == 0) {
+                continue;
+            }
+            Near match = new Near(name, distance);
+            if (best.size() < wanted) {
+                best.add(match);
+            } else if (NEAR_ORDER.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+        
+        Near[] ordered = best.toArray(new Near[0]);
+        Arrays.sort(ordered, NEAR_ORDER);
+        for (int i = skip; i < ordered.length; i++) {
+            page.add(ordered[i].name);
+        }
+        return total;
+    }
+    
+    /**
+     * Fewest edits turning some prefix of the name into the query, or more than limit
+     *
+     * Optimal string alignment distance (insert, delete, replace, swap neighbours)
+     * between the query and each prefix of the name, one name character per row.
+     */
+    private static int prefixDistance(String query, String name, int limit) {
+        int m = query.length();
+        int[] before = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        
+        int columns = Math.min(name.length(), m + limit);
+        for (int j = 1; j <= columns; j++) {
+            char c = name.charAt(j - 1);
+            current[0] = j;
+            int rowMin = current[0];
+            for (int i = 1; i <= m; i++) {
+                int cost = query.charAt(i - 1) == c ? 0 : 1;
+                int value = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == name.charAt(j - 2) && query.charAt(i - 2) == c) {
+                    value = Math.min(value, before[i - 2] + 1);
+                }
+                current[i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            best = Math.min(best, current[m]);
+            if (rowMin > limit) {
+                break;
+            }
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        return best;
+    }
+    
+    private static int maxEdits(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+    
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Key of the bigram ending at index i: position, previous character (or the start marker), character
+     */
+    private static long bigram(String key, int i) {
+        char previous = i == 0 ? START : key.charAt(i - 1);
+        return (long) i << 32 | (long) previous << 16 | key.charAt(i);
+    }
+}
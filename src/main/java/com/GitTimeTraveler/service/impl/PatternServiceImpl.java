@@ -1,8 +1,12 @@
 package com.GitTimeTraveler.service.impl;
 
-import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 import com.GitTimeTraveler.ml.PatternGenerator;
+import com.GitTimeTraveler.ml.PatternOptimizer;
 import com.GitTimeTraveler.service.PatternService;
 
 /**
@@ -31,6 +35,36 @@ public class PatternServiceImpl implements PatternService {
         return PatternGenerator.generateCustomPattern(text, year, density, symmetry, continuity);
     }
     
+    @Override
+    public int[][] customizePattern(int[][] basePattern, double density, double symmetry, double continuity) {
+        int[][] pattern = new int[GRID_ROWS][];
+        for (int row = 0; row < GRID_ROWS; row++) {
+            pattern[row] = basePattern[row].clone();
+        }
+        PatternGenerator.applyCustomParameters(pattern, density, symmetry, continuity);
+        return pattern;
+    }
+    
+    @Override
+    public List<PatternOptimizer.Candidate> optimizePattern(String text, int year, long timeBudgetMillis, int resultCount)
+            throws InterruptedException {
+        if (text == null || text.trim().isEmpty()) {
+            text = "OPTIMIZED"; // Default text for optimization
+        }
+        
+        return PatternOptimizer.optimize(text, year, PatternOptimizer.visualScore(text), timeBudgetMillis, resultCount);
+    }
+    
+    @Override
+    public int[][] importImage(Path image, int weeks) throws IOException {
+        return ImagePatternImporter.importImage(image, weeks);
+    }
+    
+    @Override
+    public Map<Path, int[][]> importImageFolder(Path folder, int weeks) throws IOException, InterruptedException {
+        return ImagePatternImporter.importFolder(folder, weeks);
+    }
+    
     @Override
     public void clearPattern(int[][] patternData) {
         for (int row = 0; row < GRID_ROWS; row++) {
@@ -68,25 +102,6 @@ public class PatternServiceImpl implements PatternService {
         return 0;
     }
     
-    @Override
-    public Color getIntensityColor(int intensity) {
-        if (intensity == 0) {
-            return Color.WHITE;
-        }
-        
-        // Create green colors with different intensities
-        // Base green: RGB(34, 197, 94) - GitHub's green
-        // Intensity 1: Very light green
-        // Intensity 6: Full GitHub green
-        float factor = intensity / 6.0f;
-        
-        int red = (int) (255 - (255 - 34) * factor);
-        int green = (int) (255 - (255 - 197) * factor);
-        int blue = (int) (255 - (255 - 94) * factor);
-        
-        return new Color(red, green, blue);
-    }
-    
     private boolean isValidPosition(int row, int col) {
         return row >= 0 && row < GRID_ROWS && col >= 0 && col < GRID_COLS;
     }
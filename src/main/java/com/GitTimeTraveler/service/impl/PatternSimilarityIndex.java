@@ -0,0 +1,336 @@
+package com.GitTimeTraveler.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.GitTimeTraveler.service.FileService;
+
+/**
+ * Nearest-neighbour index over saved patterns
+ *
+ * Each pattern is stored as six bitplanes of 371 bits, where plane t has a
+ * cell's bit set when its intensity is above t. With this thermometer coding
+ * the L1 distance between two patterns (the sum of |a - b| over all cells) is
+ * exactly the number of differing bits over the six planes, and the Hamming
+ * distance (cells active in one pattern and empty in the other) is the number
+ * of differing bits in plane 0; both are XOR and Long.bitCount over a few
+ * longs, without looking at individual cells.
+ *
+ * Candidates are pruned with per-pattern signatures that bound the distance
+ * from below. Patterns are bucketed by total intensity (for L1) and by active
+ * cell count (for Hamming); a query walks the buckets outwards from its own
+ * and stops once the difference in bucket alone exceeds the k-th best match
+ * so far. Inside a bucket, bit counts per plane and sums over bands of weeks
+ * rule out most of the remaining patterns before their distance is computed.
+ *
+ * Queries run concurrently; put and remove take an exclusive lock.
+ */
+public class PatternSimilarityIndex {
+    
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    private static final int MAX_INTENSITY = 6;
+    private static final int CELLS = GRID_ROWS * GRID_COLS;
+    private static final int WORDS = (CELLS + 63) / 64;         // longs per plane
+    private static final int STRIDE = MAX_INTENSITY * WORDS;     // longs per pattern
+    private static final int BAND_WEEKS = 7;
+    private static final int BANDS = (GRID_COLS + BAND_WEEKS - 1) / BAND_WEEKS;
+    
+    // Signature layout: bits set per plane, then intensity sum and active cells per band
+    private static final int PLANE_COUNTS = 0;
+    private static final int BAND_SUMS = PLANE_COUNTS + MAX_INTENSITY;
+    private static final int BAND_ACTIVE = BAND_SUMS + BANDS;
+    private static final int SIGNATURE = BAND_ACTIVE + BANDS;
+    
+    private static final Comparator<FileService.PatternMatch> NEAREST_FIRST = Comparator
+        .comparingInt((FileService.PatternMatch match) -> match.distance)
+        .thenComparing(match -> match.name);
+    
+    /**
+     * Slots whose key is one value, with O(1) add and remove
+     */
+    private static class Bucket {
+        int[] slots = new int[4];
+        int size;
+        
+        int add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size] = slot;
+            return size++;
+        }
+    }
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> slotOf = new HashMap<>();
+    private final Bucket[][] buckets = new Bucket[FileService.Distance.values().length][];
+    private final int[][] positions = new int[FileService.Distance.values().length][];
+    private String[] names = new String[16];
+    private long[] bits = new long[16 * STRIDE];
+    private int[] signatures = new int[16 * SIGNATURE];
+    private int size;
+    
+    public PatternSimilarityIndex() {
+        for (FileService.Distance distance : FileService.Distance.values()) {
+            int keys = maxKey(distance) + 1;
+            buckets[distance.ordinal()] = new Bucket[keys];
+            for (int key = 0; key < keys; key++) {
+                buckets[distance.ordinal()][key] = new Bucket();
+            }
+            positions[distance.ordinal()] = new int[names.length];
+        }
+    }
+    
+    /**
+     * Add a pattern, replacing any pattern saved under the same name
+     */
+    public void put(String name, int[][] pattern) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(name);
+            if (size == names.length) {
+                grow();
+            }
+            int slot = size++;
+            names[slot] = name;
+            encode(pattern, bits, slot * STRIDE, signatures, slot * SIGNATURE);
+            slotOf.put(name, slot);
+            for (FileService.Distance distance : FileService.Distance.values()) {
+                int d = distance.ordinal();
+                positions[d][slot] = buckets[d][key(distance, signatures, slot * SIGNATURE)].add(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Remove a pattern by name; false if it was not indexed
+     */
+    public boolean remove(String name) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * The limit patterns closest to the query, nearest first; ties by name
+     */
+    public List<FileService.PatternMatch> nearest(int[][] query, int limit, FileService.Distance distance) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        long[] queryBits = new long[STRIDE];
+        int[] querySignature = new int[SIGNATURE];
+        encode(query, queryBits, 0, querySignature, 0);
+        
+        // Worst of the best matches on top
+        PriorityQueue<FileService.PatternMatch> best = new PriorityQueue<>(limit + 1, NEAREST_FIRST.reversed());
+        lock.readLock().lock();
+        try {
+            Bucket[] byKey = buckets[distance.ordinal()];
+            int queryKey = key(distance, querySignature, 0);
+            int worst = Integer.MAX_VALUE;
+            for (int offset = 0; offset < byKey.length; offset++) {
+                // Every pattern in these buckets is at least offset away
+                if (best.size() == limit && offset > worst) {
+                    break;
+                }
+                int below = queryKey - offset;
+                int above = queryKey + offset;
+                if (below < 0 && above >= byKey.length) {
+                    break;
+                }
+                if (below >= 0) {
+                    worst = scan(byKey[below], distance, queryBits, querySignature, limit, best, worst);
+                }
+                if (offset > 0 && above < byKey.length) {
+                    worst = scan(byKey[above], distance, queryBits, querySignature, limit, best, worst);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        List<FileService.PatternMatch> matches = new ArrayList<>(best);
+        matches.sort(NEAREST_FIRST);
+        return matches;
+    }
+    
+    /**
+     * Offer every pattern of a bucket that can still beat the current worst; returns the new worst
+     */
+    private int scan(Bucket bucket, FileService.Distance distance, long[] queryBits, int[] querySignature,
+                     int limit, PriorityQueue<FileService.PatternMatch> best, int worst) {
+        for (int i = 0; i < bucket.size; i++) {
+            int slot = bucket.slots[i];
+            boolean full = best.size() == limit;
+            if (full && lowerBound(distance, querySignature, slot * SIGNATURE) > worst) {
+                continue;
+            }
+            int d = distance(distance, queryBits, slot * STRIDE, full ? worst : Integer.MAX_VALUE);
+            if (full) {
+                FileService.PatternMatch worstMatch = best.peek();
+                if (d > worst || (d == worst && names[slot].compareTo(worstMatch.name) >= 0)) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.add(new FileService.PatternMatch(names[slot], d));
+            if (best.size() == limit) {
+                worst = best.peek().distance;
+            }
+        }
+        return worst;
+    }
+    
+    /**
+     * Exact distance, or any value above cutoff once it is known to exceed it
+     */
+    private int distance(FileService.Distance distance, long[] queryBits, int base, int cutoff) {
+        int planes = distance == FileService.Distance.HAMMING ? 1 : MAX_INTENSITY;
+        int total = 0;
+        for (int plane = 0; plane < planes; plane++) {
+            int offset = plane * WORDS;
+            for (int word = 0; word < WORDS; word++) {
+                total += Long.bitCount(bits[base + offset + word] ^ queryBits[offset + word]);
+            }
+            if (total > cutoff) {
+                return total;
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Distance bound from the signatures alone
+     */
+    private int lowerBound(FileService.Distance distance, int[] querySignature, int base) {
+        int byBands = 0;
+        int byCounts = 0;
+        if (distance == FileService.Distance.HAMMING) {
+            for (int band = 0; band < BANDS; band++) {
+                byBands += Math.abs(signatures[base + BAND_ACTIVE + band] - querySignature[BAND_ACTIVE + band]);
+            }
+            byCounts = Math.abs(signatures[base + PLANE_COUNTS] - querySignature[PLANE_COUNTS]);
+        } else {
+            for (int band = 0; band < BANDS; band++) {
+                byBands += Math.abs(signatures[base + BAND_SUMS + band] - querySignature[BAND_SUMS + band]);
+            }
+            for (int plane = 0; plane < MAX_INTENSITY; plane++) {
+                byCounts += Math.abs(signatures[base + PLANE_COUNTS + plane] - querySignature[PLANE_COUNTS + plane]);
+            }
+        }
+        return Math.max(byBands, byCounts);
+    }
+    
+    private boolean removeLocked(String name) {
+        Integer removed = slotOf.remove(name);
+        if (removed == null) {
+            return false;
+        }
+        int slot = removed;
+        for (FileService.Distance distance : FileService.Distance.values()) {
+            removeFromBucket(distance, slot);
+        }
+        
+        // Move the last pattern into the hole so the arrays stay dense
+        int last = --size;
+        if (slot != last) {
+            names[slot] = names[last];
+            System.arraycopy(bits, last * STRIDE, bits, slot * STRIDE, STRIDE);
+            System.arraycopy(signatures, last * SIGNATURE, signatures, slot * SIGNATURE, SIGNATURE);
+            slotOf.put(names[slot], slot);
+            for (FileService.Distance distance : FileService.Distance.values()) {
+                int d = distance.ordinal();
+                int position = positions[d][last];
+                buckets[d][key(distance, signatures, slot * SIGNATURE)].slots[position] = slot;
+                positions[d][slot] = position;
+            }
+        }
+        names[last] = null;
+        return true;
+    }
+    
+    private void removeFromBucket(FileService.Distance distance, int slot) {
+        int d = distance.ordinal();
+        Bucket bucket = buckets[d][key(distance, signatures, slot * SIGNATURE)];
+        int position = positions[d][slot];
+        int moved = bucket.slots[--bucket.size];
+        bucket.slots[position] = moved;
+        positions[d][moved] = position;
+    }
+    
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        bits = Arrays.copyOf(bits, capacity * STRIDE);
+        signatures = Arrays.copyOf(signatures, capacity * SIGNATURE);
+        for (int d = 0; d < positions.length; d++) {
+            positions[d] = Arrays.copyOf(positions[d], capacity);
+        }
+    }
+    
+    /**
+     * Bucket key: total intensity for L1, active cells for Hamming
+     */
+    private static int key(FileService.Distance distance, int[] signature, int base) {
+        if (distance == FileService.Distance.HAMMING) {
+            return signature[base + PLANE_COUNTS];
+        }
+        int sum = 0;
+        for (int plane = 0; plane < MAX_INTENSITY; plane++) {
+            sum += signature[base + PLANE_COUNTS + plane];
+        }
+        return sum;
+    }
+    
+    private static int maxKey(FileService.Distance distance) {
+        return distance == FileService.Distance.HAMMING ? CELLS : CELLS * MAX_INTENSITY;
+    }
+    
+    /**
+     * Write a pattern's bitplanes and signature; intensities are clamped to 0-6
+     */
+    private static void encode(int[][] pattern, long[] bits, int bitsBase, int[] signature, int signatureBase) {
+        Arrays.fill(bits, bitsBase, bitsBase + STRIDE, 0L);
+        Arrays.fill(signature, signatureBase, signatureBase + SIGNATURE, 0);
+        for (int row = 0; row < GRID_ROWS; row++) {
+            for (int col = 0; col < GRID_COLS; col++) {
+                int intensity = Math.max(0, Math.min(MAX_INTENSITY, pattern[row][col]));
+                if (intensity == 0) {
+                    continue;
+                }
+                int cell = row * GRID_COLS + col;
+                long bit = 1L << (cell & 63);
+                for (int plane = 0; plane < intensity; plane++) {
+                    bits[bitsBase + plane * WORDS + (cell >>> 6)] |= bit;
+                    signature[signatureBase + PLANE_COUNTS + plane]++;
+                }
+                int band = col / BAND_WEEKS;
+                signature[signatureBase + BAND_SUMS + band] += intensity;
+                signature[signatureBase + BAND_ACTIVE + band]++;
+            }
+        }
+    }
+}
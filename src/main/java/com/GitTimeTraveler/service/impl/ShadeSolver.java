@@ -0,0 +1,213 @@
+package com.GitTimeTraveler.service.impl;
+
+import java.util.Arrays;
+
+/**
+ * Computes the fewest commits per day that make GitHub render the intended shades
+ *
+ * GitHub does not show commit counts literally: each day is shaded relative to
+ * the distribution of daily counts on the graph. Intensities 1-6 are mapped onto
+ * GitHub's four non-empty shades, and the solver searches for the smallest
+ * per-shade commit counts that reproduce every target shade on top of the
+ * commits that already exist. Days can only gain commits, never lose them.
+ */
+public class ShadeSolver {
+    
+    public static final int SHADE_LEVELS = 4;
+    private static final int GRID_ROWS = 7;
+    private static final int GRID_COLS = 53;
+    private static final int MAX_ITERATIONS = 2000;
+    
+    /**
+     * Maps total daily counts to shades (0 for no commits, 1-SHADE_LEVELS otherwise)
+     */
+    public interface ShadeModel {
+        void shade(int[] totals, int[] shades);
+    }
+    
+    /**
+     * Quartiles of the non-zero daily counts, as GitHub's contribution calendar does
+     */
+    public static final ShadeModel QUARTILES = (totals, shades) -> {
+        int[] nonZero = Arrays.stream(totals).filter(count -> count > 0).sorted().toArray();
+        if (nonZero.length == 0) {
+            Arrays.fill(shades, 0);
+            return;
+        }
+        int q1 = quantile(nonZero, 0.25);
+        int q2 = quantile(nonZero, 0.50);
+        int q3 = quantile(nonZero, 0.75);
+        for (int i = 0; i < totals.length; i++) {
+            int count = totals[i];
+            if (count == 0) shades[i] = 0;
+            else if (count <= q1) shades[i] = 1;
+            else if (count <= q2) shades[i] = 2;
+            else if (count <= q3) shades[i] = 3;
+            else shades[i] = 4;
+        }
+    };
+    
+    /**
+     * Commits to create per cell and how well the result matches the targets
+     */
+    public static class Plan {
+        public final int[][] commits;
+        public final int totalCommits;
+        public final int unreachableCells;
+        
+        public Plan(int[][] commits, int totalCommits, int unreachableCells) {
+            this.commits = commits;
+            this.totalCommits = totalCommits;
+            this.unreachableCells = unreachableCells;
+        }
+    }
+    
+    /**
+     * GitHub shade (0-4) an app intensity (0-6) is meant to render as
+     */
+    public static int shadeForIntensity(int intensity) {
+        return intensity <= 0 ? 0 : (int) Math.ceil(Math.min(6, intensity) * SHADE_LEVELS / 6.0);
+    }
+    
+    /**
+     * Solve with GitHub's quartile shading
+     */
+    public static Plan solve(int[][] patternData, int[][] existingCounts) {
+        return solve(patternData, existingCounts, QUARTILES);
+    }
+    
+    /**
+     * Solve for a pattern given the commits already on each day
+     *
+     * @param patternData target intensities (0-6); cells set to 0 are left untouched
+     * @param existingCounts commits already present per cell
+     */
+    public static Plan solve(int[][] patternData, int[][] existingCounts, ShadeModel model) {
+        int cells = GRID_ROWS * GRID_COLS;
+        int[] target = new int[cells];
+        int[] existing = new int[cells];
+        for (int day = 0; day < GRID_ROWS; day++) {
+            for (int week = 0; week < GRID_COLS; week++) {
+                int cell = week * GRID_ROWS + day;
+                target[cell] = shadeForIntensity(patternData[day][week]);
+                existing[cell] = existingCounts[day][week];
+            }
+        }
+        
+        // Commits per shade level; index 0 unused
+        int[] levelCounts = new int[SHADE_LEVELS + 1];
+        for (int level = 1; level <= SHADE_LEVELS; level++) {
+            levelCounts[level] = level;
+        }
+        
+        int[] totals = new int[cells];
+        int[] shades = new int[cells];
+        int[] bestLevelCounts = null;
+        int bestMismatches = Integer.MAX_VALUE;
+        long bestCommits = Long.MAX_VALUE;
+        
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            long added = fill(target, existing, levelCounts, totals);
+            model.shade(totals, shades);
+            
+            boolean[] tooLight = new boolean[SHADE_LEVELS + 1];
+            boolean[] tooDark = new boolean[SHADE_LEVELS + 1];
+            int mismatches = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                if (target[cell] > 0 && shades[cell] != target[cell]) {
+                    mismatches++;
+                    if (shades[cell] < target[cell]) tooLight[target[cell]] = true;
+                    else tooDark[target[cell]] = true;
+                }
+            }
+            
+            if (mismatches < bestMismatches || (mismatches == bestMismatches && added < bestCommits)) {
+                bestMismatches = mismatches;
+                bestCommits = added;
+                bestLevelCounts = levelCounts.clone();
+            }
+            if (mismatches == 0) {
+                break;
+            }
+            
+            // Raise the count of shades rendered too light; push everything above
+            // a shade rendered too dark further up so its thresholds move
+            for (int level = 1; level <= SHADE_LEVELS; level++) {
+                if (tooLight[level]) {
+                    levelCounts[level]++;
+                }
+                if (tooDark[level]) {
+                    for (int higher = level + 1; higher <= SHADE_LEVELS; higher++) {
+                        levelCounts[higher]++;
+                    }
+                }
+            }
+            for (int level = 2; level <= SHADE_LEVELS; level++) {
+                levelCounts[level] = Math.max(levelCounts[level], levelCounts[level - 1] + 1);
+            }
+        }
+        
+        // The search only ever raises counts, so when some targets are out of reach it
+        // can overshoot; lower each level while no more cells come out wrong
+        boolean lowered = true;
+        while (lowered) {
+            lowered = false;
+            for (int level = 1; level <= SHADE_LEVELS; level++) {
+                if (bestLevelCounts[level] <= 1) {
+                    continue;
+                }
+                int[] candidate = bestLevelCounts.clone();
+                candidate[level]--;
+                fill(target, existing, candidate, totals);
+                model.shade(totals, shades);
+                int mismatches = mismatches(target, shades);
+                if (mismatches <= bestMismatches) {
+                    bestMismatches = mismatches;
+                    bestLevelCounts = candidate;
+                    lowered = true;
+                }
+            }
+        }
+        
+        fill(target, existing, bestLevelCounts, totals);
+        int[][] commits = new int[GRID_ROWS][GRID_COLS];
+        int totalCommits = 0;
+        for (int day = 0; day < GRID_ROWS; day++) {
+            for (int week = 0; week < GRID_COLS; week++) {
+                int cell = week * GRID_ROWS + day;
+                commits[day][week] = totals[cell] - existing[cell];
+                totalCommits += commits[day][week];
+            }
+        }
+        return new Plan(commits, totalCommits, bestMismatches);
+    }
+    
+    /**
+     * Daily totals when every target cell is brought up to its level's count
+     *
+     * @return commits added
+     */
+    private static long fill(int[] target, int[] existing, int[] levelCounts, int[] totals) {
+        long added = 0;
+        for (int cell = 0; cell < target.length; cell++) {
+            totals[cell] = target[cell] > 0 ? Math.max(existing[cell], levelCounts[target[cell]]) : existing[cell];
+            added += totals[cell] - existing[cell];
+        }
+        return added;
+    }
+    
+    private static int mismatches(int[] target, int[] shades) {
+        int mismatches = 0;
+        for (int cell = 0; cell < target.length; cell++) {
+            if (target[cell] > 0 && shades[cell] != target[cell]) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+    
+    private static int quantile(int[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -148,4 +148,23 @@ public class UIServiceImpl implements UIService {
     public void showMessageDialog(Component parent, String title, String message, int messageType) {
         JOptionPane.showMessageDialog(parent, message, title, messageType);
     }
+    
+    @Override
+    public Color getIntensityColor(int intensity) {
+        if (intensity == 0) {
+            return Color.WHITE;
+        }
+        
+        // Create green colors with different intensities
+        // Base green: RGB(34, 197, 94) - GitHub's green
+        // Intensity 1: Very light green
+        // Intensity 6: Full GitHub green
+        float factor = intensity / 6.0f;
+        
+        int red = (int) (255 - (255 - 34) * factor);
+        int green = (int) (255 - (255 - 197) * factor);
+        int blue = (int) (255 - (255 - 94) * factor);
+        
+        return new Color(red, green, blue);
+    }
 }